@@ -0,0 +1,69 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JTok benchmarks with the GC profiler, so each result includes the allocation rate and
+ * the allocated bytes per operation. Accepts the usual JMH command line options, e.g. a regular
+ * expression for selecting benchmarks or {@code -prof} for more profilers.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public final class BenchmarkRunner {
+
+  /**
+   * Hides the constructor of this utility class.
+   */
+  private BenchmarkRunner() {
+
+    // nothing to do
+  }
+
+
+  /**
+   * This is the main method. It takes the JMH command line options as arguments.
+   *
+   * @param args
+   *          the arguments
+   * @throws CommandLineOptionException
+   *           if the arguments are invalid
+   * @throws RunnerException
+   *           if a benchmark fails
+   */
+  public static void main(String[] args)
+      throws CommandLineOptionException, RunnerException {
+
+    new Runner(new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .build())
+            .run();
+  }
+}
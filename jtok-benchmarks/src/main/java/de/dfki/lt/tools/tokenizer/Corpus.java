@@ -0,0 +1,91 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides the test corpora of JTok as benchmark input.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public final class Corpus {
+
+  // the English documents
+  private static final String[] ENGLISH = {
+      "english/amazon-coleman.txt", "english/english.txt", "english/randomhouse-hertsgaard.txt" };
+
+  // the German documents
+  private static final String[] GERMAN = {
+      "german/amazon.txt", "german/german.txt" };
+
+
+  /**
+   * Hides the constructor of this utility class.
+   */
+  private Corpus() {
+
+    // nothing to do
+  }
+
+
+  /**
+   * Loads the documents of the given language.
+   *
+   * @param lang
+   *          the language, {@code en} or {@code de}
+   * @return the documents
+   * @throws IOException
+   *           if there is an error when reading the documents
+   */
+  public static List<String> load(String lang)
+      throws IOException {
+
+    String[] fileNames;
+    switch (lang) {
+      case "en":
+        fileNames = ENGLISH;
+        break;
+      case "de":
+        fileNames = GERMAN;
+        break;
+      default:
+        throw new IllegalArgumentException(String.format("no corpus for language %s", lang));
+    }
+
+    List<String> result = new ArrayList<>();
+    for (String oneFileName : fileNames) {
+      try (InputStream in = Corpus.class.getClassLoader().getResourceAsStream(oneFileName)) {
+        if (null == in) {
+          throw new IOException(String.format("missing corpus file %s", oneFileName));
+        }
+        result.add(new String(FileTools.readInputStreamToByteArray(in), StandardCharsets.UTF_8));
+      }
+    }
+    return result;
+  }
+}
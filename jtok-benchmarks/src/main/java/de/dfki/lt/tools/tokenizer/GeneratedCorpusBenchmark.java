@@ -0,0 +1,118 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks tokenization of a text generated by {@link CorpusGenerator} with a fixed seed, so the
+ * input size can be scaled beyond the bundled corpus while the results stay comparable. One
+ * operation tokenizes the whole text.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratedCorpusBenchmark {
+
+  /** the language of the text */
+  @Param({ "en", "de" })
+  public String lang;
+
+  /** the minimum number of characters of the text */
+  @Param({ "100000", "1000000" })
+  public int length;
+
+  /** the seed of the generator */
+  @Param({ "42" })
+  public long seed;
+
+  // the tokenizer
+  private JTok jtok;
+
+  // the generated text
+  private String text;
+
+
+  /**
+   * Creates the tokenizer and generates the text.
+   *
+   * @throws IOException
+   *           if there is an error during initialization
+   */
+  @Setup
+  public void setUp()
+      throws IOException {
+
+    this.jtok = new JTok();
+    this.text = new CorpusGenerator(this.lang, this.seed).generate(this.length);
+  }
+
+
+  /**
+   * Tokenizes the whole text at once.
+   *
+   * @param blackhole
+   *          consumes the result
+   */
+  @Benchmark
+  public void tokenizeToDocument(Blackhole blackhole) {
+
+    blackhole.consume(this.jtok.tokenizeToDocument(this.text, this.lang));
+  }
+
+
+  /**
+   * Tokenizes the text in chunks of 64K characters.
+   *
+   * @param blackhole
+   *          consumes the results
+   * @throws IOException
+   *           never, as the text is read from a string
+   */
+  @Benchmark
+  public void tokenizeChunks(Blackhole blackhole)
+      throws IOException {
+
+    this.jtok.tokenizeChunks(new StringReader(this.text), this.lang, 1 << 16, blackhole::consume);
+  }
+}
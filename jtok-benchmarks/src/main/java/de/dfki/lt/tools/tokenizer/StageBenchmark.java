@@ -0,0 +1,156 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dfki.lt.tools.tokenizer.annotate.AnnotatedString;
+import de.dfki.lt.tools.tokenizer.annotate.FastAnnotatedString;
+
+/**
+ * Benchmarks each stage of {@link JTok} in isolation on the corpus of each language. Before each
+ * operation, the documents are prepared by running all previous stages, which is not measured. One
+ * operation runs the stage on all documents of the corpus.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StageBenchmark {
+
+  /** the language of the corpus */
+  @Param({ "en", "de" })
+  public String lang;
+
+  /** the stage to measure */
+  @Param({ "tokens", "punct", "abbrev", "tus" })
+  public String stage;
+
+  // the tokenizer
+  private JTok jtok;
+
+  // the language resource of the language
+  private LanguageResource langRes;
+
+  // the documents of the corpus
+  private List<String> documents;
+
+  // the documents prepared for the stage
+  private AnnotatedString[] inputs;
+
+
+  /**
+   * Creates the tokenizer and loads the corpus.
+   *
+   * @throws IOException
+   *           if there is an error during initialization
+   */
+  @Setup(Level.Trial)
+  public void setUp()
+      throws IOException {
+
+    this.jtok = new JTok();
+    this.langRes = this.jtok.getLanguageResource(this.lang);
+    this.documents = Corpus.load(this.lang);
+    this.inputs = new AnnotatedString[this.documents.size()];
+  }
+
+
+  /**
+   * Runs all stages before the measured stage on fresh annotated strings.
+   */
+  @Setup(Level.Invocation)
+  public void prepare() {
+
+    for (int i = 0; i < this.inputs.length; i++) {
+      String text = this.documents.get(i);
+      AnnotatedString input = new FastAnnotatedString(text);
+      switch (this.stage) {
+        case "tus":
+          this.jtok.identifyTokens(input, text, this.langRes, true, null);
+          this.jtok.identifyPunct(input, this.langRes, true, null);
+          this.jtok.identifyAbbrev(input, text, this.langRes, null);
+          break;
+        case "abbrev":
+          this.jtok.identifyTokens(input, text, this.langRes, true, null);
+          this.jtok.identifyPunct(input, this.langRes, true, null);
+          break;
+        case "punct":
+          this.jtok.identifyTokens(input, text, this.langRes, true, null);
+          break;
+        case "tokens":
+          break;
+        default:
+          throw new IllegalArgumentException(String.format("unknown stage %s", this.stage));
+      }
+      this.inputs[i] = input;
+    }
+  }
+
+
+  /**
+   * Runs the stage on all documents.
+   *
+   * @return the last annotated document
+   */
+  @Benchmark
+  public AnnotatedString runStage() {
+
+    for (int i = 0; i < this.inputs.length; i++) {
+      AnnotatedString input = this.inputs[i];
+      switch (this.stage) {
+        case "tokens":
+          this.jtok.identifyTokens(input, this.documents.get(i), this.langRes, true, null);
+          break;
+        case "punct":
+          this.jtok.identifyPunct(input, this.langRes, true, null);
+          break;
+        case "abbrev":
+          this.jtok.identifyAbbrev(input, this.documents.get(i), this.langRes, null);
+          break;
+        default:
+          this.jtok.identifyTus(input, this.documents.get(i), this.langRes, null);
+      }
+    }
+    return this.inputs[this.inputs.length - 1];
+  }
+}
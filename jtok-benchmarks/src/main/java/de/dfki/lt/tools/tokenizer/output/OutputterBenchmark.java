@@ -0,0 +1,115 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer.output;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.dfki.lt.tools.tokenizer.Corpus;
+import de.dfki.lt.tools.tokenizer.JTok;
+import de.dfki.lt.tools.tokenizer.annotate.AnnotatedString;
+
+/**
+ * Benchmarks {@link Outputter} against {@link XmlOutputter} on the tokenized corpus of each
+ * language. One operation creates the output for all documents of the corpus.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputterBenchmark {
+
+  /** the language of the corpus */
+  @Param({ "en", "de" })
+  public String lang;
+
+  // the tokenized documents
+  private List<AnnotatedString> documents;
+
+
+  /**
+   * Tokenizes the corpus.
+   *
+   * @throws IOException
+   *           if there is an error during initialization
+   */
+  @Setup
+  public void setUp()
+      throws IOException {
+
+    JTok jtok = new JTok();
+    this.documents = new ArrayList<>();
+    for (String oneDocument : Corpus.load(this.lang)) {
+      this.documents.add(jtok.tokenize(oneDocument, this.lang));
+    }
+  }
+
+
+  /**
+   * Creates paragraphs with text units and tokens.
+   *
+   * @param blackhole
+   *          consumes the results
+   */
+  @Benchmark
+  public void outputter(Blackhole blackhole) {
+
+    for (AnnotatedString oneDocument : this.documents) {
+      blackhole.consume(Outputter.createParagraphs(oneDocument));
+    }
+  }
+
+
+  /**
+   * Creates an XML string.
+   *
+   * @param blackhole
+   *          consumes the results
+   */
+  @Benchmark
+  public void xmlOutputter(Blackhole blackhole) {
+
+    for (AnnotatedString oneDocument : this.documents) {
+      blackhole.consume(XmlOutputter.createXmlString(oneDocument));
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer.regexp;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.dfki.lt.tools.tokenizer.Corpus;
+
+/**
+ * Benchmarks {@link DkBricsRegExp} against {@link JavaRegExp} on the English corpus. The regular
+ * expressions use syntax that means the same in both implementations.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegExpBenchmark {
+
+  /** the regular expression implementation */
+  @Param({ "dkbrics", "java" })
+  public String impl;
+
+  /** the regular expression */
+  @Param({ "[A-Za-z]+", "[0-9]+([.,][0-9]+)*", "[A-Z][a-z]*\\." })
+  public String regExpString;
+
+  // the regular expression
+  private RegExp regExp;
+
+  // the text to match
+  private String text;
+
+  // the single words of the text
+  private String[] words;
+
+
+  /**
+   * Creates the regular expression and loads the corpus.
+   *
+   * @throws IOException
+   *           if there is an error during initialization
+   */
+  @Setup
+  public void setUp()
+      throws IOException {
+
+    RegExpFactory factory =
+        "java".equals(this.impl) ? new JavaRegExpFactory() : new DkBricsRegExpFactory();
+    this.regExp = factory.createRegExp(this.regExpString);
+    this.text = String.join("\n", Corpus.load("en"));
+    this.words = this.text.split("\\s+");
+  }
+
+
+  /**
+   * Finds all matches in the text.
+   *
+   * @param blackhole
+   *          consumes the results
+   */
+  @Benchmark
+  public void getAllMatches(Blackhole blackhole) {
+
+    blackhole.consume(this.regExp.getAllMatches(this.text));
+  }
+
+
+  /**
+   * Matches each word of the text as a whole, as done when classifying tokens.
+   *
+   * @param blackhole
+   *          consumes the results
+   */
+  @Benchmark
+  public void matches(Blackhole blackhole) {
+
+    for (String oneWord : this.words) {
+      blackhole.consume(this.regExp.matches(oneWord));
+    }
+  }
+}
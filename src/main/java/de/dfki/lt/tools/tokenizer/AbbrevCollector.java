@@ -34,16 +34,25 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.dfki.lt.tools.tokenizer.exceptions.ProcessingException;
 import de.dfki.lt.tools.tokenizer.regexp.RegExp;
 
 /**
  * Provides methods to collect abbreviations from corpora containing a single sentence per line.
+ * The corpus files are processed in parallel.
  *
  * @author Joerg Steffen, DFKI
  */
@@ -52,6 +61,16 @@ public final class AbbrevCollector {
   // the logger
   private static final Logger logger = LoggerFactory.getLogger(AbbrevCollector.class);
 
+  // the number of rows of the Count-Min sketch for word counts
+  private static final int SKETCH_DEPTH = 4;
+
+  // the number of counters per row of the Count-Min sketch for word counts
+  private static final int SKETCH_WIDTH = 1 << 18;
+
+  // splits a sentence using as separator whitespaces and ... .. ' ` ( ) |
+  private static final Pattern SPLIT_PATTERN =
+      Pattern.compile(" |\\.\\.\\.|\\.\\.|'|`|\\(|\\)|[|]");
+
 
   // would create a new instance of {@link AbbrevCollector}; not to be used
   private AbbrevCollector() {
@@ -63,7 +82,8 @@ public final class AbbrevCollector {
   /**
    * Scans the given directory recursively for files with the given suffix. It is assumed that each
    * of these files contains one sentence per line. It extracts all abbreviations from these files
-   * and stores them under the given result file name using UTF-8 encoding.
+   * and stores them under the given result file name using UTF-8 encoding. The files are processed
+   * in parallel using all available processors.
    *
    * @param dir
    *          the directory to scan
@@ -82,92 +102,46 @@ public final class AbbrevCollector {
       String dir, String suffix, String encoding, String resultFileName, String lang)
       throws IOException {
 
-    // init tokenizer and get the relevant language resource
-    JTok jtok = new JTok();
-    LanguageResource langRes = jtok.getLanguageResource(lang);
-
-    // get matchers and lists used to filter the abbreviations
-
-    // the lists contains known abbreviations and titles
-    Map<String, Set<String>> abbrevLists = langRes.getAbbrevLists();
+    collect(dir, suffix, encoding, resultFileName, lang,
+        Runtime.getRuntime().availableProcessors());
+  }
 
-    // this contains the word that only start with a capital letter at
-    // the beginning of a sentence; we want to avoid to extract abbreviations
-    // consisting of such a word followed by a punctuation
-    Set<String> nonCapTerms = langRes.getNonCapTerms();
 
-    // this are the matcher for abbreviations
-    RegExp abbrevMatcher = langRes.getAllAbbrevMatcher();
+  /**
+   * Scans the given directory recursively for files with the given suffix. It is assumed that each
+   * of these files contains one sentence per line. It extracts all abbreviations from these files
+   * and stores them under the given result file name using UTF-8 encoding. The files are processed
+   * in parallel using the given number of threads.
+   *
+   * @param dir
+   *          the directory to scan
+   * @param suffix
+   *          the file name suffix
+   * @param encoding
+   *          the encoding of the files
+   * @param resultFileName
+   *          the result file name
+   * @param lang
+   *          the language of the files
+   * @param threads
+   *          the number of threads
+   * @throws IOException
+   *           if there is a problem when reading or writing the files
+   */
+  public static void collect(
+      String dir, String suffix, String encoding, String resultFileName, String lang,
+      int threads)
+      throws IOException {
 
-    Set<String> abbrevs = new HashSet<String>();
+    // init tokenizer and get the relevant language resource
+    JTok jtok = new JTok();
+    LanguageResource langRes = jtok.getLanguageResource(lang);
 
     // get all training files
     List<String> trainingFiles = FileTools.getFilesFromDir(dir, suffix);
 
-    // iterate over corpus files
-    for (String oneFileName : trainingFiles) {
-      logger.info("processing " + oneFileName + " ...");
-
-      // init reader
-      BufferedReader in =
-          new BufferedReader(
-              new InputStreamReader(
-                  new FileInputStream(oneFileName), encoding));
-      String sent;
-      // read lines from file
-      while ((sent = in.readLine()) != null) {
-
-        // split the sentence using as separator whitespaces and
-        // ... .. ' ` \ \\ |
-        String[] tokens = sent.split(" |\\.\\.\\.|\\.\\.|'|`|\\(|\\)|[|]");
-
-        for (int i = 0; i < (tokens.length - 1); i++) {
-          // we skip the last token with the final sentence punctuation
-          String oneTok = tokens[i];
-          if ((oneTok.length() > 1) && oneTok.endsWith(".")) {
-
-            // if the abbreviation contains a hyphen, it's sufficient to check
-            // the part after the hyphen
-            int hyphenPos = oneTok.lastIndexOf("-");
-            if (hyphenPos != -1) {
-              oneTok = oneTok.substring(hyphenPos + 1);
-            }
-
-            // check with matchers
-            if (abbrevMatcher.matches(oneTok)) {
-              continue;
-            }
-
-            // check with lists
-            boolean found = false;
-            for (Map.Entry<String, Set<String>> oneEntry : abbrevLists.entrySet()) {
-              Set<String> oneList = oneEntry.getValue();
-              if (oneList.contains(oneTok)) {
-                found = true;
-                break;
-              }
-            }
-            if (found) {
-              continue;
-            }
-
-            // check with terms;
-            // convert first letter to upper case because this is the format of
-            // the terms in the list and remove the punctuation
-            char firstChar = oneTok.charAt(0);
-            firstChar = Character.toUpperCase(firstChar);
-            String tempTok = firstChar + oneTok.substring(1, oneTok.length() - 1);
-            if (nonCapTerms.contains(tempTok)) {
-              continue;
-            }
-
-            // we found a new abbreviation
-            abbrevs.add(oneTok);
-          }
-        }
-      }
-      in.close();
-    }
+    Set<String> abbrevs =
+        collectCandidates(trainingFiles, encoding, new CandidateFilter(langRes), threads);
 
     // sort collected abbreviations
     List<String> sortedAbbrevs = new ArrayList<String>(abbrevs);
@@ -194,13 +168,344 @@ public final class AbbrevCollector {
 
 
   /**
-   * This is the main method. It requires 5 arguments:
+   * Scans the given directory recursively for files with the given suffix. It is assumed that each
+   * of these files contains one sentence per line. It extracts the most frequent abbreviations from
+   * these files in fixed memory, so corpora of any size can be processed. The abbreviations are
+   * stored under the given result file name using UTF-8 encoding, one per line with their count and
+   * ratio separated by tabs, ordered by descending count.<br>
+   * The counts of the abbreviations are tracked with a Space-Saving summary of the given capacity.
+   * The counts of all other words are estimated with a Count-Min sketch. The ratio of an
+   * abbreviation is its count divided by the sum of its count and the estimated count of the same
+   * word without period. Only abbreviations with a guaranteed count and a ratio of at least the
+   * given minimums are stored. Each thread uses its own summary and sketch; they are merged at the
+   * end.
+   *
+   * @param dir
+   *          the directory to scan
+   * @param suffix
+   *          the file name suffix
+   * @param encoding
+   *          the encoding of the files
+   * @param resultFileName
+   *          the result file name
+   * @param lang
+   *          the language of the files
+   * @param threads
+   *          the number of threads
+   * @param capacity
+   *          the maximum number of abbreviations tracked per thread
+   * @param minCount
+   *          the minimum count of stored abbreviations
+   * @param minRatio
+   *          the minimum ratio of stored abbreviations
+   * @throws IOException
+   *           if there is a problem when reading or writing the files
+   */
+  public static void collectFrequent(
+      String dir, String suffix, String encoding, String resultFileName, String lang,
+      int threads, int capacity, long minCount, double minRatio)
+      throws IOException {
+
+    // init tokenizer and get the relevant language resource
+    JTok jtok = new JTok();
+    LanguageResource langRes = jtok.getLanguageResource(lang);
+    CandidateFilter filter = new CandidateFilter(langRes);
+
+    // get all training files
+    List<String> trainingFiles = FileTools.getFilesFromDir(dir, suffix);
+
+    // each worker takes the next unprocessed file until all files are processed
+    AtomicInteger nextFile = new AtomicInteger();
+    SpaceSaving abbrevCounts = null;
+    CountMinSketch wordCounts = null;
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      List<ForkJoinTask<Object[]>> tasks = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        tasks.add(pool.submit(() -> {
+          SpaceSaving localAbbrevCounts = new SpaceSaving(capacity);
+          CountMinSketch localWordCounts = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+          int fileIndex;
+          while ((fileIndex = nextFile.getAndIncrement()) < trainingFiles.size()) {
+            forEachCandidate(trainingFiles.get(fileIndex), encoding, filter,
+                oneAbbrev -> localAbbrevCounts.add(oneAbbrev, 1),
+                oneWord -> localWordCounts.add(oneWord, 1));
+          }
+          return new Object[] { localAbbrevCounts, localWordCounts };
+        }));
+      }
+      for (ForkJoinTask<Object[]> oneTask : tasks) {
+        Object[] oneResult = getResult(oneTask);
+        if (null == abbrevCounts) {
+          abbrevCounts = (SpaceSaving)oneResult[0];
+          wordCounts = (CountMinSketch)oneResult[1];
+        } else {
+          abbrevCounts.merge((SpaceSaving)oneResult[0]);
+          wordCounts.merge((CountMinSketch)oneResult[1]);
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    // save results
+    try (PrintWriter out = new PrintWriter(
+        new BufferedWriter(
+            new OutputStreamWriter(
+                new FileOutputStream(resultFileName), "utf-8")))) {
+      for (SpaceSaving.Counter oneCounter : abbrevCounts.getTop(minCount)) {
+        String oneAbbrev = oneCounter.getString();
+        long count = oneCounter.getCount() - oneCounter.getError();
+        long wordCount = wordCounts.estimate(oneAbbrev.substring(0, oneAbbrev.length() - 1));
+        double ratio = count / (double)(count + wordCount);
+        if (ratio >= minRatio) {
+          out.println(String.format(Locale.ROOT, "%s\t%d\t%.3f", oneAbbrev, count, ratio));
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Waits for the given task and returns its result.
+   *
+   * @param task
+   *          the task
+   * @param <T>
+   *          the result type
+   * @return the result
+   * @throws IOException
+   *           if the task failed with an {@link IOException}
+   * @exception ProcessingException
+   *              if the task failed with another exception or waiting was interrupted
+   */
+  private static <T> T getResult(ForkJoinTask<T> task)
+      throws IOException {
+
+    try {
+      return task.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException)e.getCause();
+      }
+      throw new ProcessingException(e.getCause().getLocalizedMessage(), e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ProcessingException(e.getLocalizedMessage(), e);
+    }
+  }
+
+
+  /**
+   * Collects the abbreviation candidates in the given files. Each file is processed by a separate
+   * task on a {@link ForkJoinPool} that collects into a local set first. The local sets are then
+   * merged into a concurrent set, whose bins are locked independently.
+   *
+   * @param fileNames
+   *          the file names
+   * @param encoding
+   *          the encoding of the files
+   * @param filter
+   *          the filter for abbreviation candidates
+   * @param threads
+   *          the number of threads
+   * @return the set of abbreviation candidates
+   * @throws IOException
+   *           if there is a problem when reading the files
+   */
+  static Set<String> collectCandidates(
+      List<String> fileNames, String encoding, CandidateFilter filter, int threads)
+      throws IOException {
+
+    Set<String> candidates = ConcurrentHashMap.newKeySet();
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      List<ForkJoinTask<Void>> tasks = new ArrayList<>();
+      for (String oneFileName : fileNames) {
+        tasks.add(pool.submit(() -> {
+          Set<String> localCandidates = new HashSet<>();
+          forEachCandidate(oneFileName, encoding, filter, localCandidates::add);
+          candidates.addAll(localCandidates);
+          return null;
+        }));
+      }
+      for (ForkJoinTask<Void> oneTask : tasks) {
+        getResult(oneTask);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    return candidates;
+  }
+
+
+  /**
+   * Passes all abbreviation candidates of the given file to the given consumer.
+   *
+   * @param fileName
+   *          the file name
+   * @param encoding
+   *          the encoding of the file
+   * @param filter
+   *          the filter for abbreviation candidates
+   * @param consumer
+   *          the consumer of the candidates
+   * @throws IOException
+   *           if there is a problem when reading the file
+   */
+  static void forEachCandidate(
+      String fileName, String encoding, CandidateFilter filter, Consumer<String> consumer)
+      throws IOException {
+
+    forEachCandidate(fileName, encoding, filter, consumer, null);
+  }
+
+
+  /**
+   * Passes all abbreviation candidates of the given file to the given candidate consumer and all
+   * other tokens that don't end with a period to the given word consumer.
+   *
+   * @param fileName
+   *          the file name
+   * @param encoding
+   *          the encoding of the file
+   * @param filter
+   *          the filter for abbreviation candidates
+   * @param consumer
+   *          the consumer of the candidates
+   * @param wordConsumer
+   *          the consumer of the other tokens, may be {@code null}
+   * @throws IOException
+   *           if there is a problem when reading the file
+   */
+  static void forEachCandidate(
+      String fileName, String encoding, CandidateFilter filter, Consumer<String> consumer,
+      Consumer<String> wordConsumer)
+      throws IOException {
+
+    logger.info("processing " + fileName + " ...");
+
+    try (BufferedReader in =
+        new BufferedReader(
+            new InputStreamReader(
+                new FileInputStream(fileName), encoding))) {
+      String sent;
+      // read lines from file
+      while ((sent = in.readLine()) != null) {
+
+        String[] tokens = SPLIT_PATTERN.split(sent);
+
+        for (int i = 0; i < (tokens.length - 1); i++) {
+          // we skip the last token with the final sentence punctuation
+          String oneAbbrev = filter.filter(tokens[i]);
+          if (null != oneAbbrev) {
+            consumer.accept(oneAbbrev);
+          } else if ((null != wordConsumer)
+              && !tokens[i].isEmpty() && !tokens[i].endsWith(".")) {
+            wordConsumer.accept(tokens[i]);
+          }
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Filters tokens that are new abbreviations, i.e. not yet known from the abbreviation lists and
+   * matchers of a language resource. Instances are immutable and can be shared between threads.
+   */
+  static class CandidateFilter {
+
+    // the union of all lists with known abbreviations and titles
+    private TermDictionary knownAbbrevs;
+
+    // this contains the word that only start with a capital letter at
+    // the beginning of a sentence; we want to avoid to extract abbreviations
+    // consisting of such a word followed by a punctuation
+    private TermDictionary nonCapTerms;
+
+    // this are the matcher for abbreviations
+    private RegExp abbrevMatcher;
+
+
+    /**
+     * Creates a new instance of {@link CandidateFilter} for the given language resource.
+     *
+     * @param langRes
+     *          the language resource
+     */
+    CandidateFilter(LanguageResource langRes) {
+
+      // merge the lists, so each token is looked up only once
+      this.knownAbbrevs = TermDictionary.union(langRes.getAbbrevLists().values());
+      this.nonCapTerms = langRes.getNonCapTerms();
+      this.abbrevMatcher = langRes.getAllAbbrevMatcher();
+    }
+
+
+    /**
+     * Checks if the given token is a new abbreviation.
+     *
+     * @param token
+     *          the token
+     * @return the new abbreviation, which is the part after the last hyphen of the token, or
+     *         {@code null} if the token is not a new abbreviation
+     */
+    String filter(String token) {
+
+      if ((token.length() <= 1) || !token.endsWith(".")) {
+        return null;
+      }
+
+      // if the abbreviation contains a hyphen, it's sufficient to check
+      // the part after the hyphen
+      String oneTok = token;
+      int hyphenPos = oneTok.lastIndexOf('-');
+      if (hyphenPos != -1) {
+        oneTok = oneTok.substring(hyphenPos + 1);
+        if (oneTok.length() <= 1) {
+          return null;
+        }
+      }
+
+      // check with matchers
+      if (this.abbrevMatcher.matches(oneTok)) {
+        return null;
+      }
+
+      // check with lists
+      if (this.knownAbbrevs.contains(oneTok)) {
+        return null;
+      }
+
+      // check with terms;
+      // convert first letter to upper case because this is the format of
+      // the terms in the list and remove the punctuation
+      char firstChar = oneTok.charAt(0);
+      firstChar = Character.toUpperCase(firstChar);
+      String tempTok = firstChar + oneTok.substring(1, oneTok.length() - 1);
+      if (this.nonCapTerms.contains(tempTok)) {
+        return null;
+      }
+
+      // we found a new abbreviation
+      return oneTok;
+    }
+  }
+
+
+  /**
+   * This is the main method. It requires 5 or 6 arguments, optionally preceded by
+   * {@code --frequent <capacity> <minCount> <minRatio>} to collect only frequent abbreviations with
+   * their counts, see
+   * {@link #collectFrequent(String, String, String, String, String, int, int, long, double)}:
    * <ul>
    * <li>the parent folder of the corpus
    * <li>the file extension of the corpus files to use
    * <li>the file encoding
    * <li>the result file name
    * <li>the language of the corpus
+   * <li>an optional number of threads (default is the number of available processors)
    * </ul>
    *
    * @param args
@@ -208,13 +513,29 @@ public final class AbbrevCollector {
    */
   public static void main(String[] args) {
 
-    if (args.length != 5) {
+    int first = 0;
+    if ((args.length > 0) && args[0].equals("--frequent")) {
+      first = 4;
+    }
+    if ((args.length != first + 5) && (args.length != first + 6)) {
       System.err.println("wrong number of arguments");
       System.exit(1);
     }
 
+    int threads = Runtime.getRuntime().availableProcessors();
+    if (args.length == first + 6) {
+      threads = Integer.parseInt(args[first + 5]);
+    }
+
     try {
-      AbbrevCollector.collect(args[0], args[1], args[2], args[3], args[4]);
+      if (first > 0) {
+        AbbrevCollector.collectFrequent(
+            args[first], args[first + 1], args[first + 2], args[first + 3], args[first + 4],
+            threads, Integer.parseInt(args[1]), Long.parseLong(args[2]),
+            Double.parseDouble(args[3]));
+      } else {
+        AbbrevCollector.collect(args[0], args[1], args[2], args[3], args[4], threads);
+      }
     } catch (IOException e) {
       e.printStackTrace();
     }
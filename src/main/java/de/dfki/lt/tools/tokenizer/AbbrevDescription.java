@@ -28,9 +28,7 @@ import java.io.InputStreamReader;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 import de.dfki.lt.tools.tokenizer.regexp.RegExp;
 
@@ -53,7 +51,7 @@ public class AbbrevDescription extends Description {
 
   // the most common terms that only start with a capital letter when they are at the beginning
   // of a sentence
-  private Set<String> nonCapTerms;
+  private TermDictionary nonCapTerms;
 
 
   /**
@@ -74,7 +72,7 @@ public class AbbrevDescription extends Description {
     super.setDefinitionsMap(new HashMap<String, RegExp>());
     super.setRulesMap(new HashMap<String, RegExp>());
     super.setRegExpMap(new HashMap<RegExp, String>());
-    super.setClassMembersMap(new HashMap<String, Set<String>>());
+    super.setClassMembersMap(new HashMap<String, TermDictionary>());
 
     Path abbrDescrPath = Paths.get(resourceDir).resolve(lang + ABBREV_DESCR);
     BufferedReader in = new BufferedReader(
@@ -111,12 +109,12 @@ public class AbbrevDescription extends Description {
 
 
   /**
-   * Returns the set of the most common terms that only start with a capital letter when they are at
-   * the beginning of a sentence.
+   * Returns the dictionary of the most common terms that only start with a capital letter when they
+   * are at the beginning of a sentence.
    *
-   * @return a set with the terms
+   * @return a dictionary with the terms
    */
-  protected Set<String> getNonCapTerms() {
+  protected TermDictionary getNonCapTerms() {
 
     return this.nonCapTerms;
   }
@@ -139,8 +137,8 @@ public class AbbrevDescription extends Description {
       return;
     }
 
-    // init set where to store the terms
-    this.nonCapTerms = new HashSet<String>();
+    // init dictionary builder where to store the terms
+    TermDictionary.Builder terms = new TermDictionary.Builder();
 
     String line;
     while ((line = in.readLine()) != null) {
@@ -158,13 +156,10 @@ public class AbbrevDescription extends Description {
         }
       }
 
-      // convert first letter to upper case to make runtime comparison more
-      // efficient
-      char firstChar = line.charAt(0);
-      firstChar = Character.toUpperCase(firstChar);
-      this.nonCapTerms.add(firstChar + line.substring(1));
-      // also add a version completely in upper case letters
-      this.nonCapTerms.add(line.toUpperCase());
+      // accept the term with the first letter in upper case and a version
+      // completely in upper case letters
+      terms.add(line, TermDictionary.CAPITALIZED | TermDictionary.UPPER_CASE);
     }
+    this.nonCapTerms = terms.build();
   }
 }
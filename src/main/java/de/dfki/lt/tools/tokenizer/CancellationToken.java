@@ -0,0 +1,60 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package de.dfki.lt.tools.tokenizer;
+
+/**
+ * Allows to cancel a running tokenization from another thread, e.g. when the client that requested
+ * it disconnects. Pass the token to {@link JTok#tokenize(String, String, CancellationToken)} or
+ * {@link JTok#tokenizeToDocument(String, String, CancellationToken)}; after {@link #cancel()} has
+ * been called, the tokenization stops at its next check with a
+ * {@link java.util.concurrent.CancellationException}. Checks happen on each regular expression
+ * invocation, between the stages and at each paragraph, so the tokenizing thread is freed within
+ * milliseconds. A token can be shared by several tokenizations and can't be reset.<br>
+ * This class is thread-safe.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class CancellationToken {
+
+  // flag indicating if cancellation has been requested
+  private volatile boolean cancelled;
+
+
+  /**
+   * Requests the cancellation of all tokenizations using this token.
+   */
+  public void cancel() {
+
+    this.cancelled = true;
+  }
+
+
+  /**
+   * @return a flag indicating if cancellation has been requested
+   */
+  public boolean isCancelled() {
+
+    return this.cancelled;
+  }
+}
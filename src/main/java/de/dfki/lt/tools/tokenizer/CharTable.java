@@ -0,0 +1,184 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package de.dfki.lt.tools.tokenizer;
+
+import de.dfki.lt.tools.tokenizer.regexp.RegExp;
+
+/**
+ * Lookup table with bit flags for each character of the Basic Multilingual Plane, so classifying
+ * a character on the tokenizer hot path costs a single array load. The flags for whitespace,
+ * letters, lower case letters and digits are the same for all languages; the flag
+ * for characters that can start a punctuation depends on the punctuation description of the
+ * language. Supplementary code points are classified via {@link Character}.<br>
+ * This class is thread-safe.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+final class CharTable {
+
+  // flag for whitespaces, including the no-break space
+  private static final byte WHITESPACE = 1;
+
+  // flag for letters
+  private static final byte LETTER = 2;
+
+  // flag for lower case letters
+  private static final byte LOWER_CASE = 4;
+
+  // flag for digits
+  private static final byte DIGIT = 8;
+
+  // flag for characters that can start a punctuation
+  private static final byte PUNCT_START = 16;
+
+  // the language independent flags of all characters
+  private static final byte[] BASE_FLAGS = createBaseFlags();
+
+
+  // the flags of all characters, indexed by character
+  private byte[] flags;
+
+
+  /**
+   * Creates a new instance of {@link CharTable}.
+   *
+   * @param punctMatcher
+   *          the matcher for all punctuation of the language
+   */
+  CharTable(RegExp punctMatcher) {
+
+    this.flags = BASE_FLAGS.clone();
+    for (int i = 0; i < this.flags.length; i++) {
+      if (punctMatcher.canStartWith((char)i)) {
+        this.flags[i] |= PUNCT_START;
+      }
+    }
+  }
+
+
+  /**
+   * @return the language independent flags of all characters
+   */
+  private static byte[] createBaseFlags() {
+
+    byte[] result = new byte[Character.MAX_VALUE + 1];
+    for (int i = 0; i < result.length; i++) {
+      char c = (char)i;
+      int oneFlags = 0;
+      if (Character.isWhitespace(c) || c == '\u00a0') {
+        oneFlags |= WHITESPACE;
+      }
+      if (Character.isLetter(c)) {
+        oneFlags |= LETTER;
+      }
+      if (Character.isLowerCase(c)) {
+        oneFlags |= LOWER_CASE;
+      }
+      if (Character.isDigit(c)) {
+        oneFlags |= DIGIT;
+      }
+      result[i] = (byte)oneFlags;
+    }
+    return result;
+  }
+
+
+  /**
+   * Checks if the given character is a whitespace, independent of the language.
+   *
+   * @param c
+   *          the character
+   * @return a flag indicating if the character is a whitespace or a no-break space
+   */
+  static boolean isWhitespaceChar(char c) {
+
+    return (BASE_FLAGS[c] & WHITESPACE) != 0;
+  }
+
+
+  /**
+   * @param c
+   *          the character
+   * @return a flag indicating if the character is a whitespace or a no-break space
+   */
+  boolean isWhitespace(char c) {
+
+    return (this.flags[c] & WHITESPACE) != 0;
+  }
+
+
+  /**
+   * @param c
+   *          the character
+   * @return a flag indicating if the character is a letter
+   */
+  boolean isLetter(char c) {
+
+    return (this.flags[c] & LETTER) != 0;
+  }
+
+
+  /**
+   * @param c
+   *          the character
+   * @return a flag indicating if the character is a lower case letter
+   */
+  boolean isLowerCase(char c) {
+
+    return (this.flags[c] & LOWER_CASE) != 0;
+  }
+
+
+  /**
+   * @param codePoint
+   *          the code point
+   * @return a flag indicating if the code point is a letter or digit
+   */
+  boolean isLetterOrDigit(int codePoint) {
+
+    if (codePoint > Character.MAX_VALUE) {
+      return Character.isLetterOrDigit(codePoint);
+    }
+    return (this.flags[codePoint] & (LETTER | DIGIT)) != 0;
+  }
+
+
+  /**
+   * Checks if the given string contains a character that can start a punctuation. If not, the
+   * string contains no punctuation.
+   *
+   * @param string
+   *          the string
+   * @return a flag indicating if a punctuation may start in the string
+   */
+  boolean containsPunctStart(String string) {
+
+    for (int i = 0; i < string.length(); i++) {
+      if ((this.flags[string.charAt(i)] & PUNCT_START) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
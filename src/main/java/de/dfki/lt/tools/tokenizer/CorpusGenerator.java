@@ -0,0 +1,522 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic texts for throughput and stress testing. The texts consist of sentences and
+ * paragraphs of words, mixed with abbreviations, clitics, numbers, URLs, email addresses and
+ * punctuation clusters at configurable rates. Abbreviations are taken from the breaking
+ * abbreviations list of the language. Words, clitics and number formats are language specific for
+ * English and German; other languages use pseudo words.<br>
+ * The same language, seed and rates always give the same text, so generated corpora of any size
+ * can be reproduced without storing them. Instances are not thread-safe.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class CorpusGenerator {
+
+  // English words
+  private static final String[] ENGLISH_WORDS = {
+      "the", "of", "and", "to", "in", "is", "was", "that", "for", "it", "with", "as", "on", "be",
+      "at", "by", "this", "had", "not", "are", "but", "from", "or", "have", "an", "they", "which",
+      "one", "you", "were", "her", "all", "she", "there", "would", "their", "we", "him", "been",
+      "has", "when", "who", "will", "more", "no", "if", "out", "so", "said", "what", "up", "its",
+      "about", "into", "than", "them", "can", "only", "other", "new", "some", "could", "time",
+      "these", "two", "may", "then", "do", "first", "any", "my", "now", "such", "like", "our",
+      "over", "man", "me", "even", "most", "made", "after", "also", "did", "many", "before",
+      "must", "through", "back", "years", "where", "much", "your", "way", "well", "down", "should",
+      "because", "each", "just", "those", "people", "how", "too", "little", "state", "good",
+      "very", "make", "world", "still", "own", "see", "men", "work", "long", "get", "here",
+      "between", "both", "life", "being", "under", "never", "day", "same", "another", "know",
+      "while", "last", "might", "us", "great", "old", "year", "off", "come", "since", "against",
+      "go", "came", "right", "used", "take", "three", "company", "market", "government", "report" };
+
+  // German words
+  private static final String[] GERMAN_WORDS = {
+      "der", "die", "und", "in", "den", "von", "zu", "das", "mit", "sich", "des", "auf", "für",
+      "ist", "im", "dem", "nicht", "ein", "eine", "als", "auch", "es", "an", "werden", "aus", "er",
+      "hat", "dass", "sie", "nach", "wird", "bei", "einer", "um", "am", "sind", "noch", "wie",
+      "einem", "über", "einen", "so", "zum", "war", "haben", "nur", "oder", "aber", "vor", "zur",
+      "bis", "mehr", "durch", "man", "sein", "wurde", "sei", "prozent", "hatte", "kann", "gegen",
+      "vom", "können", "schon", "wenn", "habe", "seine", "ihre", "dann", "unter", "wir", "soll",
+      "ich", "eines", "jahr", "zwei", "jahren", "diese", "dieser", "wieder", "keine", "seiner",
+      "worden", "will", "zwischen", "immer", "was", "sagte", "gibt", "alle", "diesem", "seit",
+      "muss", "wurden", "beim", "doch", "jetzt", "waren", "drei", "neue", "damit", "bereits",
+      "da", "ihr", "seinen", "müssen", "ab", "ihrer", "ob", "ihren", "ohne", "sehr", "größte",
+      "straße", "grüße", "mädchen", "unternehmen", "regierung", "markt", "bericht", "stadt" };
+
+  // English enclitics
+  private static final String[] ENGLISH_CLITICS = { "'s", "'re", "'ll", "'ve", "n't", "'d", "'m" };
+
+  // German enclitics
+  private static final String[] GERMAN_CLITICS = { "'s", "'n" };
+
+  // syllables for pseudo words
+  private static final String[] SYLLABLES = {
+      "ka", "lo", "mi", "ne", "ru", "ta", "be", "si", "do", "ga", "fu", "re", "pa", "vi", "zo",
+      "an", "el", "in", "or", "us", "ter", "ber", "son", "lan", "dor" };
+
+  // punctuation clusters that follow a token
+  private static final String[] PUNCT_CLUSTERS = {
+      ",", ",", ",", ";", ":", " -", "...", "?!", "\")", "),", "--", "/" };
+
+  // top level domains
+  private static final String[] DOMAINS = { "com", "org", "net", "de", "eu" };
+
+
+  // the random generator
+  private Random random;
+
+  // the words
+  private String[] words;
+
+  // the enclitics
+  private String[] clitics;
+
+  // the breaking abbreviations
+  private String[] abbreviations;
+
+  // the decimal separator of numbers
+  private char decimalSeparator;
+
+  // the probability of an abbreviation per token
+  private double abbrevRate;
+
+  // the probability of a clitic per token
+  private double cliticRate;
+
+  // the probability of a number per token
+  private double numberRate;
+
+  // the probability of a URL or email address per token
+  private double urlRate;
+
+  // the probability of a punctuation cluster after a token
+  private double punctRate;
+
+  // the probability of a paragraph break after a sentence
+  private double paragraphRate;
+
+
+  /**
+   * Creates a new instance of {@link CorpusGenerator} for the given language with default rates.
+   * The breaking abbreviations are read from {@code jtok/LANG/LANG_b-abbrev.txt}; without such a
+   * list, no abbreviations are generated.
+   *
+   * @param lang
+   *          the language
+   * @param seed
+   *          the seed of the random generator
+   * @throws IOException
+   *           if there is an error when reading the abbreviations list
+   */
+  public CorpusGenerator(String lang, long seed)
+      throws IOException {
+
+    this.random = new Random(seed);
+    switch (lang) {
+      case "en":
+        this.words = ENGLISH_WORDS;
+        this.clitics = ENGLISH_CLITICS;
+        this.decimalSeparator = '.';
+        break;
+      case "de":
+        this.words = GERMAN_WORDS;
+        this.clitics = GERMAN_CLITICS;
+        this.decimalSeparator = ',';
+        break;
+      default:
+        this.words = null;
+        this.clitics = ENGLISH_CLITICS;
+        this.decimalSeparator = '.';
+    }
+    this.abbreviations = loadAbbreviations(lang);
+
+    this.abbrevRate = 0.02;
+    this.cliticRate = 0.03;
+    this.numberRate = 0.04;
+    this.urlRate = 0.005;
+    this.punctRate = 0.08;
+    this.paragraphRate = 0.15;
+  }
+
+
+  /**
+   * Loads the breaking abbreviations of the given language.
+   *
+   * @param lang
+   *          the language
+   * @return the abbreviations, empty if there is no list for the language
+   * @throws IOException
+   *           if there is an error when reading the list
+   */
+  private static String[] loadAbbreviations(String lang)
+      throws IOException {
+
+    List<String> result = new ArrayList<>();
+    try (BufferedReader in = new BufferedReader(new InputStreamReader(
+        FileTools.openResourceFileAsStream(
+            Paths.get("jtok").resolve(lang).resolve(lang + "_b-abbrev.txt")),
+        StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        int end = line.indexOf('#');
+        if (-1 != end) {
+          line = line.substring(0, end);
+        }
+        line = line.trim();
+        if (line.length() > 0) {
+          result.add(line);
+        }
+      }
+    } catch (FileNotFoundException | NoSuchFileException fne) {
+      // no abbreviations for this language
+    }
+    return result.toArray(new String[result.size()]);
+  }
+
+
+  /**
+   * Checks that the given rate is a probability.
+   *
+   * @param rate
+   *          the rate
+   * @return the rate
+   */
+  private static double checkRate(double rate) {
+
+    if (rate < 0 || rate > 1) {
+      throw new IllegalArgumentException(String.format("rate %f not between 0 and 1", rate));
+    }
+    return rate;
+  }
+
+
+  /**
+   * @param abbrevRate
+   *          the probability of an abbreviation per token
+   */
+  public void setAbbrevRate(double abbrevRate) {
+
+    this.abbrevRate = checkRate(abbrevRate);
+  }
+
+
+  /**
+   * @param cliticRate
+   *          the probability of a clitic per token
+   */
+  public void setCliticRate(double cliticRate) {
+
+    this.cliticRate = checkRate(cliticRate);
+  }
+
+
+  /**
+   * @param numberRate
+   *          the probability of a number per token
+   */
+  public void setNumberRate(double numberRate) {
+
+    this.numberRate = checkRate(numberRate);
+  }
+
+
+  /**
+   * @param urlRate
+   *          the probability of a URL or email address per token
+   */
+  public void setUrlRate(double urlRate) {
+
+    this.urlRate = checkRate(urlRate);
+  }
+
+
+  /**
+   * @param punctRate
+   *          the probability of a punctuation cluster after a token
+   */
+  public void setPunctRate(double punctRate) {
+
+    this.punctRate = checkRate(punctRate);
+  }
+
+
+  /**
+   * @param paragraphRate
+   *          the probability of a paragraph break after a sentence
+   */
+  public void setParagraphRate(double paragraphRate) {
+
+    this.paragraphRate = checkRate(paragraphRate);
+  }
+
+
+  /**
+   * Generates a text with at least the given number of characters.
+   *
+   * @param length
+   *          the minimum number of characters
+   * @return the text
+   */
+  public String generate(int length) {
+
+    StringBuilder result = new StringBuilder(length + 512);
+    try {
+      this.generate(result, length);
+    } catch (IOException e) {
+      // not thrown by StringBuilder
+      throw new IllegalStateException(e);
+    }
+    return result.toString();
+  }
+
+
+  /**
+   * Writes whole sentences to the given output until at least the given number of characters is
+   * written. The text is generated sentence by sentence, so texts of any size can be written to a
+   * file without holding them in memory.
+   *
+   * @param out
+   *          where to write the text to
+   * @param length
+   *          the minimum number of characters
+   * @return the number of written characters
+   * @throws IOException
+   *           if there is an error when writing
+   */
+  public long generate(Appendable out, long length)
+      throws IOException {
+
+    StringBuilder sentence = new StringBuilder(512);
+    long written = 0;
+    while (written < length) {
+      sentence.setLength(0);
+      this.appendSentence(sentence);
+      if (this.random.nextDouble() < this.paragraphRate) {
+        sentence.append("\n\n");
+      } else if (this.random.nextInt(10) == 0) {
+        sentence.append('\n');
+      } else {
+        sentence.append(' ');
+      }
+      out.append(sentence);
+      written += sentence.length();
+    }
+    return written;
+  }
+
+
+  /**
+   * Appends a sentence to the given builder.
+   *
+   * @param sentence
+   *          the builder
+   */
+  private void appendSentence(StringBuilder sentence) {
+
+    int tokenCount = 4 + this.random.nextInt(22);
+    for (int i = 0; i < tokenCount; i++) {
+      if (i > 0) {
+        sentence.append(' ');
+      }
+      int tokenStart = sentence.length();
+      this.appendToken(sentence);
+      if (i == 0) {
+        sentence.setCharAt(tokenStart, Character.toUpperCase(sentence.charAt(tokenStart)));
+      }
+      if ((i < tokenCount - 1) && this.random.nextDouble() < this.punctRate) {
+        sentence.append(PUNCT_CLUSTERS[this.random.nextInt(PUNCT_CLUSTERS.length)]);
+      }
+    }
+    switch (this.random.nextInt(10)) {
+      case 0:
+        sentence.append('?');
+        break;
+      case 1:
+        sentence.append('!');
+        break;
+      case 2:
+        sentence.append(".\"");
+        break;
+      default:
+        sentence.append('.');
+    }
+  }
+
+
+  /**
+   * Appends a token to the given builder.
+   *
+   * @param sentence
+   *          the builder
+   */
+  private void appendToken(StringBuilder sentence) {
+
+    double choice = this.random.nextDouble();
+    if ((choice -= this.abbrevRate) < 0 && this.abbreviations.length > 0) {
+      sentence.append(this.abbreviations[this.random.nextInt(this.abbreviations.length)]);
+    } else if ((choice -= this.cliticRate) < 0) {
+      this.appendWord(sentence);
+      sentence.append(this.clitics[this.random.nextInt(this.clitics.length)]);
+    } else if ((choice -= this.numberRate) < 0) {
+      this.appendNumber(sentence);
+    } else if ((choice -= this.urlRate) < 0) {
+      this.appendUrl(sentence);
+    } else {
+      this.appendWord(sentence);
+    }
+  }
+
+
+  /**
+   * Appends a word to the given builder.
+   *
+   * @param sentence
+   *          the builder
+   */
+  private void appendWord(StringBuilder sentence) {
+
+    if (null != this.words && this.random.nextInt(5) != 0) {
+      sentence.append(this.words[this.random.nextInt(this.words.length)]);
+      return;
+    }
+    int syllableCount = 1 + this.random.nextInt(4);
+    for (int i = 0; i < syllableCount; i++) {
+      sentence.append(SYLLABLES[this.random.nextInt(SYLLABLES.length)]);
+    }
+  }
+
+
+  /**
+   * Appends a number to the given builder, an integer, a decimal number, a date or a time.
+   *
+   * @param sentence
+   *          the builder
+   */
+  private void appendNumber(StringBuilder sentence) {
+
+    switch (this.random.nextInt(4)) {
+      case 0:
+        sentence.append(this.random.nextInt(10000));
+        break;
+      case 1:
+        sentence.append(this.random.nextInt(1000))
+            .append(this.decimalSeparator)
+            .append(this.random.nextInt(100));
+        break;
+      case 2:
+        sentence.append(String.format("%02d.%02d.%d",
+            1 + this.random.nextInt(28), 1 + this.random.nextInt(12),
+            1900 + this.random.nextInt(130)));
+        break;
+      default:
+        sentence.append(String.format("%d:%02d",
+            this.random.nextInt(24), this.random.nextInt(60)));
+    }
+  }
+
+
+  /**
+   * Appends a URL or an email address to the given builder.
+   *
+   * @param sentence
+   *          the builder
+   */
+  private void appendUrl(StringBuilder sentence) {
+
+    String domain = DOMAINS[this.random.nextInt(DOMAINS.length)];
+    if (this.random.nextBoolean()) {
+      sentence.append("http://www.");
+      this.appendWord(sentence);
+      sentence.append('.').append(domain).append('/');
+      this.appendWord(sentence);
+      sentence.append(".html");
+    } else {
+      this.appendWord(sentence);
+      sentence.append('.');
+      this.appendWord(sentence);
+      sentence.append('@');
+      this.appendWord(sentence);
+      sentence.append('.').append(domain);
+    }
+  }
+
+
+  /**
+   * This main method generates a text and writes it to a file or to stdout. It must be used with
+   * three or four arguments:
+   * <ul>
+   * <li>the language of the text
+   * <li>the minimum number of characters
+   * <li>the seed of the random generator
+   * <li>an optional file name; the text is written in UTF-8
+   * </ul>
+   *
+   * @param args
+   *          the arguments
+   * @throws IOException
+   *           if there is an error when writing
+   */
+  public static void main(String[] args)
+      throws IOException {
+
+    if ((args.length != 3) && (args.length != 4)) {
+      System.out.format(
+          "This method needs three or four arguments:%n"
+              + "- the language of the text%n"
+              + "- the minimum number of characters%n"
+              + "- the seed of the random generator%n"
+              + "- an optional file name (default is stdout)%n");
+      System.exit(1);
+    }
+
+    CorpusGenerator generator = new CorpusGenerator(args[0], Long.parseLong(args[2]));
+    Writer out;
+    if (args.length == 4) {
+      out = Files.newBufferedWriter(Paths.get(args[3]), StandardCharsets.UTF_8);
+    } else {
+      out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+    }
+    try {
+      generator.generate(out, Long.parseLong(args[1]));
+    } finally {
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,470 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.dfki.lt.tools.tokenizer.annotate.AnnotatedString;
+import de.dfki.lt.tools.tokenizer.output.OutputFormat;
+
+/**
+ * Tokenizes whole corpora in parallel within a single JVM. The input files are given as
+ * directories, single files or glob patterns. The results are written to an output directory that
+ * mirrors the structure of the input.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class CorpusTokenizer {
+
+  // the logger
+  private static final Logger logger = LoggerFactory.getLogger(CorpusTokenizer.class);
+
+  // number of processed files after which the progress is logged
+  private static final int PROGRESS_INTERVAL = 1000;
+
+
+  // the tokenizer
+  private JTok jtok;
+
+  // the language of the corpus
+  private String lang;
+
+  // the encoding of the input files
+  private String encoding;
+
+  // the output format
+  private OutputFormat format;
+
+  // the number of threads
+  private int threads;
+
+  // the output directory
+  private Path outputDir;
+
+  // the number of successfully processed files
+  private AtomicInteger processedFiles;
+
+  // the number of files that could not be processed
+  private AtomicInteger failedFiles;
+
+  // the number of processed characters
+  private AtomicLong processedChars;
+
+  // the number of finished files, successful or not
+  private AtomicInteger finishedFiles;
+
+  // the total number of files to process
+  private int totalFiles;
+
+
+  /**
+   * Creates a new instance of {@link CorpusTokenizer}.
+   *
+   * @param jtok
+   *          the tokenizer to use
+   * @param lang
+   *          the language of the corpus
+   * @param encoding
+   *          the encoding of the input files
+   * @param format
+   *          the output format
+   * @param threads
+   *          the number of threads
+   * @param outputDir
+   *          the output directory
+   */
+  public CorpusTokenizer(
+      JTok jtok, String lang, String encoding, OutputFormat format, int threads, Path outputDir) {
+
+    this.jtok = jtok;
+    this.lang = lang;
+    this.encoding = encoding;
+    this.format = format;
+    this.threads = threads;
+    this.outputDir = outputDir;
+  }
+
+
+  /**
+   * Tokenizes the given input files in parallel. Each input file is written to the given output
+   * path.
+   *
+   * @param inputFiles
+   *          a list of input files, each with its output path relative to the output directory
+   * @return the number of files that could not be processed
+   * @throws InterruptedException
+   *           if interrupted while waiting for the tokenization to finish
+   * @exception IllegalArgumentException
+   *              if several input files have the same output path
+   */
+  public int tokenize(List<InputFile> inputFiles)
+      throws InterruptedException {
+
+    // make sure that no two threads write the same output file
+    Map<Path, InputFile> outputPaths = new HashMap<>();
+    for (InputFile oneFile : inputFiles) {
+      Path outputPath = this.getOutputPath(oneFile);
+      InputFile otherFile = outputPaths.put(outputPath, oneFile);
+      if (null != otherFile) {
+        throw new IllegalArgumentException(String.format(
+            "input files %s and %s have the same output file %s",
+            otherFile.getPath(), oneFile.getPath(), outputPath));
+      }
+    }
+
+    this.processedFiles = new AtomicInteger();
+    this.failedFiles = new AtomicInteger();
+    this.processedChars = new AtomicLong();
+    this.finishedFiles = new AtomicInteger();
+    this.totalFiles = inputFiles.size();
+    logger.info(String.format(
+        "tokenizing %d files with %d threads", this.totalFiles, this.threads));
+
+    long startTime = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+    for (InputFile oneFile : inputFiles) {
+      executor.execute(() -> this.tokenize(oneFile));
+    }
+    executor.shutdown();
+    executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+    // print summary
+    double seconds = (System.nanoTime() - startTime) / 1e9;
+    logger.info(String.format(
+        "processed %d files (%d failed), %d characters in %.1f s: %.1f files/s, %.0f characters/s",
+        this.processedFiles.get(), this.failedFiles.get(), this.processedChars.get(), seconds,
+        this.processedFiles.get() / seconds, this.processedChars.get() / seconds));
+    return this.failedFiles.get();
+  }
+
+
+  /**
+   * Tokenizes the given input file and writes the result in the output directory. Logs the
+   * progress after each {@value #PROGRESS_INTERVAL} finished files.
+   *
+   * @param inputFile
+   *          the input file
+   */
+  private void tokenize(InputFile inputFile) {
+
+    try {
+      String text = FileTools.readFileAsString(inputFile.getPath().toFile(), this.encoding);
+      AnnotatedString result = this.jtok.tokenize(text, this.lang);
+
+      Path outputPath = this.getOutputPath(inputFile);
+      Path parent = outputPath.getParent();
+      if (null != parent) {
+        Files.createDirectories(parent);
+      }
+      try (Writer out = new BufferedWriter(new OutputStreamWriter(
+          Files.newOutputStream(outputPath), StandardCharsets.UTF_8))) {
+        this.format.write(result, out);
+      }
+      this.processedChars.addAndGet(text.length());
+      this.processedFiles.incrementAndGet();
+    } catch (IOException | RuntimeException e) {
+      logger.error(String.format("could not tokenize %s: %s", inputFile.getPath(), e), e);
+      this.failedFiles.incrementAndGet();
+    }
+
+    int done = this.finishedFiles.incrementAndGet();
+    if (done % PROGRESS_INTERVAL == 0) {
+      logger.info(String.format("processed %d of %d files", done, this.totalFiles));
+    }
+  }
+
+
+  /**
+   * Returns the output path of the given input file. The file name suffix of the input file is
+   * replaced with the one of the output format.
+   *
+   * @param inputFile
+   *          the input file
+   * @return the output path in the output directory
+   */
+  Path getOutputPath(InputFile inputFile) {
+
+    String relativePath = inputFile.getRelativePath();
+    int dot = relativePath.lastIndexOf('.');
+    if (dot > Math.max(relativePath.lastIndexOf('/'), relativePath.lastIndexOf('\\'))) {
+      relativePath = relativePath.substring(0, dot);
+    }
+    return this.outputDir.resolve(relativePath + "." + this.format.getFileSuffix()).normalize();
+  }
+
+
+  /**
+   * Collects the input files for the given input. The input is either a directory, which is
+   * scanned recursively for files with the given suffix, a single file or a glob pattern.
+   *
+   * @param input
+   *          the input
+   * @param suffix
+   *          the file name suffix of files in directories
+   * @return a list of input files
+   * @throws IOException
+   *           if there is an error when scanning directories
+   */
+  public static List<InputFile> collectInputFiles(String input, String suffix)
+      throws IOException {
+
+    List<InputFile> result = new ArrayList<>();
+
+    File inputFile = new File(input);
+    if (inputFile.isDirectory()) {
+      Path baseDir = inputFile.toPath().toAbsolutePath().normalize();
+      for (String oneFileName : FileTools.getFilesFromDir(input, suffix)) {
+        Path onePath = Paths.get(oneFileName).normalize();
+        result.add(new InputFile(onePath, baseDir.relativize(onePath).toString()));
+      }
+      return result;
+    }
+    if (inputFile.isFile()) {
+      result.add(new InputFile(inputFile.toPath(), inputFile.getName()));
+      return result;
+    }
+
+    // treat input as glob pattern; the base directory is the longest prefix without wildcards
+    int wildcard = indexOfWildcard(input);
+    if (wildcard == -1) {
+      logger.warn(String.format("input %s not found", input));
+      return result;
+    }
+    int sep = Math.max(input.lastIndexOf('/', wildcard), input.lastIndexOf(File.separatorChar,
+        wildcard));
+    Path baseDir = Paths.get(sep == -1 ? "." : input.substring(0, sep + 1)).toAbsolutePath()
+        .normalize();
+    if (!Files.isDirectory(baseDir)) {
+      logger.warn(String.format("input %s not found", input));
+      return result;
+    }
+    PathMatcher matcher = FileSystems.getDefault().getPathMatcher(
+        "glob:" + input.substring(sep + 1));
+    try (Stream<Path> paths = Files.walk(baseDir)) {
+      for (Path onePath : paths.filter(Files::isRegularFile).collect(Collectors.toList())) {
+        Path relativePath = baseDir.relativize(onePath);
+        if (matcher.matches(relativePath)) {
+          result.add(new InputFile(onePath, relativePath.toString()));
+        }
+      }
+    }
+    return result;
+  }
+
+
+  /**
+   * Returns the index of the first glob wildcard in the given pattern.
+   *
+   * @param pattern
+   *          the pattern
+   * @return the index or -1 if the pattern contains no wildcard
+   */
+  private static int indexOfWildcard(String pattern) {
+
+    for (int i = 0; i < pattern.length(); i++) {
+      switch (pattern.charAt(i)) {
+        case '*':
+        case '?':
+        case '[':
+        case '{':
+          return i;
+        default:
+          break;
+      }
+    }
+    return -1;
+  }
+
+
+  /**
+   * Represents an input file with its path relative to the output directory. The file name suffix
+   * is replaced by the one of the output format.
+   */
+  public static class InputFile {
+
+    // the path of the input file
+    private Path path;
+
+    // the output path relative to the output directory
+    private String relativePath;
+
+
+    /**
+     * Creates a new instance of {@link InputFile}.
+     *
+     * @param path
+     *          the path of the input file
+     * @param relativePath
+     *          the output path relative to the output directory
+     */
+    public InputFile(Path path, String relativePath) {
+
+      this.path = path;
+      this.relativePath = relativePath;
+    }
+
+
+    /**
+     * @return the path of the input file
+     */
+    public Path getPath() {
+
+      return this.path;
+    }
+
+
+    /**
+     * @return the output path relative to the output directory
+     */
+    public String getRelativePath() {
+
+      return this.relativePath;
+    }
+  }
+
+
+  /**
+   * This main method takes the following arguments:
+   * <ul>
+   * <li>{@code -l <language>}: the language of the corpus
+   * <li>{@code -o <directory>}: the output directory
+   * <li>{@code -f <format>}: an optional output format, {@code paragraphs} (default),
+   * {@code xml}, {@code conll} or {@code tokens}
+   * <li>{@code -t <threads>}: an optional number of threads (default is the number of available
+   * processors)
+   * <li>{@code -s <suffix>}: an optional suffix of the files to tokenize in input directories
+   * (default is {@code .txt})
+   * <li>{@code -e <encoding>}: an optional encoding of the input files (default is UTF-8)
+   * <li>one or more input directories, files or glob patterns
+   * </ul>
+   * Any other argument starting with {@code -} is rejected as an unknown option.
+   *
+   * @param args
+   *          the arguments
+   */
+  public static void main(String[] args) {
+
+    String lang = null;
+    String outputDir = null;
+    OutputFormat format = OutputFormat.PARAGRAPHS;
+    int threads = Runtime.getRuntime().availableProcessors();
+    String suffix = ".txt";
+    String encoding = "UTF-8";
+    List<String> inputs = new ArrayList<>();
+
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "-l":
+            lang = args[++i];
+            break;
+          case "-o":
+            outputDir = args[++i];
+            break;
+          case "-f":
+            format = OutputFormat.forName(args[++i]);
+            break;
+          case "-t":
+            threads = Integer.parseInt(args[++i]);
+            break;
+          case "-s":
+            suffix = args[++i];
+            break;
+          case "-e":
+            encoding = args[++i];
+            break;
+          default:
+            if (args[i].startsWith("-")) {
+              // unknown option
+              throw new IllegalArgumentException(args[i]);
+            }
+            inputs.add(args[i]);
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+      lang = null;
+    }
+
+    // check for correct arguments
+    if ((null == lang) || (null == outputDir) || inputs.isEmpty() || (threads < 1)) {
+      System.out.format(
+          "This method needs the following arguments:%n"
+              + "- -l <language>: the language of the corpus%n"
+              + "- -o <directory>: the output directory%n"
+              + "- -f <format>: an optional output format, paragraphs (default), xml, conll"
+              + " or tokens%n"
+              + "- -t <threads>: an optional number of threads (default is the number of"
+              + " processors)%n"
+              + "- -s <suffix>: an optional suffix of files in input directories"
+              + " (default is .txt)%n"
+              + "- -e <encoding>: an optional encoding of the input files (default is UTF-8)%n"
+              + "- one or more input directories, files or glob patterns%n");
+      System.exit(1);
+    }
+
+    try {
+      List<InputFile> inputFiles = new ArrayList<>();
+      for (String oneInput : inputs) {
+        inputFiles.addAll(collectInputFiles(oneInput, suffix));
+      }
+
+      CorpusTokenizer corpusTokenizer = new CorpusTokenizer(
+          new JTok(), lang, encoding, format, threads, Paths.get(outputDir));
+      int failed = corpusTokenizer.tokenize(inputFiles);
+      if (failed > 0) {
+        System.exit(1);
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      logger.error(e.getLocalizedMessage(), e);
+      System.exit(1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      logger.error(e.getLocalizedMessage(), e);
+      System.exit(1);
+    }
+  }
+}
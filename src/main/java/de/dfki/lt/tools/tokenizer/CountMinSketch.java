@@ -0,0 +1,141 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+/**
+ * Count-Min sketch for estimating the frequencies of strings in fixed memory. Estimates are never
+ * lower than the true counts; they are higher by at most {@code 2 * N / width} with probability
+ * {@code 1 - 2^-depth}, where {@code N} is the total of all counts. Instances are not thread-safe,
+ * but sketches of the same dimensions can be merged.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+class CountMinSketch {
+
+  // the number of rows
+  private int depth;
+
+  // the number of counters per row, a power of 2
+  private int width;
+
+  // the counters of all rows
+  private long[] counters;
+
+
+  /**
+   * Creates a new instance of {@link CountMinSketch}.
+   *
+   * @param depth
+   *          the number of rows
+   * @param width
+   *          the number of counters per row; rounded up to a power of 2
+   */
+  CountMinSketch(int depth, int width) {
+
+    if ((depth < 1) || (width < 1)) {
+      throw new IllegalArgumentException("depth and width must be positive");
+    }
+    this.depth = depth;
+    this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+    this.counters = new long[this.depth * this.width];
+  }
+
+
+  /**
+   * Adds the given count to the given string.
+   *
+   * @param string
+   *          the string
+   * @param count
+   *          the count to add
+   */
+  void add(CharSequence string, long count) {
+
+    long hash = hash(string);
+    int h1 = (int)hash;
+    int h2 = (int)(hash >>> 32);
+    for (int i = 0; i < this.depth; i++) {
+      this.counters[i * this.width + ((h1 + i * h2) & (this.width - 1))] += count;
+    }
+  }
+
+
+  /**
+   * Estimates the count of the given string.
+   *
+   * @param string
+   *          the string
+   * @return the estimated count, never lower than the true count
+   */
+  long estimate(CharSequence string) {
+
+    long hash = hash(string);
+    int h1 = (int)hash;
+    int h2 = (int)(hash >>> 32);
+    long min = Long.MAX_VALUE;
+    for (int i = 0; i < this.depth; i++) {
+      min = Math.min(min, this.counters[i * this.width + ((h1 + i * h2) & (this.width - 1))]);
+    }
+    return min;
+  }
+
+
+  /**
+   * Adds all counts of the given sketch to this sketch.
+   *
+   * @param other
+   *          a sketch of the same dimensions
+   */
+  void merge(CountMinSketch other) {
+
+    if ((other.depth != this.depth) || (other.width != this.width)) {
+      throw new IllegalArgumentException("sketches must have the same dimensions");
+    }
+    for (int i = 0; i < this.counters.length; i++) {
+      this.counters[i] += other.counters[i];
+    }
+  }
+
+
+  /**
+   * Computes a 64 bit FNV-1a hash of the given string, with a final mixing step so that both
+   * halves can be used as independent hashes.
+   *
+   * @param string
+   *          the string
+   * @return the hash
+   */
+  private static long hash(CharSequence string) {
+
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < string.length(); i++) {
+      hash ^= string.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    // second hash must be odd to reach all counters of a row
+    return hash | (1L << 32);
+  }
+}
@@ -31,11 +31,10 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.regex.Matcher;
 
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -43,10 +42,10 @@ import org.w3c.dom.NodeList;
 
 import de.dfki.lt.tools.tokenizer.exceptions.InitializationException;
 import de.dfki.lt.tools.tokenizer.exceptions.ProcessingException;
+import de.dfki.lt.tools.tokenizer.regexp.CachingRegExpFactory;
 import de.dfki.lt.tools.tokenizer.regexp.DkBricsRegExpFactory;
-import de.dfki.lt.tools.tokenizer.regexp.Match;
+import de.dfki.lt.tools.tokenizer.regexp.ProfilingRegExp;
 import de.dfki.lt.tools.tokenizer.regexp.RegExp;
-import de.dfki.lt.tools.tokenizer.regexp.RegExpFactory;
 
 /**
  * Abstract class that provides common methods to manage the content of description files.
@@ -76,8 +75,12 @@ public abstract class Description {
   /** name of the element with the rules in the description files */
   protected static final String RULES = "RULES";
 
-  /** factory for creating regular expressions */
-  protected static final RegExpFactory FACTORY = new DkBricsRegExpFactory();
+  /**
+   * factory for creating regular expressions; identical regular expressions are shared by all
+   * descriptions of all languages
+   */
+  protected static final CachingRegExpFactory FACTORY =
+      new CachingRegExpFactory(new DkBricsRegExpFactory());
 
   /** single line in descriptions that marks the start of the lists section */
   protected static final String LISTS_MARKER = "LISTS:";
@@ -89,10 +92,6 @@ public abstract class Description {
   protected static final String RULES_MARKER = "RULES:";
 
 
-  // regular expression for matching references used in regular expressions of config files
-  private static final RegExp REF_MATCHER = FACTORY.createRegExp("\\<[A-Za-z0-9_]+\\>");
-
-
   /**
    * Maps a class name to a regular expression that matches all tokens of this class. The regular
    * expression is build as a disjunction of the regular expressions used in the definitions. If a
@@ -112,9 +111,9 @@ public abstract class Description {
   protected Map<RegExp, String> regExpMap;
 
   /**
-   * Maps a class to a set containing members of this class.
+   * Maps a class to a dictionary containing members of this class.
    */
-  protected Map<String, Set<String>> classMembersMap;
+  protected Map<String, TermDictionary> classMembersMap;
 
 
   /**
@@ -177,7 +176,7 @@ public abstract class Description {
   /**
    * @return the class members map
    */
-  protected Map<String, Set<String>> getClassMembersMap() {
+  protected Map<String, TermDictionary> getClassMembersMap() {
 
     return this.classMembersMap;
   }
@@ -187,12 +186,65 @@ public abstract class Description {
    * @param classMembersMap
    *          the class members map to set
    */
-  protected void setClassMembersMap(Map<String, Set<String>> classMembersMap) {
+  protected void setClassMembersMap(Map<String, TermDictionary> classMembersMap) {
 
     this.classMembersMap = classMembersMap;
   }
 
 
+  /**
+   * Replaces the regular expressions of all classes and rules with {@link ProfilingRegExp}s. Each
+   * one is named after the given description name, its kind and its class or rule name, e.g.
+   * {@code punct rule ALL_PUNCT_RULE}. Must be called before the description is used.
+   *
+   * @param descrName
+   *          the name of the description used in the profile
+   */
+  void enableProfiling(String descrName) {
+
+    for (Map.Entry<String, RegExp> oneEntry : this.getDefinitionsMap().entrySet()) {
+      oneEntry.setValue(new ProfilingRegExp(
+          descrName + " class " + oneEntry.getKey(), oneEntry.getValue()));
+    }
+
+    // the regular expression map is keyed by the rule objects, so it has to use the new objects
+    Map<RegExp, RegExp> replacements = new IdentityHashMap<>();
+    for (Map.Entry<String, RegExp> oneEntry : this.getRulesMap().entrySet()) {
+      RegExp profilingRegExp =
+          new ProfilingRegExp(descrName + " rule " + oneEntry.getKey(), oneEntry.getValue());
+      replacements.put(oneEntry.getValue(), profilingRegExp);
+      oneEntry.setValue(profilingRegExp);
+    }
+    Map<RegExp, String> newRegExpMap = new HashMap<>();
+    for (Map.Entry<RegExp, String> oneEntry : this.getRegExpMap().entrySet()) {
+      newRegExpMap.put(
+          replacements.getOrDefault(oneEntry.getKey(), oneEntry.getKey()), oneEntry.getValue());
+    }
+    this.setRegExpMap(newRegExpMap);
+  }
+
+
+  /**
+   * @return the profiled regular expressions of all classes and rules; empty if profiling is not
+   *         enabled
+   */
+  List<ProfilingRegExp> getProfile() {
+
+    List<ProfilingRegExp> result = new ArrayList<>();
+    for (RegExp oneRegExp : this.getDefinitionsMap().values()) {
+      if (oneRegExp instanceof ProfilingRegExp) {
+        result.add((ProfilingRegExp)oneRegExp);
+      }
+    }
+    for (RegExp oneRegExp : this.getRulesMap().values()) {
+      if (oneRegExp instanceof ProfilingRegExp) {
+        result.add((ProfilingRegExp)oneRegExp);
+      }
+    }
+    return result;
+  }
+
+
   /**
    * Returns the first child element of the given element with the given name. If no such child
    * exists, returns {@code null}.
@@ -218,7 +270,9 @@ public abstract class Description {
 
 
   /**
-   * Reads the macro configuration from the given path and adds it to the given map.
+   * Reads the macro configuration from the given path and adds it to the given map. Macros can
+   * reference other macros of the configuration, regardless of their order, and macros already in
+   * the map.
    *
    * @param macroPath
    *          path to the config file
@@ -233,7 +287,9 @@ public abstract class Description {
   protected static Map<String, String> loadMacros(Path macroPath, Map<String, String> macroMap)
       throws IOException {
 
-    // read config file
+    // read config file;
+    // collect the macros first, so they can reference macros defined later
+    Map<String, String> rawMap = new LinkedHashMap<>();
     try (BufferedReader in = new BufferedReader(new InputStreamReader(
         FileTools.openResourceFileAsStream(macroPath), "utf-8"))) {
       String line;
@@ -250,16 +306,21 @@ public abstract class Description {
         String macroName = line.substring(0, sep).trim();
         String regExpString = line.substring(sep + 1).trim();
 
-        // expand possible macros
-        regExpString = replaceReferences(regExpString, macroMap);
-
-        macroMap.put(macroName, regExpString);
+        rawMap.put(macroName, regExpString);
+        // a redefined macro has to be expanded again
+        macroMap.remove(macroName);
       }
-
-      return macroMap;
     } catch (FileNotFoundException fne) {
       return macroMap;
     }
+
+    // expand possible macros; each macro is expanded only once
+    ReferenceExpander expander = new ReferenceExpander(rawMap, macroMap);
+    for (String oneMacroName : rawMap.keySet()) {
+      expander.get(oneMacroName);
+    }
+
+    return macroMap;
   }
 
 
@@ -371,7 +432,7 @@ public abstract class Description {
       String className = line.substring(secondSep + 1).trim();
 
       // expand possible macros
-      regExpString = replaceReferences(regExpString, macrosMap);
+      regExpString = ReferenceExpander.expand(regExpString, macrosMap::get);
 
       // check for empty regular expression
       if (regExpString.length() == 0) {
@@ -452,13 +513,22 @@ public abstract class Description {
       String regExpString = line.substring(firstSep + 1, secondSep).trim();
       String className = line.substring(secondSep + 1).trim();
 
-      // expand definitions
-      regExpString = replaceReferences(regExpString, defsMap);
-      // expand possible macros
-      regExpString = replaceReferences(regExpString, macrosMap);
-
-      // add rule to map
+      // expand definitions and possible macros in a single pass;
+      // the definitions are already expanded
+      regExpString = ReferenceExpander.expand(
+          regExpString,
+          refName -> {
+            String refRegExpr = defsMap.get(refName);
+            return null != refRegExpr ? refRegExpr : macrosMap.get(refName);
+          });
+
+      // add rule to map;
+      // the regular expression map identifies rules by object, so a rule with
+      // the same regular expression as another rule needs its own object
       RegExp regExp = FACTORY.createRegExp(regExpString);
+      if (getRulesMap().containsValue(regExp)) {
+        regExp = FACTORY.getFactory().createRegExp(regExpString);
+      }
       getRulesMap().put(ruleName, regExp);
       // if rule has a class, add regular expression to regular expression map
       if (className.length() > 0) {
@@ -530,8 +600,8 @@ public abstract class Description {
             new InputStreamReader(
                 FileTools.openResourceFileAsStream(listPath),
                 StandardCharsets.UTF_8));
-    // init set where to store the abbreviations
-    Set<String> items = new HashSet<String>();
+    // init dictionary builder where to store the abbreviations
+    TermDictionary.Builder items = new TermDictionary.Builder();
     // iterate over lines of file
     String line;
     while ((line = in.readLine()) != null) {
@@ -548,52 +618,18 @@ public abstract class Description {
           continue;
         }
       }
-      items.add(line);
-      // also add the upper case version
-      items.add(line.toUpperCase());
-      // also add a version with the first letter in
-      // upper case (if required)
-      char firstChar = line.charAt(0);
-      if (Character.isLowerCase(firstChar)) {
-        firstChar = Character.toUpperCase(firstChar);
-        items.add(firstChar + line.substring(1));
+      // also accept the upper case version and a version with the first
+      // letter in upper case (if required); the dictionary handles these
+      // variants at lookup instead of storing them
+      int variants = TermDictionary.ORIGINAL | TermDictionary.UPPER_CASE;
+      if (Character.isLowerCase(line.charAt(0))) {
+        variants |= TermDictionary.CAPITALIZED;
       }
+      items.add(line, variants);
     }
     in.close();
-    // add set to lists map
-    this.getClassMembersMap().put(className, items);
-  }
-
-
-  /**
-   * Replaces references in the given regular expression string using the given reference map.
-   *
-   * @param regExpString
-   *          the regular expression string with possible references
-   * @param refMap
-   *          a map of reference name to regular expression strings
-   * @return the modified regular expression string
-   */
-  private static String replaceReferences(String regExpString, Map<String, String> refMap) {
-
-    String result = regExpString;
-
-    List<Match> references = REF_MATCHER.getAllMatches(regExpString);
-
-    for (Match oneRef : references) {
-      // get reference name by removing opening and closing angle brackets
-      String refName = oneRef.getImage().substring(1, oneRef.getImage().length() - 1);
-      String refRegExpr = refMap.get(refName);
-      if (null == refRegExpr) {
-        throw new ProcessingException(
-            String.format("unknown reference %s in regular expression %s", refName, regExpString));
-      }
-      result = result.replaceFirst(
-          oneRef.getImage(),
-          String.format("(%s)", Matcher.quoteReplacement(refRegExpr)));
-    }
-
-    return result;
+    // add dictionary to lists map
+    this.getClassMembersMap().put(className, items.build());
   }
 
 
@@ -609,14 +645,12 @@ public abstract class Description {
     StringBuilder ruleRegExpr = new StringBuilder();
 
     // iterate over definitions
-    List<String> defsList = new ArrayList<>(defsMap.values());
-    for (int i = 0, iMax = defsList.size(); i < iMax; i++) {
-      String regExpr = defsList.get(i);
+    for (String oneRegExpr : defsMap.values()) {
       // extend regular expression with another disjunct
-      ruleRegExpr.append(String.format("(%s)", regExpr));
-      if (i < iMax - 1) {
-        ruleRegExpr.append("|");
+      if (ruleRegExpr.length() > 0) {
+        ruleRegExpr.append('|');
       }
+      ruleRegExpr.append('(').append(oneRegExpr).append(')');
     }
     return FACTORY.createRegExp(ruleRegExpr.toString());
   }
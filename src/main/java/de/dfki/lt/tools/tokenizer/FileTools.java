@@ -29,14 +29,18 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.Reader;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -47,6 +51,13 @@ import java.util.List;
  */
 public final class FileTools {
 
+  // the maximum size of a byte array
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+  // the default size of mapped windows in bytes
+  private static final int MAPPED_WINDOW_SIZE = 64 * 1024 * 1024;
+
+
   // would create a new instance of {@link FileTools}; not to be used
   private FileTools() {
 
@@ -327,20 +338,25 @@ public final class FileTools {
 
   /**
    * New NIO based method to read the contents of a file as byte array. Only files up to size
-   * Integer.MAX_INT can be read. The byte buffer is rewinded when returned.
+   * Integer.MAX_INT can be read. The byte buffer is rewinded when returned. Use
+   * {@link #openMappedReader(File, String)} for larger files.
    *
    * @param file
    *          the file to read
    * @return the file content as byte array
    * @throws IOException
-   *           if reading the content fails
+   *           if reading the content fails or the file is too large
    */
   public static ByteBuffer readFile(File file)
       throws IOException {
 
     FileInputStream fis = new FileInputStream(file);
     FileChannel fc = fis.getChannel();
-    // for some reason, the buffer must be 1 byte bigger than the file
+    if (fc.size() > MAX_ARRAY_SIZE) {
+      fis.close();
+      throw new IOException(String.format(
+          "file %s is too large to be read into memory, use openMappedReader instead", file));
+    }
     ByteBuffer readBuffer = ByteBuffer.allocate((int)fc.size());
     fc.read(readBuffer);
     fis.close();
@@ -373,6 +389,55 @@ public final class FileTools {
   }
 
 
+  /**
+   * Opens a reader for the given file that memory-maps the file window by window and decodes it
+   * incrementally with the given encoding. Unlike {@link #readFileAsString(File, String)}, this
+   * never holds the whole file content in memory, so it can be used for files of any size.
+   *
+   * @param file
+   *          the file to read
+   * @param encoding
+   *          the encoding to use for conversion, if {@code null} UTF-8 is used
+   * @return a reader for the file content; must be closed by the caller
+   * @throws IOException
+   *           if there is an error when opening the file
+   */
+  public static Reader openMappedReader(File file, String encoding)
+      throws IOException {
+
+    return openMappedReader(file, encoding, MAPPED_WINDOW_SIZE);
+  }
+
+
+  /**
+   * Opens a reader for the given file that memory-maps the file window by window and decodes it
+   * incrementally with the given encoding.
+   *
+   * @param file
+   *          the file to read
+   * @param encoding
+   *          the encoding to use for conversion, if {@code null} UTF-8 is used
+   * @param windowSize
+   *          the size of the mapped windows in bytes, at least 16
+   * @return a reader for the file content; must be closed by the caller
+   * @throws IOException
+   *           if there is an error when opening the file
+   */
+  public static Reader openMappedReader(File file, String encoding, int windowSize)
+      throws IOException {
+
+    if (windowSize < 16) {
+      throw new IllegalArgumentException(String.format("window size %d too small", windowSize));
+    }
+    if (null == encoding) {
+      encoding = "UTF-8";
+    }
+    CharsetDecoder decoder = Charset.forName(encoding).newDecoder();
+    return new MappedFileReader(
+        FileChannel.open(file.toPath(), StandardOpenOption.READ), decoder, windowSize);
+  }
+
+
   /**
    * Returns an input stream for the given resource.
    *
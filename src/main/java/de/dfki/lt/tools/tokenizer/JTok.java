@@ -24,24 +24,44 @@ package de.dfki.lt.tools.tokenizer;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
 import java.nio.file.Paths;
 import java.text.CharacterIterator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import jdk.jfr.EventType;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.dfki.lt.tools.tokenizer.annotate.AnnotatedString;
 import de.dfki.lt.tools.tokenizer.annotate.FastAnnotatedString;
+import de.dfki.lt.tools.tokenizer.exceptions.BudgetExceededException;
 import de.dfki.lt.tools.tokenizer.exceptions.InitializationException;
 import de.dfki.lt.tools.tokenizer.exceptions.ProcessingException;
 import de.dfki.lt.tools.tokenizer.output.Outputter;
 import de.dfki.lt.tools.tokenizer.output.Paragraph;
+import de.dfki.lt.tools.tokenizer.output.TokenizedDocument;
 import de.dfki.lt.tools.tokenizer.regexp.Match;
+import de.dfki.lt.tools.tokenizer.regexp.ProfilingRegExp;
 import de.dfki.lt.tools.tokenizer.regexp.RegExp;
 
 /**
@@ -64,6 +84,25 @@ public class JTok {
   /** annotation value for paragraph borders */
   public static final String P_BORDER = "p";
 
+  /**
+   * system property that enables profiling of the definitions and rules of the language resources
+   * if set to {@code true}, see {@link #writeProfile(Appendable)}
+   */
+  public static final String PROFILE_PROPERTY = "jtok.profile";
+
+  /**
+   * The default maximum length of a token that is split by the regular punctuation and clitics
+   * rules; it is unlimited, so the linear fallback segmentation is disabled by default, see
+   * {@link #setMaxTokenLength(int)}.
+   */
+  public static final int DEFAULT_MAX_TOKEN_LENGTH = Integer.MAX_VALUE;
+
+  /**
+   * The class of tokens matched by the token classes rule when their exact class is not identified,
+   * see {@link TokenizeOptions#setClassifyTokens(boolean)}.
+   */
+  public static final String UNCLASSIFIED = "UNCLASSIFIED";
+
 
   // the logger
   private static final Logger logger = LoggerFactory.getLogger(JTok.class);
@@ -71,116 +110,1002 @@ public class JTok {
   // identifier of the default configuration
   private static final String DEFAULT = "default";
 
+  // the options with all features enabled; never modified
+  private static final TokenizeOptions DEFAULT_OPTIONS = new TokenizeOptions();
+
+  // the flight recorder event types; events are only created if enabled
+  private static final EventType DOCUMENT_TOKENIZED_EVENT =
+      EventType.getEventType(DocumentTokenizedEvent.class);
+  private static final EventType SLOW_TOKEN_EVENT = EventType.getEventType(SlowTokenEvent.class);
+
 
   // maps each supported language to a language resource
   private Map<String, LanguageResource> langResources;
 
+  // the listener notified about each tokenized document, null if instrumentation is disabled
+  private volatile TokenizerListener listener;
+
+  // tokens longer than this are segmented by the linear fallback
+  private volatile int maxTokenLength = DEFAULT_MAX_TOKEN_LENGTH;
+
+  // the maximum number of regular expression invocations per document, 0 if unlimited
+  private volatile long stepBudget;
+
+  // the maximum time per document, null if unlimited
+  private volatile Duration timeBudget;
+
+
+  /**
+   * Creates a new instance of {@link JTok}. The language resources are loaded concurrently using
+   * one thread per available processor.
+   *
+   * @throws IOException
+   *           if there is an error reading the configuration
+   * @exception InitializationException
+   *              if initialization fails
+   */
+  public JTok()
+      throws IOException {
+
+    this(loadConfiguration());
+  }
+
+
+  /**
+   * Creates a new instance of {@link JTok} using the given properties. The language resources are
+   * loaded concurrently using one thread per available processor.
+   *
+   * @param configProps
+   *          properties that contain data about the supported languages
+   * @exception InitializationException
+   *              if initialization fails
+   */
+  public JTok(Properties configProps) {
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    try {
+      this.init(configProps, executor);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+
+  /**
+   * Creates a new instance of {@link JTok} using the given properties. The language resources and
+   * their descriptions are loaded concurrently on the given executor, which is not shut down.
+   *
+   * @param configProps
+   *          properties that contain data about the supported languages
+   * @param executor
+   *          the executor for loading the language resources
+   * @exception InitializationException
+   *              if initialization fails
+   */
+  public JTok(Properties configProps, ExecutorService executor) {
+
+    this.init(configProps, executor);
+  }
+
+
+  /**
+   * Loads the default tokenizer configuration.
+   *
+   * @return the configuration
+   * @throws IOException
+   *           if there is an error reading the configuration
+   */
+  private static Properties loadConfiguration()
+      throws IOException {
+
+    Properties props = new Properties();
+    props.load(FileTools.openResourceFileAsStream(Paths.get("jtok/jtok.cfg")));
+    return props;
+  }
+
+
+  /**
+   * Initializes the tokenizer.
+   *
+   * @param configProps
+   *          properties with the the configuration
+   * @param executor
+   *          the executor for loading the language resources
+   * @exception InitializationException
+   *              if initialization fails
+   */
+  private void init(Properties configProps, ExecutorService executor) {
+
+    if (configProps.get(DEFAULT) == null) {
+      logger.debug("missing default language resources");
+    }
+
+    // start loading all languages before waiting for any of them
+    Map<String, CompletableFuture<LanguageResource>> futures = new LinkedHashMap<>();
+    for (Map.Entry<Object, Object> oneEntry : configProps.entrySet()) {
+      // get language
+      String oneLanguage = (String)oneEntry.getKey();
+      // add language resources for that language
+      String langDir = (String)oneEntry.getValue();
+      logger.info(String.format("loading language resources for %s from %s", oneLanguage, langDir));
+      try {
+        futures.put(oneLanguage, LanguageResource.load(oneLanguage, langDir, executor));
+      } catch (RejectedExecutionException e) {
+        throw new InitializationException(e.getLocalizedMessage(), e);
+      }
+    }
+
+    this.langResources = new HashMap<>();
+    for (Map.Entry<String, CompletableFuture<LanguageResource>> oneEntry : futures.entrySet()) {
+      try {
+        this.langResources.put(oneEntry.getKey(), oneEntry.getValue().join());
+      } catch (CompletionException | CancellationException e) {
+        throw LanguageResource.toInitializationException(e);
+      }
+    }
+  }
+
+
+  /**
+   * Returns the language resource for the given language if available.
+   *
+   * @param lang
+   *          the language
+   * @return the language resource or the default configuration if language is not supported
+   */
+  public LanguageResource getLanguageResource(String lang) {
+
+    Object probe = this.langResources.get(lang);
+    if (null != probe) {
+      return (LanguageResource)probe;
+    }
+    logger.info(String.format("language %s not supported, using default configuration", lang));
+    return this.langResources.get(DEFAULT);
+  }
+
+
+  /**
+   * Sets the listener that is notified with the timings and counters of each tokenized document.
+   * Without a listener, no instrumentation takes place.
+   *
+   * @param listener
+   *          the listener or {@code null} to disable instrumentation
+   */
+  public void setListener(TokenizerListener listener) {
+
+    this.listener = listener;
+  }
+
+
+  /**
+   * @return the listener notified about each tokenized document or {@code null} if
+   *         instrumentation is disabled
+   */
+  public TokenizerListener getListener() {
+
+    return this.listener;
+  }
+
+
+  /**
+   * Sets the maximum length of a token between whitespaces that is split into punctuation,
+   * clitics and the remaining token by the rules of the language. Splitting a token this way takes
+   * quadratic time in its length, so longer tokens are segmented by a linear fallback instead:
+   * each maximal sequence of letters and digits becomes a token and each other character becomes
+   * a token of its own. By default, the length is unlimited and all tokens are split by the
+   * rules; a limit like 1000 characters protects against base64 blobs or long punctuation runs
+   * but changes the tokens of such input.
+   *
+   * @param maxTokenLength
+   *          the maximum token length, must be positive
+   */
+  public void setMaxTokenLength(int maxTokenLength) {
+
+    if (maxTokenLength <= 0) {
+      throw new IllegalArgumentException(
+          String.format("invalid maximum token length %d", maxTokenLength));
+    }
+    this.maxTokenLength = maxTokenLength;
+  }
+
+
+  /**
+   * @return the maximum length of a token that is split by the rules of the language; longer
+   *         tokens are segmented by a linear fallback
+   */
+  public int getMaxTokenLength() {
+
+    return this.maxTokenLength;
+  }
+
+
+  /**
+   * Sets the maximum number of steps per document. A step is one regular expression invocation.
+   * If a document exceeds the budget, tokenizing it is aborted with a
+   * {@link BudgetExceededException}. {@link #tokenizeChunks(Reader, String, int, Consumer)}
+   * applies the budget to each chunk.
+   *
+   * @param stepBudget
+   *          the maximum number of steps or 0 if unlimited
+   */
+  public void setStepBudget(long stepBudget) {
+
+    if (stepBudget < 0) {
+      throw new IllegalArgumentException(String.format("invalid step budget %d", stepBudget));
+    }
+    this.stepBudget = stepBudget;
+  }
+
+
+  /**
+   * @return the maximum number of steps per document or 0 if unlimited
+   */
+  public long getStepBudget() {
+
+    return this.stepBudget;
+  }
+
+
+  /**
+   * Sets the maximum time per document. The time is checked on each regular expression
+   * invocation. If a document exceeds the budget, tokenizing it is aborted with a
+   * {@link BudgetExceededException}. {@link #tokenizeChunks(Reader, String, int, Consumer)}
+   * applies the budget to each chunk.
+   *
+   * @param timeBudget
+   *          the maximum time or {@code null} if unlimited
+   */
+  public void setTimeBudget(Duration timeBudget) {
+
+    if (null != timeBudget && (timeBudget.isNegative() || timeBudget.isZero())) {
+      throw new IllegalArgumentException(String.format("invalid time budget %s", timeBudget));
+    }
+    this.timeBudget = timeBudget;
+  }
+
+
+  /**
+   * @return the maximum time per document or {@code null} if unlimited
+   */
+  public Duration getTimeBudget() {
+
+    return this.timeBudget;
+  }
+
+
+  /**
+   * Writes a report with the invocations, hits and accumulated time of each class and rule of each
+   * language resource, together with the number of automaton states. The definitions of a class are
+   * profiled together when used for identifying the class, rules when used as matchers. The entries
+   * of each language are sorted by time, so the expensive ones come first; entries without hits
+   * never matched.<br>
+   * Profiling must be enabled by setting the system property {@value #PROFILE_PROPERTY} to
+   * {@code true} before creating the tokenizer, otherwise the report has no entries.
+   *
+   * @param out
+   *          where to write the report to
+   * @throws IOException
+   *           if there is an error when writing
+   */
+  public void writeProfile(Appendable out)
+      throws IOException {
+
+    List<String> languages = new ArrayList<>(this.langResources.keySet());
+    Collections.sort(languages);
+    for (String oneLanguage : languages) {
+      List<ProfilingRegExp> profile = this.langResources.get(oneLanguage).getProfile();
+      profile.sort(Comparator.comparingLong(ProfilingRegExp::getNanos).reversed());
+      out.append(String.format("language %s%n", oneLanguage));
+      out.append(String.format(
+          "%14s %12s %12s %8s  %s%n", "ns", "calls", "hits", "states", "name"));
+      for (ProfilingRegExp oneRegExp : profile) {
+        out.append(String.format("%14d %12d %12d %8d  %s%n",
+            oneRegExp.getNanos(), oneRegExp.getCalls(), oneRegExp.getHits(),
+            oneRegExp.getStateCount(), oneRegExp.getName()));
+      }
+    }
+  }
+
+
+  /**
+   * Tokenizes the given text in the given language. Returns an annotated string containing the
+   * identified paragraphs with their text units and tokens.<br>
+   * This method is thread-safe.
+   *
+   * @param inputText
+   *          the text to tokenize
+   * @param lang
+   *          the language of the text
+   * @return an annotated string
+   * @exception ProcessingException
+   *              if input data causes an error e.g. if language is not supported
+   * @exception BudgetExceededException
+   *              if the text exceeds the step or time budget
+   */
+  public AnnotatedString tokenize(String inputText, String lang) {
+
+    return this.tokenize(inputText, lang, DEFAULT_OPTIONS);
+  }
+
+
+  /**
+   * Tokenizes the given text in the given language. Returns an annotated string containing the
+   * identified paragraphs with their text units and tokens. The tokenization stops as soon as
+   * cancellation is requested via the given token.<br>
+   * This method is thread-safe.
+   *
+   * @param inputText
+   *          the text to tokenize
+   * @param lang
+   *          the language of the text
+   * @param cancellation
+   *          the token to check for cancellation or {@code null} if the tokenization can't be
+   *          cancelled
+   * @return an annotated string
+   * @exception ProcessingException
+   *              if input data causes an error e.g. if language is not supported
+   * @exception BudgetExceededException
+   *              if the text exceeds the step or time budget
+   * @exception CancellationException
+   *              if cancellation has been requested
+   */
+  public AnnotatedString tokenize(
+      String inputText, String lang, CancellationToken cancellation) {
+
+    TokenizeOptions options = new TokenizeOptions();
+    options.setCancellation(cancellation);
+    return this.tokenize(inputText, lang, options);
+  }
+
+
+  /**
+   * Tokenizes the given text in the given language, computing only the features selected by the
+   * given options. Returns an annotated string containing the identified paragraphs with their
+   * text units and tokens.<br>
+   * This method is thread-safe.
+   *
+   * @param inputText
+   *          the text to tokenize
+   * @param lang
+   *          the language of the text
+   * @param options
+   *          the options of this call
+   * @return an annotated string
+   * @exception ProcessingException
+   *              if input data causes an error e.g. if language is not supported
+   * @exception BudgetExceededException
+   *              if the text exceeds the step or time budget
+   * @exception CancellationException
+   *              if cancellation has been requested
+   */
+  public AnnotatedString tokenize(String inputText, String lang, TokenizeOptions options) {
+
+    // get language resource for language
+    LanguageResource langRes = this.getLanguageResource(lang);
+
+    TokenizerListener currentListener = this.listener;
+    TokenizerStats stats = this.createStats(
+        lang, inputText.length(), currentListener, options.getCancellation());
+    if (null == stats) {
+      return this.tokenize(inputText, langRes, options, null);
+    }
+    AnnotatedString input = this.tokenize(inputText, langRes, options, stats);
+    stats.finish();
+    if (null != currentListener) {
+      currentListener.documentTokenized(stats);
+    }
+    return input;
+  }
+
+
+  /**
+   * Tokenizes the given text in the given language. Returns a document with the identified tokens,
+   * text units and paragraphs stored in plain arrays.<br>
+   * This method is thread-safe.
+   *
+   * @param inputText
+   *          the text to tokenize
+   * @param lang
+   *          the language of the text
+   * @return a tokenized document
+   * @exception ProcessingException
+   *              if input data causes an error e.g. if language is not supported
+   * @exception BudgetExceededException
+   *              if the text exceeds the step or time budget
+   */
+  public TokenizedDocument tokenizeToDocument(String inputText, String lang) {
+
+    return this.tokenizeToDocument(inputText, lang, DEFAULT_OPTIONS);
+  }
+
+
+  /**
+   * Tokenizes the given text in the given language. Returns a document with the identified tokens,
+   * text units and paragraphs stored in plain arrays. The tokenization stops as soon as
+   * cancellation is requested via the given token.<br>
+   * This method is thread-safe.
+   *
+   * @param inputText
+   *          the text to tokenize
+   * @param lang
+   *          the language of the text
+   * @param cancellation
+   *          the token to check for cancellation or {@code null} if the tokenization can't be
+   *          cancelled
+   * @return a tokenized document
+   * @exception ProcessingException
+   *              if input data causes an error e.g. if language is not supported
+   * @exception BudgetExceededException
+   *              if the text exceeds the step or time budget
+   * @exception CancellationException
+   *              if cancellation has been requested
+   */
+  public TokenizedDocument tokenizeToDocument(
+      String inputText, String lang, CancellationToken cancellation) {
+
+    TokenizeOptions options = new TokenizeOptions();
+    options.setCancellation(cancellation);
+    return this.tokenizeToDocument(inputText, lang, options);
+  }
+
+
+  /**
+   * Tokenizes the given text in the given language, computing only the features selected by the
+   * given options. Returns a document with the identified tokens, text units and paragraphs stored
+   * in plain arrays.<br>
+   * This method is thread-safe.
+   *
+   * @param inputText
+   *          the text to tokenize
+   * @param lang
+   *          the language of the text
+   * @param options
+   *          the options of this call
+   * @return a tokenized document
+   * @exception ProcessingException
+   *              if input data causes an error e.g. if language is not supported
+   * @exception BudgetExceededException
+   *              if the text exceeds the step or time budget
+   * @exception CancellationException
+   *              if cancellation has been requested
+   */
+  public TokenizedDocument tokenizeToDocument(
+      String inputText, String lang, TokenizeOptions options) {
+
+    // get language resource for language
+    LanguageResource langRes = this.getLanguageResource(lang);
+
+    return this.tokenizeToDocument(inputText, 0, lang, langRes, this.listener, options);
+  }
+
+
+  /**
+   * Re-tokenizes the given document after an edit of its text, e.g. in an editor. The edit replaces
+   * the given number of characters at the given offset with the given text. Only the paragraphs
+   * touched by the edit are tokenized again; the tokens, text units and paragraphs before them are
+   * kept and the ones after them are shifted by the length difference of the edit. The tokenization
+   * time only depends on the size of the touched paragraphs. The given document is not modified.
+   * <br>
+   * The result is the same as tokenizing the whole edited text with
+   * {@link #tokenizeToDocument(String, String)} only if the given document is the result of
+   * tokenizing its text and if paragraphs are independent of each other. The latter holds since
+   * abbreviations are identified without looking at the following token and a paragraph change
+   * always ends a text unit, but only at real paragraph changes. So the touched paragraphs are
+   * bounded by paragraph changes in the text, not just by whitespaces; paragraph starts of the
+   * given document without a preceding paragraph change, e.g. at a chunk start of
+   * {@link #tokenizeChunks(Reader, String, int, Consumer)}, are skipped.<br>
+   * This method is thread-safe.
+   *
+   * @param previous
+   *          the document created by {@link #tokenizeToDocument(String, String)} for the text
+   *          before the edit
+   * @param offset
+   *          the index in the text of the document where the edit starts
+   * @param deletedLength
+   *          the number of characters removed at the offset
+   * @param insertedText
+   *          the text inserted at the offset
+   * @return a tokenized document for the edited text
+   * @exception IndexOutOfBoundsException
+   *              if the edited range is not within the text of the document
+   * @exception ProcessingException
+   *              if input data causes an error e.g. if language is not supported
+   * @exception BudgetExceededException
+   *              if the touched paragraphs exceed the step or time budget
+   */
+  public TokenizedDocument retokenize(
+      TokenizedDocument previous, int offset, int deletedLength, String insertedText) {
+
+    String oldText = previous.getText();
+    int editEnd = offset + deletedLength;
+    if ((offset < 0) || (deletedLength < 0) || (editEnd > oldText.length())) {
+      throw new IndexOutOfBoundsException(
+          String.format("Invalid edit range %d - %d", offset, editEnd));
+    }
+    String text = new StringBuilder(oldText.length() - deletedLength + insertedText.length())
+        .append(oldText, 0, offset)
+        .append(insertedText)
+        .append(oldText, editEnd, oldText.length())
+        .toString();
+    int delta = insertedText.length() - deletedLength;
+
+    // get language resource for language
+    String lang = previous.getLanguage();
+    LanguageResource langRes = this.getLanguageResource(lang);
+
+    // the touched paragraphs start with the last paragraph starting before the offset
+    int[] oldStarts = previous.getStarts();
+    int[] oldEnds = previous.getEnds();
+    short[] oldClassIds = previous.getClassIds();
+    BitSet oldPStarts = previous.getParagraphStarts();
+    int oldTokenCount = oldStarts.length;
+    int firstToken = oldPStarts.previousSetBit(firstTokenStartingAt(oldStarts, offset) - 1);
+    // the text before the offset is not edited, so a paragraph change there is still in place
+    while (firstToken > 0 && !isParagraphStart(text, 0, oldStarts[firstToken])) {
+      firstToken = oldPStarts.previousSetBit(firstToken - 1);
+    }
+    if (firstToken < 0) {
+      firstToken = 0;
+    }
+    int regionStart = firstToken > 0 ? oldStarts[firstToken] : 0;
+
+    // they end before the first paragraph that starts after the edit and is still separated from
+    // the edit by a paragraph change
+    int lastToken = oldPStarts.nextSetBit(firstTokenStartingAt(oldStarts, editEnd));
+    while (lastToken >= 0 && !isParagraphStart(text, regionStart, oldStarts[lastToken] + delta)) {
+      lastToken = oldPStarts.nextSetBit(lastToken + 1);
+    }
+    if (lastToken < 0) {
+      lastToken = oldTokenCount;
+    }
+    int regionEnd = lastToken < oldTokenCount ? oldStarts[lastToken] + delta : text.length();
+
+    TokenizedDocument region = this.tokenizeToDocument(
+        text.substring(regionStart, regionEnd), previous.getTextOffset() + regionStart, lang,
+        langRes, this.listener, DEFAULT_OPTIONS);
+
+    // merge kept, re-tokenized and shifted tokens
+    int regionTokenCount = region.getTokenCount();
+    int tokenCount = firstToken + regionTokenCount + oldTokenCount - lastToken;
+    int[] starts = new int[tokenCount];
+    int[] ends = new int[tokenCount];
+    short[] classIds = new short[tokenCount];
+    System.arraycopy(oldStarts, 0, starts, 0, firstToken);
+    System.arraycopy(oldEnds, 0, ends, 0, firstToken);
+    System.arraycopy(oldClassIds, 0, classIds, 0, firstToken);
+    for (int i = 0; i < regionTokenCount; i++) {
+      starts[firstToken + i] = region.getStart(i) + regionStart;
+      ends[firstToken + i] = region.getEnd(i) + regionStart;
+    }
+    System.arraycopy(region.getClassIds(), 0, classIds, firstToken, regionTokenCount);
+    int tailStart = firstToken + regionTokenCount;
+    for (int i = lastToken; i < oldTokenCount; i++) {
+      starts[tailStart + i - lastToken] = oldStarts[i] + delta;
+      ends[tailStart + i - lastToken] = oldEnds[i] + delta;
+    }
+    System.arraycopy(oldClassIds, lastToken, classIds, tailStart, oldTokenCount - lastToken);
+
+    BitSet tuStarts = mergeBorders(
+        previous.getTextUnitStarts(), region.getTextUnitStarts(), firstToken, regionTokenCount,
+        lastToken, oldTokenCount);
+    BitSet pStarts = mergeBorders(
+        oldPStarts, region.getParagraphStarts(), firstToken, regionTokenCount,
+        lastToken, oldTokenCount);
+
+    return new TokenizedDocument(
+        text, previous.getTextOffset(), lang, starts, ends, classIds,
+        langRes.getClassNames(), langRes.getPtbFormat(), tuStarts, pStarts);
+  }
+
+
+  /**
+   * Returns the index of the first token that starts at or after the given index of the text.
+   *
+   * @param starts
+   *          the start index of each token, in ascending order
+   * @param index
+   *          the index in the text
+   * @return the token index or the number of tokens if there is no such token
+   */
+  private static int firstTokenStartingAt(int[] starts, int index) {
+
+    int result = Arrays.binarySearch(starts, index);
+    return result >= 0 ? result : -result - 1;
+  }
+
+
+  /**
+   * Checks if the token at the given index of the given text starts a paragraph, i.e. if it is
+   * preceded by a sequence of whitespaces with a paragraph change.
+   *
+   * @param text
+   *          the text
+   * @param from
+   *          the index before which the whitespaces are not checked
+   * @param index
+   *          the start index of the token
+   * @return a flag indicating if the token starts a paragraph
+   */
+  private static boolean isParagraphStart(String text, int from, int index) {
+
+    int whitespaceStart = index;
+    while ((whitespaceStart > from) && isWhitespace(text.charAt(whitespaceStart - 1))) {
+      whitespaceStart--;
+    }
+    return isParagraphChange(text, whitespaceStart, index);
+  }
+
+
+  /**
+   * Merges the borders of the kept tokens before the re-tokenized region, of the region and of the
+   * shifted tokens after the region.
+   *
+   * @param oldBorders
+   *          the borders of the previous document
+   * @param regionBorders
+   *          the borders of the re-tokenized region
+   * @param firstToken
+   *          the index of the first re-tokenized token in the previous document
+   * @param regionTokenCount
+   *          the number of tokens of the region
+   * @param lastToken
+   *          the index of the first shifted token in the previous document
+   * @param oldTokenCount
+   *          the number of tokens of the previous document
+   * @return the merged borders
+   */
+  private static BitSet mergeBorders(
+      BitSet oldBorders, BitSet regionBorders, int firstToken, int regionTokenCount,
+      int lastToken, int oldTokenCount) {
+
+    BitSet result = oldBorders.get(0, firstToken);
+    for (int i = regionBorders.nextSetBit(0); i >= 0; i = regionBorders.nextSetBit(i + 1)) {
+      result.set(firstToken + i);
+    }
+    int tailStart = firstToken + regionTokenCount;
+    for (int i = oldBorders.nextSetBit(lastToken); i >= 0 && i < oldTokenCount;
+        i = oldBorders.nextSetBit(i + 1)) {
+      result.set(tailStart + i - lastToken);
+    }
+    return result;
+  }
+
+
+  /**
+   * Splits the given text in the given language into text units, i.e. mostly sentences. Gives the
+   * same text units as {@link #tokenize(String, String)}, but faster: tokens are only classified as
+   * far as the text unit identification requires, and no tokens are created. Tokens matched by the
+   * token classes rule get the class {@link #UNCLASSIFIED} instead of their exact class, unless
+   * one of the exact classes is relevant for text units, e.g. a terminal punctuation.<br>
+   * This method is thread-safe.
+   *
+   * @param inputText
+   *          the text to split
+   * @param lang
+   *          the language of the text
+   * @return the start and end index of each text unit in the text; text unit {@code i} starts at
+   *         index {@code 2 * i} and ends at index {@code 2 * i + 1} of the array
+   * @exception ProcessingException
+   *              if input data causes an error e.g. if language is not supported
+   * @exception BudgetExceededException
+   *              if the text exceeds the step or time budget
+   */
+  public int[] splitSentences(String inputText, String lang) {
+
+    // get language resource for language
+    LanguageResource langRes = this.getLanguageResource(lang);
+    // exact token classes are still identified if the text units depend on them
+    TokenizeOptions options = new TokenizeOptions();
+    options.setClassifyTokens(false);
+
+    TokenizerListener currentListener = this.listener;
+    TokenizerStats stats = this.createStats(lang, inputText.length(), currentListener, null);
+    if (null == stats) {
+      return this.createTuSpans(this.tokenize(inputText, langRes, options, null));
+    }
+    AnnotatedString input = this.tokenize(inputText, langRes, options, stats);
+    long outputStart = System.nanoTime();
+    int[] result = this.createTuSpans(input);
+    stats.stageFinished(TokenizerStats.Stage.OUTPUT, outputStart);
+    stats.finish();
+    if (null != currentListener) {
+      currentListener.documentTokenized(stats);
+    }
+    return result;
+  }
+
+
+  /**
+   * Tokenizes the text read from the given reader in the given language chunk by chunk. Each chunk
+   * has at most the given number of characters and is passed as a tokenized document to the given
+   * consumer; {@link TokenizedDocument#getTextOffset()} gives its position in the whole input. So
+   * the whole input never has to be held in memory, e.g. when used with
+   * {@link FileTools#openMappedReader(File, String)}.<br>
+   * Chunks end after a paragraph change if possible. Otherwise, chunks end after a whitespace, and
+   * only text without any whitespace is cut at the maximum chunk size. The result equals
+   * tokenizing the whole input at once only if all chunks end at paragraph changes. At a cut after
+   * a whitespace, the first token of the next chunk always starts a text unit and a paragraph, and
+   * abbreviation and text unit decisions don't see the token on the other side of the cut, e.g.
+   * for "Dr." at the end of a chunk followed by "Smith" at the start of the next chunk.<br>
+   * This method is thread-safe.
+   *
+   * @param in
+   *          the reader to read the text from; it is not closed
+   * @param lang
+   *          the language of the text
+   * @param chunkSize
+   *          the maximum number of characters of a chunk
+   * @param consumer
+   *          the consumer of the tokenized chunks
+   * @throws IOException
+   *           if there is an error when reading
+   * @exception ProcessingException
+   *              if input data causes an error e.g. if language is not supported
+   */
+  public void tokenizeChunks(
+      Reader in, String lang, int chunkSize, Consumer<TokenizedDocument> consumer)
+      throws IOException {
+
+    if (chunkSize < 2) {
+      throw new IllegalArgumentException(String.format("chunk size %d too small", chunkSize));
+    }
+
+    // get language resource for language
+    LanguageResource langRes = this.getLanguageResource(lang);
+
+    char[] buffer = new char[chunkSize];
+    int length = 0;
+    long textOffset = 0;
+    boolean endOfInput = false;
+    while (!endOfInput || (length > 0)) {
+      // fill buffer
+      while (!endOfInput && (length < buffer.length)) {
+        int read = in.read(buffer, length, buffer.length - length);
+        if (read == -1) {
+          endOfInput = true;
+        } else {
+          length += read;
+        }
+      }
+
+      int chunkEnd = endOfInput ? length : this.findChunkEnd(buffer, length);
+      String chunk = new String(buffer, 0, chunkEnd);
+      consumer.accept(
+          this.tokenizeToDocument(
+              chunk, textOffset, lang, langRes, this.listener, DEFAULT_OPTIONS));
+
+      // move remaining characters to the buffer start
+      System.arraycopy(buffer, chunkEnd, buffer, 0, length - chunkEnd);
+      length -= chunkEnd;
+      textOffset += chunkEnd;
+    }
+  }
+
 
   /**
-   * Creates a new instance of {@link JTok}.
+   * Finds the end of the next chunk in the given buffer. This is the end of the last whitespace
+   * sequence with a paragraph change or, if there is none, the end of the last whitespace sequence.
+   * Whitespace sequences that reach up to the end of the buffer are ignored, because they may
+   * continue beyond it.
    *
-   * @throws IOException
-   *           if there is an error reading the configuration
+   * @param buffer
+   *          the buffer
+   * @param length
+   *          the number of characters in the buffer
+   * @return the end of the next chunk
    */
-  public JTok()
-      throws IOException {
+  private int findChunkEnd(char[] buffer, int length) {
 
-    // load tokenizer configuration
-    Properties props = new Properties();
-    props.load(FileTools.openResourceFileAsStream(Paths.get("jtok/jtok.cfg")));
-    this.init(props);
+    int lastWhitespaceEnd = -1;
+    int i = length - 1;
+    // skip whitespaces and the token at the buffer end
+    while ((i >= 0) && isWhitespace(buffer[i])) {
+      i--;
+    }
+    while (i >= 0) {
+      // skip token
+      while ((i >= 0) && !isWhitespace(buffer[i])) {
+        i--;
+      }
+      if (i < 0) {
+        break;
+      }
+      int whitespaceEnd = i + 1;
+      while ((i >= 0) && isWhitespace(buffer[i])) {
+        i--;
+      }
+      if (isParagraphChange(CharBuffer.wrap(buffer), i + 1, whitespaceEnd)) {
+        return whitespaceEnd;
+      }
+      if (lastWhitespaceEnd == -1) {
+        lastWhitespaceEnd = whitespaceEnd;
+      }
+    }
+    if (lastWhitespaceEnd > 0) {
+      return lastWhitespaceEnd;
+    }
+    // no whitespace at all; make sure not to split a surrogate pair
+    if (Character.isHighSurrogate(buffer[length - 1])) {
+      return length - 1;
+    }
+    return length;
   }
 
 
   /**
-   * Creates a new instance of {@link JTok} using the given properties.
+   * Checks if the given character separates tokens.
    *
-   * @param configProps
-   *          properties that contain data about the supported languages
-   * @exception InitializationException
-   *              if initialization fails
+   * @param c
+   *          the character
+   * @return a flag indicating if the character is a whitespace
    */
-  public JTok(Properties configProps) {
+  private static boolean isWhitespace(char c) {
 
-    this.init(configProps);
+    return CharTable.isWhitespaceChar(c);
   }
 
 
   /**
-   * Initializes the tokenizer.
+   * Tokenizes the given text using the given language resource and creates a tokenized document
+   * from the result. If the given listener is not {@code null}, it is notified with the stats of
+   * the text.
    *
-   * @param configProps
-   *          properties with the the configuration
+   * @param inputText
+   *          the text to tokenize
+   * @param textOffset
+   *          the offset of the text in the whole input
+   * @param lang
+   *          the language of the text
+   * @param langRes
+   *          the language resource to use
+   * @param currentListener
+   *          the listener to notify or {@code null} if instrumentation is disabled
+   * @param options
+   *          the options of this call
+   * @return the tokenized document
    */
-  private void init(Properties configProps) {
-
-    if (configProps.get(DEFAULT) == null) {
-      logger.debug("missing default language resources");
+  private TokenizedDocument tokenizeToDocument(
+      String inputText, long textOffset, String lang, LanguageResource langRes,
+      TokenizerListener currentListener, TokenizeOptions options) {
+
+    TokenizerStats stats = this.createStats(
+        lang, inputText.length(), currentListener, options.getCancellation());
+    if (null == stats) {
+      AnnotatedString input = this.tokenize(inputText, langRes, options, null);
+      return this.createDocument(
+          input, inputText, textOffset, lang, langRes, options.isPtbForms());
     }
-
-    this.langResources = new HashMap<>();
-
-    for (Map.Entry<Object, Object> oneEntry : configProps.entrySet()) {
-      // get language
-      String oneLanguage = (String)oneEntry.getKey();
-      // add language resources for that language
-      String langDir = (String)oneEntry.getValue();
-      logger.info(String.format("loading language resources for %s from %s", oneLanguage, langDir));
-      this.langResources.put(oneLanguage, new LanguageResource(oneLanguage, langDir));
+    AnnotatedString input = this.tokenize(inputText, langRes, options, stats);
+    long outputStart = System.nanoTime();
+    TokenizedDocument result = this.createDocument(
+        input, inputText, textOffset, lang, langRes, options.isPtbForms());
+    stats.stageFinished(TokenizerStats.Stage.OUTPUT, outputStart);
+    stats.finish();
+    if (null != currentListener) {
+      currentListener.documentTokenized(stats);
     }
+    return result;
   }
 
 
   /**
-   * Returns the language resource for the given language if available.
+   * Creates the stats of a document if they are required for the given listener, the step and
+   * time budget or the given cancellation token.
    *
    * @param lang
-   *          the language
-   * @return the language resource or the default configuration if language is not supported
+   *          the language of the document
+   * @param length
+   *          the number of characters of the document
+   * @param currentListener
+   *          the listener to notify or {@code null} if instrumentation is disabled
+   * @param cancellation
+   *          the token to check for cancellation or {@code null} if the tokenization can't be
+   *          cancelled
+   * @return the stats with the budget and cancellation token set or {@code null} if none of them
+   *         is required
    */
-  public LanguageResource getLanguageResource(String lang) {
-
-    Object probe = this.langResources.get(lang);
-    if (null != probe) {
-      return (LanguageResource)probe;
+  private TokenizerStats createStats(
+      String lang, int length, TokenizerListener currentListener,
+      CancellationToken cancellation) {
+
+    long currentStepBudget = this.stepBudget;
+    Duration currentTimeBudget = this.timeBudget;
+    if (null == currentListener && currentStepBudget == 0 && null == currentTimeBudget
+        && null == cancellation) {
+      return null;
     }
-    logger.info(String.format("language %s not supported, using default configuration", lang));
-    return this.langResources.get(DEFAULT);
+    TokenizerStats stats = new TokenizerStats(lang, length);
+    stats.setBudget(
+        currentStepBudget, null == currentTimeBudget ? 0 : currentTimeBudget.toNanos());
+    stats.setCancellation(cancellation);
+    return stats;
   }
 
 
   /**
-   * Tokenizes the given text in the given language. Returns an annotated string containing the
-   * identified paragraphs with their text units and tokens.<br>
-   * This method is thread-safe.
+   * Tokenizes the given text using the given language resource. The stages are package-private, so
+   * they can be benchmarked in isolation. Emits a {@link DocumentTokenizedEvent} if enabled in the
+   * flight recorder.
    *
    * @param inputText
    *          the text to tokenize
-   * @param lang
-   *          the language of the text
+   * @param langRes
+   *          the language resource to use
+   * @param options
+   *          the options that select the stages to run
+   * @param stats
+   *          the stats to update with the timings and counters of each stage or {@code null} if
+   *          instrumentation is disabled
    * @return an annotated string
-   * @exception ProcessingException
-   *              if input data causes an error e.g. if language is not supported
    */
-  public AnnotatedString tokenize(String inputText, String lang) {
-
-    // get language resource for language
-    LanguageResource langRes = this.getLanguageResource(lang);
+  private AnnotatedString tokenize(
+      String inputText, LanguageResource langRes, TokenizeOptions options,
+      TokenizerStats stats) {
+
+    DocumentTokenizedEvent event = null;
+    if (DOCUMENT_TOKENIZED_EVENT.isEnabled()) {
+      event = new DocumentTokenizedEvent();
+      event.begin();
+    }
 
     // init attributed string for annotation
     AnnotatedString input = new FastAnnotatedString(inputText);
 
+    // the text units may depend on the exact token classes
+    boolean classify = options.isClassifyTokens()
+        || (options.isTextUnits() && langRes.isTuClassesDependent());
+
+    if (null == stats) {
+      if (null != event) {
+        // the event requires the token count
+        stats = new TokenizerStats(langRes.getLanguage(), inputText.length());
+      } else {
+        this.identifyTokens(input, inputText, langRes, classify, null);
+        this.identifyPunct(input, langRes, classify, null);
+        if (options.isAbbreviations()) {
+          this.identifyAbbrev(input, inputText, langRes, null);
+        }
+        if (options.isTextUnits()) {
+          this.identifyTus(input, inputText, langRes, null);
+        }
+        return input;
+      }
+    }
+
+    long stageStart = System.nanoTime();
+
     // identify tokens
-    this.identifyTokens(input, langRes);
+    this.identifyTokens(input, inputText, langRes, classify, stats);
+    stageStart = stats.stageFinished(TokenizerStats.Stage.TOKENS, stageStart);
+    stats.checkCancelled();
 
     // identify punctuation
-    this.identifyPunct(input, langRes);
+    this.identifyPunct(input, langRes, classify, stats);
+    stageStart = stats.stageFinished(TokenizerStats.Stage.PUNCT, stageStart);
+    stats.checkCancelled();
 
     // identify abbreviations
-    this.identifyAbbrev(input, langRes);
+    if (options.isAbbreviations()) {
+      this.identifyAbbrev(input, inputText, langRes, stats);
+      stageStart = stats.stageFinished(TokenizerStats.Stage.ABBREV, stageStart);
+      stats.checkCancelled();
+    }
 
     // identify sentences and paragraphs
-    this.identifyTus(input, langRes);
+    if (options.isTextUnits()) {
+      this.identifyTus(input, inputText, langRes, stats);
+      stats.stageFinished(TokenizerStats.Stage.TUS, stageStart);
+    }
+
+    this.countUnits(input, stats);
+
+    if (null != event && event.shouldCommit()) {
+      event.language = langRes.getLanguage();
+      event.length = inputText.length();
+      event.tokenCount = stats.getTokens();
+      event.commit();
+    }
 
     // return result
     return input;
@@ -188,59 +1113,235 @@ public class JTok {
 
 
   /**
-   * Identifies tokens and annotates them. Tokens are sequences of non-whitespaces.
+   * Counts the tokens, text units and paragraphs annotated in the given annotated string and sets
+   * them in the given stats.
+   *
+   * @param input
+   *          an annotated string
+   * @param stats
+   *          the stats to update
+   */
+  private void countUnits(AnnotatedString input, TokenizerStats stats) {
+
+    int tokenCount = 0;
+    int textUnitCount = 0;
+    int paragraphCount = 0;
+    char c = input.setIndex(0);
+    while (c != CharacterIterator.DONE) {
+      int tokenEnd = input.getRunLimit(CLASS_ANNO);
+      if (null != input.getAnnotation(CLASS_ANNO)) {
+        if (tokenCount == 0) {
+          // the first token always starts a text unit and a paragraph
+          textUnitCount++;
+          paragraphCount++;
+        } else {
+          Object border = input.getAnnotation(BORDER_ANNO);
+          if (null != border) {
+            textUnitCount++;
+            if (border == P_BORDER) {
+              paragraphCount++;
+            }
+          }
+        }
+        tokenCount++;
+      }
+      c = input.setIndex(tokenEnd);
+    }
+    stats.setUnitCounts(tokenCount, textUnitCount, paragraphCount);
+  }
+
+
+  /**
+   * Creates the start and end indices of the text units annotated in the given annotated string.
+   * A text unit ends with the end of its last token.
+   *
+   * @param input
+   *          an annotated string
+   * @return the start and end index of each text unit
+   */
+  private int[] createTuSpans(AnnotatedString input) {
+
+    int[] spans = new int[64];
+    int spanCount = 0;
+    int lastTokenEnd = 0;
+    char c = input.setIndex(0);
+    while (c != CharacterIterator.DONE) {
+      int tokenEnd = input.getRunLimit(CLASS_ANNO);
+      if (null != input.getAnnotation(CLASS_ANNO)) {
+        // the first token always starts a text unit
+        if (spanCount == 0 || null != input.getAnnotation(BORDER_ANNO)) {
+          if (spanCount > 0) {
+            spans[spanCount - 1] = lastTokenEnd;
+          }
+          if (spanCount + 2 > spans.length) {
+            spans = Arrays.copyOf(spans, spans.length * 2);
+          }
+          spans[spanCount] = input.getIndex();
+          spanCount += 2;
+        }
+        lastTokenEnd = tokenEnd;
+      }
+      c = input.setIndex(tokenEnd);
+    }
+    if (spanCount > 0) {
+      spans[spanCount - 1] = lastTokenEnd;
+    }
+    return Arrays.copyOf(spans, spanCount);
+  }
+
+
+  /**
+   * Creates a tokenized document from the tokens, text units and paragraphs annotated in the given
+   * annotated string.
    *
    * @param input
    *          an annotated string
+   * @param inputText
+   *          the text of the annotated string
+   * @param textOffset
+   *          the offset of the text in the whole input
+   * @param lang
+   *          the language of the text
    * @param langRes
-   *          the language resource to use
+   *          the language resource used for tokenization
+   * @param ptbForms
+   *          a flag indicating if the tokens provide their Penn Treebank forms
+   * @return the tokenized document
+   * @exception ProcessingException
+   *              if an undefined class name is found
    */
-  private void identifyTokens(AnnotatedString input, LanguageResource langRes) {
+  private TokenizedDocument createDocument(
+      AnnotatedString input, String inputText, long textOffset, String lang,
+      LanguageResource langRes, boolean ptbForms) {
+
+    // init token arrays; they are enlarged when required
+    int capacity = Math.min(input.getEndIndex() / 4 + 1, 1024);
+    int[] starts = new int[capacity];
+    int[] ends = new int[capacity];
+    short[] classIds = new short[capacity];
+    BitSet tuStarts = new BitSet();
+    BitSet pStarts = new BitSet();
+    int tokenCount = 0;
 
-    // init token start index
-    int tokenStart = 0;
-    // flag for indicating if new token was found
-    boolean tokenFound = false;
+    // iterate over tokens
+    char c = input.setIndex(0);
+    while (c != CharacterIterator.DONE) {
+
+      int tokenStart = input.getIndex();
+      int tokenEnd = input.getRunLimit(CLASS_ANNO);
+      // check if c belongs to a token
+      String type = (String)input.getAnnotation(CLASS_ANNO);
+      if (null != type) {
+        if (tokenCount == starts.length) {
+          int newCapacity = starts.length * 2;
+          starts = Arrays.copyOf(starts, newCapacity);
+          ends = Arrays.copyOf(ends, newCapacity);
+          classIds = Arrays.copyOf(classIds, newCapacity);
+        }
+        short classId = langRes.getClassId(type);
+        if (classId < 0) {
+          throw new ProcessingException(String.format("undefined class %s", type));
+        }
+        starts[tokenCount] = tokenStart;
+        ends[tokenCount] = tokenEnd;
+        classIds[tokenCount] = classId;
+
+        // check if token is first token of a paragraph or text unit
+        Object border = input.getAnnotation(BORDER_ANNO);
+        if (null != border) {
+          tuStarts.set(tokenCount);
+          if (border == P_BORDER) {
+            pStarts.set(tokenCount);
+          }
+        }
+        tokenCount++;
+      }
+      // set iterator to next token
+      c = input.setIndex(tokenEnd);
+    }
+    // the first token of a document starts a paragraph
+    if (tokenCount > 0) {
+      pStarts.set(0);
+    }
+
+    return new TokenizedDocument(
+        inputText, textOffset, lang,
+        Arrays.copyOf(starts, tokenCount),
+        Arrays.copyOf(ends, tokenCount),
+        Arrays.copyOf(classIds, tokenCount),
+        langRes.getClassNames(), ptbForms ? langRes.getPtbFormat() : null, tuStarts, pStarts);
+  }
+
+
+  /**
+   * Identifies tokens and annotates them. Tokens are sequences of non-whitespaces. The ends of
+   * the tokens are found by {@link ScalarCharScanner}.
+   *
+   * @param input
+   *          an annotated string
+   * @param text
+   *          the text of the annotated string
+   * @param langRes
+   *          the language resource to use
+   * @param classify
+   *          if {@code false}, tokens matched by the token classes rule get the class
+   *          {@link #UNCLASSIFIED} instead of their exact class
+   * @param stats
+   *          the stats to update or {@code null} if instrumentation is disabled
+   */
+  void identifyTokens(
+      AnnotatedString input, CharSequence text, LanguageResource langRes, boolean classify,
+      TokenizerStats stats) {
 
     // get classes root annotation
     String rootClass = langRes.getClassesRoot().getTagName();
+    int currentMaxTokenLength = this.maxTokenLength;
+    CharTable chars = langRes.getCharTable();
 
-    // iterate over input
-    for (char c = input.first(); c != CharacterIterator.DONE; c = input.next()) {
-      if (Character.isWhitespace(c) || (c == '\u00a0')) {
-        if (tokenFound) {
-          // annotate newly identified token
-          this.annotate(
-              input, CLASS_ANNO, rootClass, tokenStart, input.getIndex(),
-              input.substring(tokenStart, input.getIndex()), langRes);
-          tokenFound = false;
-        }
-      } else if (!tokenFound) {
-        // a new token starts here, after some whitespaces
-        tokenFound = true;
-        tokenStart = input.getIndex();
+    int length = text.length();
+    int tokenStart = 0;
+    while (true) {
+      // skip whitespaces
+      while (tokenStart < length && chars.isWhitespace(text.charAt(tokenStart))) {
+        tokenStart++;
       }
-    }
-    // annotate last token
-    if (tokenFound) {
-      this.annotate(
-          input, CLASS_ANNO, rootClass, tokenStart, input.getIndex(),
-          input.substring(tokenStart, input.getIndex()), langRes);
+      if (tokenStart == length) {
+        break;
+      }
+      // a new token starts here, it ends at the next whitespace
+      int tokenEnd = ScalarCharScanner.findWhitespace(text, tokenStart + 1, length);
+      // annotate newly identified token
+      if (tokenEnd - tokenStart > currentMaxTokenLength) {
+        // too long, leave it to the fallback segmentation of the punctuation stage
+        input.annotate(CLASS_ANNO, rootClass, tokenStart, tokenEnd);
+      } else {
+        this.annotate(
+            input, CLASS_ANNO, rootClass, tokenStart, tokenEnd,
+            text.subSequence(tokenStart, tokenEnd).toString(), langRes, classify, stats);
+      }
+      tokenStart = tokenEnd;
     }
   }
 
 
   /**
-   * Identifies punctuations in the annotated tokens of the given annotated string
+   * Identifies punctuations in the annotated tokens of the given annotated string. Tokens longer
+   * than the maximum token length are segmented by {@link #segmentLongToken}.
    *
    * @param input
    *          an annotated string
    * @param langRes
    *          the language resource to use
+   * @param classify
+   *          if {@code false}, tokens matched by the token classes rule get the class
+   *          {@link #UNCLASSIFIED} instead of their exact class
+   * @param stats
+   *          the stats to update or {@code null} if instrumentation is disabled
    * @exception ProcessingException
    *              if an error occurs
    */
-  private void identifyPunct(AnnotatedString input, LanguageResource langRes) {
+  void identifyPunct(
+      AnnotatedString input, LanguageResource langRes, boolean classify, TokenizerStats stats) {
 
     // get the matchers needed
     RegExp allPunctMatcher = langRes.getAllPunctMatcher();
@@ -249,6 +1350,9 @@ public class JTok {
     // get the class of the root element of the class hierarchy;
     // only tokens with this type are further examined
     String rootClass = langRes.getClassesRoot().getTagName();
+    int currentMaxTokenLength = this.maxTokenLength;
+    CharTable chars = langRes.getCharTable();
+    boolean slowTokenEvents = SLOW_TOKEN_EVENT.isEnabled();
 
     // iterate over tokens
     char c = input.setIndex(0);
@@ -276,19 +1380,20 @@ public class JTok {
       // required because the input index might be changed later in this method
       int nextTokenStart = input.findNextAnnotation(CLASS_ANNO);
 
-      // split punctuation on the left and right side of the token
-      this.splitPunctuation(input, langRes);
-
-      // update current token annotation
-      tokClass = (String)input.getAnnotation(CLASS_ANNO);
-      // only check tokens with the most general class
-      if (tokClass != rootClass) {
-        c = input.setIndex(nextTokenStart);
-        continue;
+      // the next token start is an upper bound of the token end,
+      // so the exact token end is only computed for candidates of the fallback
+      if (nextTokenStart - input.getIndex() > currentMaxTokenLength) {
+        int tokenEnd = input.getRunLimit(CLASS_ANNO);
+        if (tokenEnd - input.getIndex() > currentMaxTokenLength) {
+          this.segmentLongToken(
+              input, input.getIndex(), tokenEnd, rootClass, langRes, classify, stats);
+          c = input.setIndex(nextTokenStart);
+          continue;
+        }
       }
 
-      // split clitics from left and right side of the token
-      this.splitClitics(input, langRes);
+      // split punctuation and clitics on the left and right side of the token
+      this.splitPunctAndClitics(input, rootClass, langRes, classify, slowTokenEvents, stats);
 
       // update current token annotation
       tokClass = (String)input.getAnnotation(CLASS_ANNO);
@@ -304,10 +1409,15 @@ public class JTok {
       int tokenEnd = input.getRunLimit(CLASS_ANNO);
       // get the token content
       String image = input.substring(tokenStart, tokenEnd);
+      if (!chars.containsPunctStart(image)) {
+        c = input.setIndex(nextTokenStart);
+        continue;
+      }
 
       // use the all rule to split image in parts consisting of
       // punctuation and non-punctuation
       List<Match> matches = allPunctMatcher.getAllMatches(image);
+      countRegExpCall(stats);
       // if there is no punctuation just continue
       if (0 == matches.size()) {
         c = input.setIndex(nextTokenStart);
@@ -326,6 +1436,7 @@ public class JTok {
         // punctuation
         if (index != oneMatch.getStartIndex()) {
           // check for internal punctuation:
+          countRegExpCall(stats);
           if (internalMatcher.matches(oneMatch.getImage())) {
             // punctuation is internal;
             // check for right context
@@ -340,13 +1451,13 @@ public class JTok {
           this.annotate(input, CLASS_ANNO, tokClass,
               tokenStart + index,
               tokenStart + oneMatch.getStartIndex(),
-              image.substring(index, oneMatch.getStartIndex()), langRes);
+              image.substring(index, oneMatch.getStartIndex()), langRes, classify, stats);
           index = oneMatch.getStartIndex();
         }
 
         // punctuation is not internal:
         // get the class of the punctuation and create token for it
-        String punctClass = this.identifyPunctClass(oneMatch, null, image, langRes);
+        String punctClass = this.identifyPunctClass(oneMatch, null, image, langRes, stats);
         input.annotate(CLASS_ANNO, punctClass,
             tokenStart + index,
             tokenStart + oneMatch.getEndIndex());
@@ -359,7 +1470,7 @@ public class JTok {
         this.annotate(input, CLASS_ANNO, tokClass,
             tokenStart + index,
             tokenStart + image.length(),
-            image.substring(index), langRes);
+            image.substring(index), langRes, classify, stats);
       }
 
       // set iterator to next non-whitespace token
@@ -368,6 +1479,121 @@ public class JTok {
   }
 
 
+  /**
+   * Segments a token that is too long for the regular punctuation and clitics rules in linear
+   * time. Each maximal sequence of letters and digits becomes a token that is classified as usual.
+   * Each other character becomes a token of its own, classified as punctuation if it is one.
+   *
+   * @param input
+   *          the annotated string
+   * @param tokenStart
+   *          the start index of the token
+   * @param tokenEnd
+   *          the end index of the token
+   * @param rootClass
+   *          the class of the root element of the class hierarchy
+   * @param langRes
+   *          the language resource to use
+   * @param classify
+   *          if {@code false}, tokens matched by the token classes rule get the class
+   *          {@link #UNCLASSIFIED} instead of their exact class
+   * @param stats
+   *          the stats to update or {@code null} if instrumentation is disabled
+   */
+  private void segmentLongToken(
+      AnnotatedString input, int tokenStart, int tokenEnd, String rootClass,
+      LanguageResource langRes, boolean classify, TokenizerStats stats) {
+
+    RegExp allPunctMatcher = langRes.getAllPunctMatcher();
+    CharTable chars = langRes.getCharTable();
+    String image = input.substring(tokenStart, tokenEnd);
+    logger.debug(String.format(
+        "segmenting token of length %d at %d with fallback", image.length(), tokenStart));
+
+    int index = 0;
+    while (index < image.length()) {
+      int codePoint = image.codePointAt(index);
+      int end = index + Character.charCount(codePoint);
+      if (chars.isLetterOrDigit(codePoint)) {
+        // extend to the maximal sequence of letters and digits
+        while (end < image.length() && chars.isLetterOrDigit(image.codePointAt(end))) {
+          end += Character.charCount(image.codePointAt(end));
+        }
+        this.annotate(input, CLASS_ANNO, rootClass, tokenStart + index, tokenStart + end,
+            image.substring(index, end), langRes, classify, stats);
+      } else {
+        String oneChar = image.substring(index, end);
+        if (matches(allPunctMatcher, oneChar, stats)) {
+          String punctClass = this.identifyPunctClass(
+              new Match(index, end, oneChar), null, image, langRes, stats);
+          input.annotate(CLASS_ANNO, punctClass, tokenStart + index, tokenStart + end);
+        } else {
+          this.annotate(input, CLASS_ANNO, rootClass, tokenStart + index, tokenStart + end,
+              oneChar, langRes, classify, stats);
+        }
+      }
+      index = end;
+    }
+  }
+
+
+  /**
+   * Splits punctuation and then clitics from the left and right side of the token if possible.
+   * Emits a {@link SlowTokenEvent} if enabled in the flight recorder and the splitting takes longer
+   * than its threshold.
+   *
+   * @param input
+   *          the annotate string
+   * @param rootClass
+   *          the class of the root element of the class hierarchy
+   * @param langRes
+   *          the language resource to use
+   * @param classify
+   *          if {@code false}, tokens matched by the token classes rule get the class
+   *          {@link #UNCLASSIFIED} instead of their exact class
+   * @param slowTokenEvents
+   *          if {@code true}, the {@link SlowTokenEvent} is enabled in the flight recorder
+   * @param stats
+   *          the stats to update or {@code null} if instrumentation is disabled
+   */
+  private void splitPunctAndClitics(
+      AnnotatedString input, String rootClass, LanguageResource langRes, boolean classify,
+      boolean slowTokenEvents, TokenizerStats stats) {
+
+    SlowTokenEvent event = null;
+    int tokenStart = input.getIndex();
+    int tokenEnd = -1;
+    if (slowTokenEvents) {
+      event = new SlowTokenEvent();
+      tokenEnd = input.getRunLimit(CLASS_ANNO);
+      event.begin();
+    }
+
+    // split punctuation on the left and right side of the token
+    this.splitPunctuation(input, langRes, classify, stats);
+
+    // only split clitics if the remaining token still has the most general class
+    if (input.getAnnotation(CLASS_ANNO) == rootClass) {
+      if (null == stats) {
+        this.splitClitics(input, langRes, classify, null);
+      } else {
+        long cliticsStart = System.nanoTime();
+        this.splitClitics(input, langRes, classify, stats);
+        stats.addCliticsNanos(System.nanoTime() - cliticsStart);
+      }
+    }
+
+    if (null != event) {
+      event.end();
+      if (event.shouldCommit()) {
+        event.language = langRes.getLanguage();
+        event.token = input.substring(tokenStart, tokenEnd);
+        event.commit();
+      }
+    }
+  }
+
+
   /**
    * Splits punctuation from the left and right side of the token if possible.
    *
@@ -375,8 +1601,14 @@ public class JTok {
    *          the annotate string
    * @param langRes
    *          the language resource to use
+   * @param classify
+   *          if {@code false}, tokens matched by the token classes rule get the class
+   *          {@link #UNCLASSIFIED} instead of their exact class
+   * @param stats
+   *          the stats to update or {@code null} if instrumentation is disabled
    */
-  private void splitPunctuation(AnnotatedString input, LanguageResource langRes) {
+  private void splitPunctuation(
+      AnnotatedString input, LanguageResource langRes, boolean classify, TokenizerStats stats) {
 
     // get the matchers needed
     RegExp allPunctMatcher = langRes.getAllPunctMatcher();
@@ -391,14 +1623,19 @@ public class JTok {
     int tokenEnd = input.getRunLimit(CLASS_ANNO);
     // get the token content
     String image = input.substring(tokenStart, tokenEnd);
+    if (!langRes.getCharTable().containsPunctStart(image)) {
+      // no punctuation to split
+      return;
+    }
     // get current token annotation
     String tokClass = (String)input.getAnnotation(CLASS_ANNO);
 
     // check for punctuation at the beginning of the token
+    countRegExpCall(stats);
     Match startMatch = allPunctMatcher.starts(image);
     while (null != startMatch) {
       // create token for punctuation
-      String punctClass = this.identifyPunctClass(startMatch, null, image, langRes);
+      String punctClass = this.identifyPunctClass(startMatch, null, image, langRes, stats);
       input.annotate(CLASS_ANNO, punctClass,
           tokenStart + startMatch.getStartIndex(),
           tokenStart + startMatch.getEndIndex());
@@ -407,13 +1644,14 @@ public class JTok {
       input.setIndex(tokenStart);
       if (image.length() > 0) {
         this.annotate(input, CLASS_ANNO, tokClass,
-            tokenStart, tokenEnd, image, langRes);
+            tokenStart, tokenEnd, image, langRes, classify, stats);
         tokClass = (String)input.getAnnotation(CLASS_ANNO);
         if (tokClass != rootClass) {
           // the remaining token could be matched with a non-root class,
           // so stop splitting punctuation
           break;
         }
+        countRegExpCall(stats);
         startMatch = allPunctMatcher.starts(image);
       } else {
         startMatch = null;
@@ -421,10 +1659,11 @@ public class JTok {
     }
 
     // check for punctuation at the end of the token
+    countRegExpCall(stats);
     Match endMatch = allPunctMatcher.ends(image);
     while (null != endMatch) {
       // create token for punctuation
-      String punctClass = this.identifyPunctClass(endMatch, null, image, langRes);
+      String punctClass = this.identifyPunctClass(endMatch, null, image, langRes, stats);
       input.annotate(CLASS_ANNO, punctClass,
           tokenStart + endMatch.getStartIndex(),
           tokenStart + endMatch.getEndIndex());
@@ -432,13 +1671,14 @@ public class JTok {
       image = input.substring(tokenStart, tokenEnd);
       if (image.length() > 0) {
         this.annotate(input, CLASS_ANNO, tokClass,
-            tokenStart, tokenEnd, image, langRes);
+            tokenStart, tokenEnd, image, langRes, classify, stats);
         tokClass = (String)input.getAnnotation(CLASS_ANNO);
         if (tokClass != rootClass) {
           // the remaining token could be matched with a non-root class,
           // so stop splitting punctuation
           break;
         }
+        countRegExpCall(stats);
         endMatch = allPunctMatcher.ends(image);
       } else {
         endMatch = null;
@@ -454,8 +1694,14 @@ public class JTok {
    *          the annotate string
    * @param langRes
    *          the language resource to use
+   * @param classify
+   *          if {@code false}, tokens matched by the token classes rule get the class
+   *          {@link #UNCLASSIFIED} instead of their exact class
+   * @param stats
+   *          the stats to update or {@code null} if instrumentation is disabled
    */
-  private void splitClitics(AnnotatedString input, LanguageResource langRes) {
+  private void splitClitics(
+      AnnotatedString input, LanguageResource langRes, boolean classify, TokenizerStats stats) {
 
     // get matchers needed for clitics recognition
     RegExp proclitMatcher = langRes.getProcliticsMatcher();
@@ -475,11 +1721,12 @@ public class JTok {
     String tokClass = (String)input.getAnnotation(CLASS_ANNO);
 
     // check for proclitics
+    countRegExpCall(stats);
     Match proclit = proclitMatcher.starts(image);
     // create token for proclitic
     while (null != proclit) {
-      String clitClass =
-          this.identifyClass(proclit.getImage(), proclitMatcher, langRes.getClitDescr());
+      String clitClass = this.identifyClass(
+          proclit.getImage(), proclitMatcher, langRes.getClitDescr(), stats);
       input.annotate(CLASS_ANNO, clitClass,
           tokenStart + proclit.getStartIndex(),
           tokenStart + proclit.getEndIndex());
@@ -488,13 +1735,14 @@ public class JTok {
       input.setIndex(tokenStart);
       if (image.length() > 0) {
         this.annotate(input, CLASS_ANNO, tokClass,
-            tokenStart, tokenEnd, image, langRes);
+            tokenStart, tokenEnd, image, langRes, classify, stats);
         tokClass = (String)input.getAnnotation(CLASS_ANNO);
         if (tokClass != rootClass) {
           // the remaining token could be matched with a non-root class,
           // so stop splitting proclitics
           break;
         }
+        countRegExpCall(stats);
         proclit = proclitMatcher.starts(image);
       } else {
         proclit = null;
@@ -502,11 +1750,12 @@ public class JTok {
     }
 
     // check for enclitics
+    countRegExpCall(stats);
     Match enclit = enclitMatcher.ends(image);
     while (null != enclit) {
       // create tokens for enclitic
-      String clitClass =
-          this.identifyClass(enclit.getImage(), enclitMatcher, langRes.getClitDescr());
+      String clitClass = this.identifyClass(
+          enclit.getImage(), enclitMatcher, langRes.getClitDescr(), stats);
       input.annotate(CLASS_ANNO, clitClass,
           tokenStart + enclit.getStartIndex(),
           tokenStart + enclit.getEndIndex());
@@ -514,13 +1763,14 @@ public class JTok {
       image = input.substring(tokenStart, tokenEnd);
       if (image.length() > 0) {
         this.annotate(input, CLASS_ANNO, tokClass,
-            tokenStart, tokenEnd, image, langRes);
+            tokenStart, tokenEnd, image, langRes, classify, stats);
         tokClass = (String)input.getAnnotation(CLASS_ANNO);
         if (tokClass != rootClass) {
           // the remaining token could be matched with a non-root class,
           // so stop splitting enclitics
           break;
         }
+        countRegExpCall(stats);
         enclit = enclitMatcher.ends(image);
       } else {
         enclit = null;
@@ -577,16 +1827,28 @@ public class JTok {
    *          the surface image
    * @param langRes
    *          the language resource to use
+   * @param classify
+   *          if {@code false}, tokens matched by the token classes rule get the class
+   *          {@link #UNCLASSIFIED} instead of their exact class
+   * @param stats
+   *          the stats to update or {@code null} if instrumentation is disabled
    */
   private void annotate(
       AnnotatedString input, String key, Object value,
-      int beginIndex, int endIndex, String image, LanguageResource langRes) {
+      int beginIndex, int endIndex, String image, LanguageResource langRes, boolean classify,
+      TokenizerStats stats) {
 
     // get matcher needed for token classes recognition
     RegExp allClassesMatcher = langRes.getAllClassesMatcher();
 
+    countRegExpCall(stats);
     if (allClassesMatcher.matches(image)) {
-      String tokenClass = this.identifyClass(image, allClassesMatcher, langRes.getClassesDescr());
+      if (!classify) {
+        input.annotate(key, UNCLASSIFIED, beginIndex, endIndex);
+        return;
+      }
+      String tokenClass =
+          this.identifyClass(image, allClassesMatcher, langRes.getClassesDescr(), stats);
       input.annotate(key, tokenClass, beginIndex, endIndex);
     } else {
       input.annotate(key, value, beginIndex, endIndex);
@@ -606,26 +1868,30 @@ public class JTok {
    *          a string with the original token containing the punctuation
    * @param langRes
    *          a language resource that contains everything needed for identifying the class
+   * @param stats
+   *          the stats to update or {@code null} if instrumentation is disabled
    * @return the class name
    * @exception ProcessingException
    *              if class of punctuation can't be identified
    */
   private String identifyPunctClass(
-      Match punct, RegExp regExp, String image, LanguageResource langRes) {
+      Match punct, RegExp regExp, String image, LanguageResource langRes, TokenizerStats stats) {
 
-    String oneClass = this.identifyClass(punct.getImage(), regExp, langRes.getPunctDescr());
+    String oneClass =
+        this.identifyClass(punct.getImage(), regExp, langRes.getPunctDescr(), stats);
     // check if we have an ambiguous open/close punctuation; if
     // yes, resolve it
     if (langRes.isAncestor(PunctDescription.OPEN_CLOSE_PUNCT, oneClass)) {
 
+      CharTable chars = langRes.getCharTable();
       int nextIndex = punct.getEndIndex();
       if ((nextIndex >= image.length())
-          || !Character.isLetter(image.charAt(nextIndex))) {
+          || !chars.isLetter(image.charAt(nextIndex))) {
         oneClass = PunctDescription.CLOSE_PUNCT;
       } else {
         int prevIndex = punct.getStartIndex() - 1;
         if ((prevIndex < 0)
-            || !Character.isLetter(image.charAt(prevIndex))) {
+            || !chars.isLetter(image.charAt(prevIndex))) {
           oneClass = PunctDescription.OPEN_PUNCT;
         }
       }
@@ -641,18 +1907,23 @@ public class JTok {
    *
    * @param input
    *          an annotated string
+   * @param text
+   *          the text of the annotated string, for dictionary lookups without substrings
    * @param langRes
    *          the language resource to use
+   * @param stats
+   *          the stats to update or {@code null} if instrumentation is disabled
    * @exception ProcessingException
    *              if an error occurs
    */
-  private void identifyAbbrev(AnnotatedString input, LanguageResource langRes) {
+  void identifyAbbrev(
+      AnnotatedString input, CharSequence text, LanguageResource langRes, TokenizerStats stats) {
 
     // get matchers needed for abbreviation recognition
     RegExp allAbbrevMatcher = langRes.getAllAbbrevMatcher();
 
     // get map with abbreviation lists
-    Map<String, Set<String>> abbrevLists = langRes.getAbbrevLists();
+    Map<String, TermDictionary> abbrevLists = langRes.getAbbrevLists();
 
     // iterate over tokens
     char c = input.setIndex(0);
@@ -675,24 +1946,22 @@ public class JTok {
       if (c == '.' && tokenEnd == input.getIndex()) {
         // get the token content WITH the following period
         tokenEnd = tokenEnd + 1;
-        String image = input.substring(tokenStart, tokenEnd);
 
         // if the abbreviation contains a hyphen, it's sufficient to check
         // the part after the hyphen
-        int hyphenPos = image.lastIndexOf("-");
-        if (hyphenPos != -1) {
-          String afterHyphen = image.substring(hyphenPos + 1);
-          if (afterHyphen.matches("[^0-9]{2,}")) {
-            image = afterHyphen;
-          }
+        int imageStart = tokenStart;
+        int hyphenPos = lastIndexOf(text, '-', tokenStart, tokenEnd);
+        if (hyphenPos != -1 && tokenEnd - hyphenPos > 2
+            && !containsDigit(text, hyphenPos + 1, tokenEnd)) {
+          imageStart = hyphenPos + 1;
         }
 
         // check if token is in abbreviation lists
         boolean found = false;
-        for (Map.Entry<String, Set<String>> oneEntry : abbrevLists.entrySet()) {
+        for (Map.Entry<String, TermDictionary> oneEntry : abbrevLists.entrySet()) {
           String abbrevClass = oneEntry.getKey();
-          Set<String> oneList = oneEntry.getValue();
-          if (oneList.contains(image)) {
+          TermDictionary oneList = oneEntry.getValue();
+          if (oneList.contains(text, imageStart, tokenEnd)) {
             // annotate abbreviation
             input.annotate(CLASS_ANNO, abbrevClass, tokenStart, tokenEnd);
             // stop looking for this abbreviation
@@ -701,14 +1970,22 @@ public class JTok {
           }
         }
         if (found) {
+          if (null != stats) {
+            stats.countAbbrevHit();
+          }
           continue;
         }
 
+        String image = input.substring(imageStart, tokenEnd);
         // check if token is matched by abbreviation matcher
+        countRegExpCall(stats);
         if (allAbbrevMatcher.matches(image)) {
           String abbrevClass =
-              this.identifyClass(image, allAbbrevMatcher, langRes.getAbbrevDescr());
+              this.identifyClass(image, allAbbrevMatcher, langRes.getAbbrevDescr(), stats);
           input.annotate(CLASS_ANNO, abbrevClass, tokenStart, tokenEnd);
+          if (null != stats) {
+            stats.countAbbrevHit();
+          }
           continue;
         }
       }
@@ -716,21 +1993,75 @@ public class JTok {
   }
 
 
+  /**
+   * Returns the index of the last occurrence of the given character in the given range of the
+   * given text.
+   *
+   * @param text
+   *          the text
+   * @param c
+   *          the character
+   * @param start
+   *          the start index of the range
+   * @param end
+   *          the end index of the range, exclusive
+   * @return the index or -1 if the character does not occur in the range
+   */
+  private static int lastIndexOf(CharSequence text, char c, int start, int end) {
+
+    for (int i = end - 1; i >= start; i--) {
+      if (text.charAt(i) == c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+
+  /**
+   * Checks if the given range of the given text contains one of the digits 0-9.
+   *
+   * @param text
+   *          the text
+   * @param start
+   *          the start index of the range
+   * @param end
+   *          the end index of the range, exclusive
+   * @return a flag indicating if the range contains a digit
+   */
+  private static boolean containsDigit(CharSequence text, int start, int end) {
+
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (c >= '0' && c <= '9') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+
   /**
    * Identifies text units and paragraphs in the given annotated string and annotates them under the
    * annotation key BORDER_ANNO.
    *
    * @param input
    *          an annotated string
+   * @param text
+   *          the text of the annotated string, for dictionary lookups without substrings
    * @param langRes
    *          the language resource to use
+   * @param stats
+   *          the stats to update or {@code null} if instrumentation is disabled
    * @exception ProcessingException
    *              if an undefined class name is found
    */
-  private void identifyTus(AnnotatedString input, LanguageResource langRes) {
+  void identifyTus(
+      AnnotatedString input, CharSequence text, LanguageResource langRes, TokenizerStats stats) {
 
     // get matcher needed for text unit identification
     RegExp intPunctMatcher = langRes.getInternalTuMatcher();
+    CharTable chars = langRes.getCharTable();
 
     // init end-of-sentence-mode flag; when in this mode, every token
     // that is not PTERM, PTERM_P, CLOSE_PUNCT or CLOSE_BRACKET initiates the
@@ -763,8 +2094,9 @@ public class JTok {
                   PunctDescription.CLOSE_BRACKET,
                   (String)input.getAnnotation(CLASS_ANNO))) {
             // do nothing
-          } else if (Character.isLowerCase(c)
-              || intPunctMatcher.matches(input.substring(input.getIndex(), input.getIndex() + 1))) {
+          } else if (chars.isLowerCase(c)
+              || matches(intPunctMatcher,
+                  input.substring(input.getIndex(), input.getIndex() + 1), stats)) {
             // if we find a lower case letter or a punctuation that can
             // only appear within a text unit, it was wrong alert, the
             // sentence hasn't ended yet
@@ -775,8 +2107,7 @@ public class JTok {
             eosMode = false;
           }
         } else if (abbrevMode) {
-          String image = input.substring(tokenStart, tokenEnd);
-          if (langRes.getNonCapTerms().contains(image)
+          if (langRes.getNonCapTerms().contains(text, tokenStart, tokenEnd)
               || langRes.isAncestor(
                   PunctDescription.OPEN_PUNCT,
                   (String)input.getAnnotation(CLASS_ANNO))) {
@@ -811,7 +2142,10 @@ public class JTok {
         c = input.setIndex(tokenEnd);
       } else {
         // check for paragraph change in whitespace sequence
-        if (this.isParagraphChange(input.substring(tokenStart, tokenEnd))) {
+        if (isParagraphChange(text, tokenStart, tokenEnd)) {
+          if (null != stats) {
+            stats.checkCancelled();
+          }
           eosMode = false;
           abbrevMode = false;
           // set iterator to next token
@@ -833,31 +2167,37 @@ public class JTok {
   /**
    * Called with a sequence of whitespaces. It returns a flag indicating if the sequence contains a
    * paragraph change. A paragraph change is defined as a sequence of whitespaces that contains two
-   * line breaks.
+   * line breaks. The sequence is scanned once, without creating a substring.
    *
-   * @param wSpaces
-   *          a string consisting only of whitespaces
+   * @param text
+   *          the text containing the sequence
+   * @param start
+   *          the start index of the sequence of whitespaces
+   * @param end
+   *          the end index of the sequence of whitespaces, exclusive
    * @return a flag indicating a paragraph change
    */
-  private boolean isParagraphChange(String wSpaces) {
-
-    int len = wSpaces.length();
-    for (int i = 0; i < len; i++) {
-      char c = wSpaces.charAt(i);
-      if (('\n' == c) || ('\r' == c)) {
-        // possible continuations for a paragraph change:
-        // - another \n -> paragraph change in Unix or Windows
-        // the second \n must no be the next character!
-        // this way we catch \n\n for Unix and \r\n\r\n for Windows
-        // - another \r -> paragraph change in MacOs or Windows
-        // the second \r must no be the next character!
-        // this way we catch \r\r for MacOs and \r\n\r\n for Windows
-        // we just look for a second occurrence of the c just found
-        for (int j = i + 1; j < len; j++) {
-          if (c == wSpaces.charAt(j)) {
-            return true;
-          }
+  private static boolean isParagraphChange(CharSequence text, int start, int end) {
+
+    // a paragraph change is a second occurrence of \n or \r:
+    // - another \n -> paragraph change in Unix or Windows
+    // - another \r -> paragraph change in MacOs or Windows
+    // the second one must not be the next character,
+    // this way we catch \n\n for Unix, \r\r for MacOs and \r\n\r\n for Windows
+    boolean lineFeedFound = false;
+    boolean carriageReturnFound = false;
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if ('\n' == c) {
+        if (lineFeedFound) {
+          return true;
         }
+        lineFeedFound = true;
+      } else if ('\r' == c) {
+        if (carriageReturnFound) {
+          return true;
+        }
+        carriageReturnFound = true;
       }
     }
     return false;
@@ -875,11 +2215,14 @@ public class JTok {
    *          found via a regular expression
    * @param descr
    *          a description that contains everything needed for identifying the class
+   * @param stats
+   *          the stats to update or {@code null} if instrumentation is disabled
    * @return the class name
    * @exception ProcessingException
    *              if class of string can't be identified
    */
-  private String identifyClass(String string, RegExp regExp, Description descr) {
+  private String identifyClass(
+      String string, RegExp regExp, Description descr, TokenizerStats stats) {
 
     // first try to identify class via the regular expression
     if (null != regExp) {
@@ -897,6 +2240,7 @@ public class JTok {
       // check if string is of that class
       String oneClass = oneEntry.getKey();
       RegExp oneRe = oneEntry.getValue();
+      countRegExpCall(stats);
       if (oneRe.matches(string)) {
         // return class name
         return oneClass;
@@ -907,6 +2251,39 @@ public class JTok {
   }
 
 
+  /**
+   * Counts a regular expression invocation in the given stats.
+   *
+   * @param stats
+   *          the stats to update or {@code null} if instrumentation is disabled
+   */
+  private static void countRegExpCall(TokenizerStats stats) {
+
+    if (null != stats) {
+      stats.countRegExpCall();
+    }
+  }
+
+
+  /**
+   * Checks if the given regular expression matches the given string and counts the invocation in
+   * the given stats.
+   *
+   * @param regExp
+   *          the regular expression
+   * @param string
+   *          the string
+   * @param stats
+   *          the stats to update or {@code null} if instrumentation is disabled
+   * @return a flag indicating if the regular expression matches the string
+   */
+  private static boolean matches(RegExp regExp, String string, TokenizerStats stats) {
+
+    countRegExpCall(stats);
+    return regExp.matches(string);
+  }
+
+
   /**
    * This main method must be used with two or three arguments:
    * <ul>
@@ -956,6 +2333,10 @@ public class JTok {
       for (Paragraph onePara : Outputter.createParagraphs(result)) {
         System.out.println(onePara);
       }
+
+      if (Boolean.getBoolean(PROFILE_PROPERTY)) {
+        testTok.writeProfile(System.err);
+      }
     } catch (IOException e) {
       logger.error(e.getLocalizedMessage(), e);
     }
@@ -26,9 +26,13 @@ import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -42,6 +46,8 @@ import org.xml.sax.SAXException;
 
 import de.dfki.lt.tools.tokenizer.exceptions.InitializationException;
 import de.dfki.lt.tools.tokenizer.exceptions.ProcessingException;
+import de.dfki.lt.tools.tokenizer.output.PtbFormat;
+import de.dfki.lt.tools.tokenizer.regexp.ProfilingRegExp;
 import de.dfki.lt.tools.tokenizer.regexp.RegExp;
 
 /**
@@ -58,6 +64,12 @@ public class LanguageResource {
   // name suffix of the config file with the macros
   private static final String MACRO_CFG = "_macros.cfg";
 
+  // the classes the identification of text units depends on
+  private static final String[] TU_CLASSES = {
+      PunctDescription.TERM_PUNCT, PunctDescription.TERM_PUNCT_P, PunctDescription.CLOSE_PUNCT,
+      PunctDescription.CLOSE_BRACKET, PunctDescription.OPEN_PUNCT,
+      AbbrevDescription.B_ABBREVIATION };
+
 
   // name of the language for which this class contains the resources
   private String language;
@@ -71,6 +83,15 @@ public class LanguageResource {
   // map from class names to a lists of class names that are ancestors of this class
   private Map<String, List<String>> ancestorsMap;
 
+  // map from class names to class ids
+  private Map<String, Short> classIdsMap;
+
+  // class names indexed by their class id
+  private String[] classNames;
+
+  // Penn Treebank format for the classes
+  private PtbFormat ptbFormat;
+
   // punctuation description
   private PunctDescription punctDescr;
 
@@ -83,6 +104,12 @@ public class LanguageResource {
   // token classes description
   private TokenClassesDescription classesDescr;
 
+  // flag indicating if the text units depend on the exact classes of the token classes description
+  private boolean tuClassesDependent;
+
+  // lookup table for classifying characters
+  private CharTable charTable;
+
 
   /**
    * Creates a new instance of {@link LanguageResource} for the given language using the resource
@@ -97,48 +124,307 @@ public class LanguageResource {
    */
   public LanguageResource(String lang, String resourceDir) {
 
+    this(lang, resourceDir, loadMacros(lang, resourceDir));
+  }
+
+
+  /**
+   * Creates a new instance of {@link LanguageResource} for the given language using the resource
+   * description files in the given resource directory and the given macros.
+   *
+   * @param lang
+   *          the name of the language for which this class contains the resources
+   * @param resourceDir
+   *          the name of the resource directory
+   * @param macrosMap
+   *          a map of macro names to regular expression strings
+   * @exception InitializationException
+   *              if an error occurs
+   */
+  private LanguageResource(String lang, String resourceDir, Map<String, String> macrosMap) {
+
+    this(lang,
+        loadClassesRoot(lang, resourceDir),
+        createPunctDescr(lang, resourceDir, macrosMap),
+        createClitDescr(lang, resourceDir, macrosMap),
+        createAbbrevDescr(lang, resourceDir, macrosMap),
+        createClassesDescr(lang, resourceDir, macrosMap));
+  }
+
+
+  /**
+   * Creates a new instance of {@link LanguageResource} for the given language from the given
+   * classes hierarchy and descriptions.
+   *
+   * @param lang
+   *          the name of the language for which this class contains the resources
+   * @param classesRoot
+   *          the root element of the classes hierarchy
+   * @param punctDescr
+   *          the punctuation description
+   * @param clitDescr
+   *          the clitics description
+   * @param abbrevDescr
+   *          the abbreviations description
+   * @param classesDescr
+   *          the token classes description
+   * @exception InitializationException
+   *              if an error occurs
+   */
+  private LanguageResource(
+      String lang, Element classesRoot, PunctDescription punctDescr, CliticsDescription clitDescr,
+      AbbrevDescription abbrevDescr, TokenClassesDescription classesDescr) {
+
     // init stuff
-    this.setAncestorsMap(new HashMap<String, List<String>>());
-    this.setPunctDescr(null);
-    this.setClitDescr(null);
-    this.setAbbrevDescr(null);
-    this.setClassseDescr(null);
+    this.setAncestorsMap(new LinkedHashMap<String, List<String>>());
+    this.classIdsMap = new HashMap<>();
     this.language = lang;
-    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+
+    // set hierarchy root
+    this.setClassesRoot(classesRoot);
+    // map class names to dom elements
+    this.mapSingleClass(this.getClassesRoot());
+    this.mapClasses(this.getClassesRoot().getChildNodes());
+
+    this.setPunctDescr(punctDescr);
+    this.setClitDescr(clitDescr);
+    this.setAbbrevDescr(abbrevDescr);
+    this.setClassseDescr(classesDescr);
+
+    if (Boolean.getBoolean(JTok.PROFILE_PROPERTY)) {
+      punctDescr.enableProfiling("punct");
+      clitDescr.enableProfiling("clitics");
+      abbrevDescr.enableProfiling("abbrev");
+      classesDescr.enableProfiling("classes");
+    }
+
+    // assign class ids to all classes of the hierarchy and the descriptions
+    this.mapClassIds();
+
+    this.tuClassesDependent = this.checkTuClassesDependent();
+
+    this.charTable = new CharTable(this.getAllPunctMatcher());
+  }
+
+
+  /**
+   * Loads the language resource for the given language using the resource description files in the
+   * given resource directory. The classes hierarchy and the descriptions are loaded concurrently on
+   * the given executor. No task waits for another task, so any executor can be used, including a
+   * bounded one that loads several language resources at the same time.
+   *
+   * @param lang
+   *          the name of the language for which this class contains the resources
+   * @param resourceDir
+   *          the name of the resource directory
+   * @param executor
+   *          the executor for loading
+   * @return a future of the language resource; use {@link #toInitializationException(Throwable)}
+   *         to convert the error if it completes exceptionally
+   */
+  static CompletableFuture<LanguageResource> load(
+      String lang, String resourceDir, Executor executor) {
+
+    LanguageResourceLoadedEvent event = new LanguageResourceLoadedEvent();
+    event.begin();
+
+    CompletableFuture<Element> classesRoot =
+        CompletableFuture.supplyAsync(() -> loadClassesRoot(lang, resourceDir), executor);
+    CompletableFuture<Map<String, String>> macros =
+        CompletableFuture.supplyAsync(() -> loadMacros(lang, resourceDir), executor);
+    // the descriptions only depend on the macros
+    CompletableFuture<PunctDescription> punctDescr = macros.thenApplyAsync(
+        macrosMap -> createPunctDescr(lang, resourceDir, macrosMap), executor);
+    CompletableFuture<CliticsDescription> clitDescr = macros.thenApplyAsync(
+        macrosMap -> createClitDescr(lang, resourceDir, macrosMap), executor);
+    CompletableFuture<AbbrevDescription> abbrevDescr = macros.thenApplyAsync(
+        macrosMap -> createAbbrevDescr(lang, resourceDir, macrosMap), executor);
+    CompletableFuture<TokenClassesDescription> classesDescr = macros.thenApplyAsync(
+        macrosMap -> createClassesDescr(lang, resourceDir, macrosMap), executor);
+
+    return CompletableFuture.allOf(classesRoot, punctDescr, clitDescr, abbrevDescr, classesDescr)
+        // all futures are completed, so join does not block
+        .thenApplyAsync(ignore -> {
+          LanguageResource langRes = new LanguageResource(
+              lang, classesRoot.join(), punctDescr.join(), clitDescr.join(),
+              abbrevDescr.join(), classesDescr.join());
+          if (event.shouldCommit()) {
+            event.language = lang;
+            event.resourceDir = resourceDir;
+            event.classCount = langRes.getClassNames().length;
+            event.commit();
+          }
+          return langRes;
+        }, executor);
+  }
+
+
+  /**
+   * Converts the given error of a future returned by {@link #load(String, String, Executor)} to an
+   * initialization exception.
+   *
+   * @param error
+   *          the error, possibly wrapped in a {@link CompletionException}
+   * @return the initialization exception
+   */
+  static InitializationException toInitializationException(Throwable error) {
+
+    Throwable cause = error;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && null != cause.getCause()) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof InitializationException) {
+      return (InitializationException)cause;
+    }
+    return new InitializationException(cause.getLocalizedMessage(), cause);
+  }
+
+
+  /**
+   * Loads the classes hierarchy of the given language.
+   *
+   * @param lang
+   *          the language
+   * @param resourceDir
+   *          the name of the resource directory
+   * @return the root element of the classes hierarchy
+   * @exception InitializationException
+   *              if an error occurs
+   */
+  private static Element loadClassesRoot(String lang, String resourceDir) {
 
     try {
       // create builder for parsing xml
-      DocumentBuilder builder = factory.newDocumentBuilder();
+      DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
       // load classes hierarchy
       Document doc = builder.parse(
           FileTools.openResourceFileAsStream(
               Paths.get(resourceDir).resolve(lang + CLASSES_HIERARCHY)));
-      // set hierarchy root
-      this.setClassesRoot(doc.getDocumentElement());
-      // map class names to dom elements
-      this.mapSingleClass(this.getClassesRoot());
-      this.mapClasses(this.getClassesRoot().getChildNodes());
+      return doc.getDocumentElement();
+    } catch (SAXException spe) {
+      throw new InitializationException(spe.getLocalizedMessage(), spe);
+    } catch (ParserConfigurationException pce) {
+      throw new InitializationException(pce.getLocalizedMessage(), pce);
+    } catch (IOException ioe) {
+      throw new InitializationException(ioe.getLocalizedMessage(), ioe);
+    }
+  }
+
 
-      // load macros
+  /**
+   * Loads the macros of the given language.
+   *
+   * @param lang
+   *          the language
+   * @param resourceDir
+   *          the name of the resource directory
+   * @return a map of macro names to regular expression strings
+   * @exception InitializationException
+   *              if an error occurs
+   */
+  private static Map<String, String> loadMacros(String lang, String resourceDir) {
+
+    try {
       Map<String, String> macrosMap = new HashMap<>();
       Description.loadMacros(Paths.get(resourceDir).resolve(lang + MACRO_CFG), macrosMap);
+      return macrosMap;
+    } catch (IOException ioe) {
+      throw new InitializationException(ioe.getLocalizedMessage(), ioe);
+    }
+  }
 
-      // load punctuation description
-      this.setPunctDescr(new PunctDescription(resourceDir, lang, macrosMap));
 
-      // load clitics description
-      this.setClitDescr(new CliticsDescription(resourceDir, lang, macrosMap));
+  /**
+   * Loads the punctuation description of the given language.
+   *
+   * @param lang
+   *          the language
+   * @param resourceDir
+   *          the name of the resource directory
+   * @param macrosMap
+   *          a map of macro names to regular expression strings
+   * @return the punctuation description
+   * @exception InitializationException
+   *              if an error occurs
+   */
+  private static PunctDescription createPunctDescr(
+      String lang, String resourceDir, Map<String, String> macrosMap) {
 
-      // load abbreviation description
-      this.setAbbrevDescr(new AbbrevDescription(resourceDir, lang, macrosMap));
+    try {
+      return new PunctDescription(resourceDir, lang, macrosMap);
+    } catch (IOException ioe) {
+      throw new InitializationException(ioe.getLocalizedMessage(), ioe);
+    }
+  }
 
-      // load token classes description document
-      this.setClassseDescr(new TokenClassesDescription(resourceDir, lang, macrosMap));
 
-    } catch (SAXException spe) {
-      throw new InitializationException(spe.getLocalizedMessage(), spe);
-    } catch (ParserConfigurationException pce) {
-      throw new InitializationException(pce.getLocalizedMessage(), pce);
+  /**
+   * Loads the clitics description of the given language.
+   *
+   * @param lang
+   *          the language
+   * @param resourceDir
+   *          the name of the resource directory
+   * @param macrosMap
+   *          a map of macro names to regular expression strings
+   * @return the clitics description
+   * @exception InitializationException
+   *              if an error occurs
+   */
+  private static CliticsDescription createClitDescr(
+      String lang, String resourceDir, Map<String, String> macrosMap) {
+
+    try {
+      return new CliticsDescription(resourceDir, lang, macrosMap);
+    } catch (IOException ioe) {
+      throw new InitializationException(ioe.getLocalizedMessage(), ioe);
+    }
+  }
+
+
+  /**
+   * Loads the abbreviations description of the given language.
+   *
+   * @param lang
+   *          the language
+   * @param resourceDir
+   *          the name of the resource directory
+   * @param macrosMap
+   *          a map of macro names to regular expression strings
+   * @return the abbreviations description
+   * @exception InitializationException
+   *              if an error occurs
+   */
+  private static AbbrevDescription createAbbrevDescr(
+      String lang, String resourceDir, Map<String, String> macrosMap) {
+
+    try {
+      return new AbbrevDescription(resourceDir, lang, macrosMap);
+    } catch (IOException ioe) {
+      throw new InitializationException(ioe.getLocalizedMessage(), ioe);
+    }
+  }
+
+
+  /**
+   * Loads the token classes description of the given language.
+   *
+   * @param lang
+   *          the language
+   * @param resourceDir
+   *          the name of the resource directory
+   * @param macrosMap
+   *          a map of macro names to regular expression strings
+   * @return the token classes description
+   * @exception InitializationException
+   *              if an error occurs
+   */
+  private static TokenClassesDescription createClassesDescr(
+      String lang, String resourceDir, Map<String, String> macrosMap) {
+
+    try {
+      return new TokenClassesDescription(resourceDir, lang, macrosMap);
     } catch (IOException ioe) {
       throw new InitializationException(ioe.getLocalizedMessage(), ioe);
     }
@@ -269,6 +555,157 @@ public class LanguageResource {
   }
 
 
+  /**
+   * Returns the id of the given class. Class ids are assigned when the language resource is loaded
+   * and are only valid for this language resource.
+   *
+   * @param className
+   *          the class name
+   * @return the class id or -1 if the class is unknown
+   */
+  public short getClassId(String className) {
+
+    Short classId = this.classIdsMap.get(className);
+    if (null == classId) {
+      return -1;
+    }
+    return classId;
+  }
+
+
+  /**
+   * Returns the class names indexed by their class id. The returned array is not copied and must
+   * not be modified.
+   *
+   * @return the class names
+   */
+  String[] getClassNames() {
+
+    return this.classNames;
+  }
+
+
+  /**
+   * @return the profiled regular expressions of all descriptions; empty if profiling was not
+   *         enabled when this language resource was created
+   */
+  List<ProfilingRegExp> getProfile() {
+
+    List<ProfilingRegExp> result = new ArrayList<>();
+    result.addAll(this.getPunctDescr().getProfile());
+    result.addAll(this.getClitDescr().getProfile());
+    result.addAll(this.getAbbrevDescr().getProfile());
+    result.addAll(this.getClassesDescr().getProfile());
+    return result;
+  }
+
+
+  /**
+   * @return the Penn Treebank format for the classes
+   */
+  PtbFormat getPtbFormat() {
+
+    return this.ptbFormat;
+  }
+
+
+  /**
+   * @return the lookup table for classifying characters
+   */
+  CharTable getCharTable() {
+
+    return this.charTable;
+  }
+
+
+  /**
+   * @return a flag indicating if the identification of text units depends on the exact classes of
+   *         the token classes description; if not, tokens matched by the token classes rule don't
+   *         need to be classified for splitting a text into text units
+   */
+  boolean isTuClassesDependent() {
+
+    return this.tuClassesDependent;
+  }
+
+
+  /**
+   * Checks if any class of the token classes description is one of the classes the identification
+   * of text units depends on or a descendant of such a class.
+   *
+   * @return a flag indicating if the text units depend on the exact classes
+   */
+  private boolean checkTuClassesDependent() {
+
+    List<String> tokenClasses =
+        new ArrayList<>(this.getClassesDescr().getDefinitionsMap().keySet());
+    tokenClasses.addAll(this.getClassesDescr().getRegExpMap().values());
+    for (String oneClass : tokenClasses) {
+      for (String oneTuClass : TU_CLASSES) {
+        if (this.isAncestor(oneTuClass, oneClass)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * Assigns a class id to each class of the classes hierarchy and to each class used in the
+   * descriptions.
+   */
+  private void mapClassIds() {
+
+    List<String> names = new ArrayList<>();
+    // the root class always gets id 0
+    this.addClassName(this.classesRootName, names);
+    for (String oneClass : this.getAncestorsMap().keySet()) {
+      this.addClassName(oneClass, names);
+    }
+    // punctuation classes that are assigned when resolving ambiguous punctuation
+    this.addClassName(PunctDescription.OPEN_PUNCT, names);
+    this.addClassName(PunctDescription.CLOSE_PUNCT, names);
+    // classes only mentioned in the descriptions
+    Description[] descrs = {
+        this.getPunctDescr(), this.getClitDescr(), this.getAbbrevDescr(), this.getClassesDescr() };
+    for (Description oneDescr : descrs) {
+      for (String oneClass : oneDescr.getDefinitionsMap().keySet()) {
+        this.addClassName(oneClass, names);
+      }
+      for (String oneClass : oneDescr.getRegExpMap().values()) {
+        this.addClassName(oneClass, names);
+      }
+      if (null != oneDescr.getClassMembersMap()) {
+        for (String oneClass : oneDescr.getClassMembersMap().keySet()) {
+          this.addClassName(oneClass, names);
+        }
+      }
+    }
+    // the class of tokens that are not classified
+    this.addClassName(JTok.UNCLASSIFIED, names);
+    this.classNames = names.toArray(new String[names.size()]);
+    this.ptbFormat = new PtbFormat(this.classNames);
+  }
+
+
+  /**
+   * Adds the given class name to the given list of class names if it has no class id yet.
+   *
+   * @param className
+   *          the class name
+   * @param names
+   *          the list of class names indexed by class id
+   */
+  private void addClassName(String className, List<String> names) {
+
+    if (!this.classIdsMap.containsKey(className)) {
+      this.classIdsMap.put(className, (short)names.size());
+      names.add(className);
+    }
+  }
+
+
   /**
    * Iterates recursively over a list of class elements and adds each elements ancestors to
    * ancestors map using the name of the element as key.
@@ -393,7 +830,7 @@ public class LanguageResource {
   /**
    * @return the map with the abbreviation lists
    */
-  Map<String, Set<String>> getAbbrevLists() {
+  Map<String, TermDictionary> getAbbrevLists() {
 
     return this.getAbbrevDescr().getClassMembersMap();
   }
@@ -409,10 +846,10 @@ public class LanguageResource {
 
 
   /**
-   * @return the set of the most common terms that only start with a capital letter when they are at
-   * the beginning of a sentence
+   * @return the dictionary of the most common terms that only start with a capital letter when they
+   * are at the beginning of a sentence
    */
-  Set<String> getNonCapTerms() {
+  TermDictionary getNonCapTerms() {
 
     return this.getAbbrevDescr().getNonCapTerms();
   }
@@ -0,0 +1,58 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a {@link LanguageResource} loaded by {@link JTok}. The duration covers
+ * loading the classes hierarchy and all descriptions.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+@Name(LanguageResourceLoadedEvent.NAME)
+@Label("Language Resource Loaded")
+@Category("JTok")
+@Description("A language resource loaded by JTok")
+@StackTrace(false)
+final class LanguageResourceLoadedEvent extends Event {
+
+  /** the event name */
+  static final String NAME = "de.dfki.lt.tools.tokenizer.LanguageResourceLoaded";
+
+
+  @Label("Language")
+  String language;
+
+  @Label("Resource Directory")
+  String resourceDir;
+
+  @Label("Classes")
+  @Description("The number of token classes")
+  int classCount;
+}
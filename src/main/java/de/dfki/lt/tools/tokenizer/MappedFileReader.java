@@ -0,0 +1,160 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Reader that memory-maps a file window by window and decodes it with a {@link CharsetDecoder}.
+ * Only one window of the file is mapped at a time, so files of any size can be read. Malformed
+ * input is replaced, like in {@link String#String(byte[], String)}.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+class MappedFileReader extends Reader {
+
+  // size of the decoded character buffer
+  private static final int CHAR_BUFFER_SIZE = 8192;
+
+
+  // the file channel
+  private FileChannel channel;
+
+  // the size of the mapped windows in bytes
+  private int windowSize;
+
+  // the decoder
+  private CharsetDecoder decoder;
+
+  // the currently mapped window
+  private ByteBuffer window;
+
+  // the file position of the currently mapped window
+  private long windowStart;
+
+  // decoded characters not yet read
+  private CharBuffer chars;
+
+  // flag indicating that the whole file has been decoded
+  private boolean endOfInput;
+
+
+  /**
+   * Creates a new instance of {@link MappedFileReader}.
+   *
+   * @param channel
+   *          the file channel to read from; it is closed when this reader is closed
+   * @param decoder
+   *          the decoder to use
+   * @param windowSize
+   *          the size of the mapped windows in bytes
+   */
+  MappedFileReader(FileChannel channel, CharsetDecoder decoder, int windowSize) {
+
+    this.channel = channel;
+    this.windowSize = windowSize;
+    this.decoder = decoder
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.window = ByteBuffer.allocate(0);
+    this.windowStart = 0;
+    this.chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+    this.chars.flip();
+    this.endOfInput = false;
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int read(char[] cbuf, int off, int len)
+      throws IOException {
+
+    if (len == 0) {
+      return 0;
+    }
+    if (!this.chars.hasRemaining() && !this.fillChars()) {
+      return -1;
+    }
+    int count = Math.min(len, this.chars.remaining());
+    this.chars.get(cbuf, off, count);
+    return count;
+  }
+
+
+  /**
+   * Decodes the next characters into the character buffer.
+   *
+   * @return {@code false} if the end of the file is reached and all characters have been read
+   * @throws IOException
+   *           if there is an error when reading the file
+   */
+  private boolean fillChars()
+      throws IOException {
+
+    this.chars.clear();
+    while (this.chars.position() == 0) {
+      if (this.endOfInput) {
+        break;
+      }
+      long fileSize = this.channel.size();
+      boolean lastWindow = this.windowStart + this.window.limit() >= fileSize;
+      CoderResult result = this.decoder.decode(this.window, this.chars, lastWindow);
+      if (result.isError()) {
+        result.throwException();
+      }
+      if (result.isUnderflow()) {
+        if (lastWindow) {
+          this.decoder.flush(this.chars);
+          this.endOfInput = true;
+        } else {
+          // map next window, starting with the bytes not yet decoded
+          this.windowStart += this.window.position();
+          long size = Math.min(this.windowSize, fileSize - this.windowStart);
+          this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, this.windowStart, size);
+        }
+      }
+    }
+    this.chars.flip();
+    return this.chars.hasRemaining();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close()
+      throws IOException {
+
+    this.channel.close();
+  }
+}
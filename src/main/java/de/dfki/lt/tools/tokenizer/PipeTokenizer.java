@@ -0,0 +1,498 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.dfki.lt.tools.tokenizer.exceptions.ProcessingException;
+import de.dfki.lt.tools.tokenizer.output.OutputFormat;
+
+/**
+ * Tokenizes a stream of documents for use in Unix pipelines. Documents are read from an input
+ * stream and tokenized by a pool of worker threads. The results are written to an output stream in
+ * input order. The number of documents in progress is bounded, so a slow consumer slows down the
+ * reading of the input.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class PipeTokenizer {
+
+  /**
+   * Defines how documents are separated in the input. In the output, documents are separated by an
+   * empty line, or by a NUL character in {@link #NUL} mode.
+   */
+  public enum Mode {
+
+    /**
+     * one document per line; empty lines are skipped, so they can't be confused with the empty
+     * line that separates documents in the output
+     */
+    LINE,
+
+    /** documents are separated by NUL characters */
+    NUL,
+
+    /** documents are separated by empty lines */
+    BLANK
+  }
+
+
+  // the logger
+  private static final Logger logger = LoggerFactory.getLogger(PipeTokenizer.class);
+
+  // size of the output buffer in characters
+  private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+  // marks the end of the input in the result queue
+  private static final Future<String> END = CompletableFuture.completedFuture(null);
+
+
+  // the tokenizer
+  private JTok jtok;
+
+  // the language of the documents
+  private String lang;
+
+  // the output format
+  private OutputFormat format;
+
+  // the document separator mode
+  private Mode mode;
+
+  // the number of worker threads
+  private int threads;
+
+  // the maximum number of documents in progress
+  private int queueSize;
+
+
+  /**
+   * Creates a new instance of {@link PipeTokenizer}.
+   *
+   * @param jtok
+   *          the tokenizer to use
+   * @param lang
+   *          the language of the documents
+   * @param format
+   *          the output format
+   * @param mode
+   *          the document separator mode
+   * @param threads
+   *          the number of worker threads
+   * @param queueSize
+   *          the maximum number of documents in progress
+   */
+  public PipeTokenizer(
+      JTok jtok, String lang, OutputFormat format, Mode mode, int threads, int queueSize) {
+
+    this.jtok = jtok;
+    this.lang = lang;
+    this.format = format;
+    this.mode = mode;
+    this.threads = threads;
+    this.queueSize = queueSize;
+  }
+
+
+  /**
+   * Reads documents from the given reader, tokenizes them and writes the results in input order to
+   * the given writer. The writer is flushed whenever no further result is ready, but not closed.
+   *
+   * @param in
+   *          the reader to read documents from
+   * @param out
+   *          the writer to write the results to
+   * @return the number of documents that could not be tokenized; for each of them, an empty
+   *         result is written
+   * @throws IOException
+   *           if there is an error when reading or writing
+   * @throws InterruptedException
+   *           if interrupted while waiting for results
+   */
+  public int tokenize(Reader in, Writer out)
+      throws IOException, InterruptedException {
+
+    BufferedReader reader = new BufferedReader(in);
+    BlockingQueue<Future<String>> results = new ArrayBlockingQueue<>(this.queueSize);
+    ExecutorService workers = Executors.newFixedThreadPool(this.threads);
+    ExecutorService writer = Executors.newSingleThreadExecutor();
+    Future<Integer> writerResult = writer.submit(() -> this.writeResults(results, out));
+
+    boolean endQueued = false;
+    try {
+      String document;
+      while (null != (document = readDocument(reader, this.mode))) {
+        String oneDocument = document;
+        if (!enqueue(results, workers.submit(() -> this.tokenize(oneDocument)), writerResult)) {
+          break;
+        }
+      }
+      endQueued = enqueue(results, END, writerResult);
+    } finally {
+      if (endQueued) {
+        workers.shutdown();
+        writer.shutdown();
+      } else {
+        // the writer would wait forever for the end of the input, so interrupt it
+        writerResult.cancel(true);
+        writer.shutdownNow();
+        workers.shutdownNow();
+      }
+    }
+
+    try {
+      return writerResult.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException)cause;
+      }
+      if (cause instanceof InterruptedException) {
+        throw (InterruptedException)cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error)cause;
+      }
+      throw (RuntimeException)cause;
+    }
+  }
+
+
+  /**
+   * Adds the given result to the given queue. Blocks while the queue is full, unless the writer
+   * has terminated.
+   *
+   * @param results
+   *          the queue of results
+   * @param oneResult
+   *          the result to add
+   * @param writerResult
+   *          the result of the writer
+   * @return {@code true} if the result was added, {@code false} if the writer has terminated
+   * @throws InterruptedException
+   *           if interrupted while waiting
+   */
+  private static boolean enqueue(
+      BlockingQueue<Future<String>> results, Future<String> oneResult,
+      Future<Integer> writerResult)
+      throws InterruptedException {
+
+    while (!results.offer(oneResult, 100, TimeUnit.MILLISECONDS)) {
+      if (writerResult.isDone()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /**
+   * Tokenizes the given document and returns it in the output format.
+   *
+   * @param document
+   *          the document
+   * @return the formatted result
+   * @throws IOException
+   *           if there is an error when formatting the result
+   */
+  private String tokenize(String document)
+      throws IOException {
+
+    StringWriter result = new StringWriter(document.length() * 2 + 16);
+    this.format.write(this.jtok.tokenize(document, this.lang), result);
+    return result.toString();
+  }
+
+
+  /**
+   * Takes the results from the given queue in input order and writes them to the given writer
+   * until the end of the input is reached. Output is buffered and only flushed when no further
+   * result is ready.
+   *
+   * @param results
+   *          the queue of results
+   * @param out
+   *          the writer
+   * @return the number of documents that could not be tokenized
+   * @throws IOException
+   *           if there is an error when writing
+   * @throws InterruptedException
+   *           if interrupted while waiting for results
+   */
+  private int writeResults(BlockingQueue<Future<String>> results, Writer out)
+      throws IOException, InterruptedException {
+
+    Writer bufferedOut = new BufferedWriter(out, OUTPUT_BUFFER_SIZE);
+    char separator = getSeparator(this.mode);
+    int failed = 0;
+    while (true) {
+      Future<String> oneResult = results.poll();
+      if (null == oneResult) {
+        // nothing ready, flush the current batch and wait for the next result
+        bufferedOut.flush();
+        oneResult = results.take();
+      }
+      if (oneResult == END) {
+        break;
+      }
+      try {
+        bufferedOut.write(oneResult.get());
+      } catch (ExecutionException e) {
+        logger.error(String.format("could not tokenize document: %s", e.getCause()), e.getCause());
+        failed++;
+      }
+      bufferedOut.write(separator);
+    }
+    bufferedOut.flush();
+    return failed;
+  }
+
+
+  /**
+   * Returns the character that separates documents in the output for the given document separator
+   * mode.
+   *
+   * @param mode
+   *          the document separator mode
+   * @return the separator
+   */
+  static char getSeparator(Mode mode) {
+
+    return mode == Mode.NUL ? '\0' : '\n';
+  }
+
+
+  /**
+   * Reads the next document from the given reader according to the given document separator mode.
+   *
+   * @param reader
+   *          the reader
+   * @param mode
+   *          the document separator mode
+   * @return the document or {@code null} if the end of the input is reached
+   * @throws IOException
+   *           if there is an error when reading
+   */
+  static String readDocument(BufferedReader reader, Mode mode)
+      throws IOException {
+
+    switch (mode) {
+      case LINE:
+        return readNonEmptyLine(reader);
+      case NUL:
+        return readUntilNul(reader);
+      case BLANK:
+        return readUntilBlankLine(reader);
+      default:
+        throw new ProcessingException(String.format("unsupported mode %s", mode));
+    }
+  }
+
+
+  /**
+   * Reads the next line from the given reader that contains more than whitespaces.
+   *
+   * @param reader
+   *          the reader
+   * @return the line or {@code null} if the end of the input is reached
+   * @throws IOException
+   *           if there is an error when reading
+   */
+  private static String readNonEmptyLine(BufferedReader reader)
+      throws IOException {
+
+    String line;
+    while (null != (line = reader.readLine())) {
+      if (!line.trim().isEmpty()) {
+        return line;
+      }
+    }
+    return null;
+  }
+
+
+  /**
+   * Reads characters from the given reader up to the next NUL character.
+   *
+   * @param reader
+   *          the reader
+   * @return the characters read or {@code null} if the end of the input is reached
+   * @throws IOException
+   *           if there is an error when reading
+   */
+  private static String readUntilNul(BufferedReader reader)
+      throws IOException {
+
+    StringBuilder document = new StringBuilder();
+    int c;
+    while ((c = reader.read()) != -1) {
+      if (c == '\0') {
+        return document.toString();
+      }
+      document.append((char)c);
+    }
+    if (document.length() == 0) {
+      return null;
+    }
+    return document.toString();
+  }
+
+
+  /**
+   * Reads lines from the given reader up to the next empty line. Leading empty lines are skipped.
+   *
+   * @param reader
+   *          the reader
+   * @return the lines read or {@code null} if the end of the input is reached
+   * @throws IOException
+   *           if there is an error when reading
+   */
+  private static String readUntilBlankLine(BufferedReader reader)
+      throws IOException {
+
+    StringBuilder document = new StringBuilder();
+    String line;
+    while (null != (line = reader.readLine())) {
+      if (line.trim().isEmpty()) {
+        if (document.length() > 0) {
+          return document.toString();
+        }
+      } else {
+        document.append(line).append('\n');
+      }
+    }
+    if (document.length() == 0) {
+      return null;
+    }
+    return document.toString();
+  }
+
+
+  /**
+   * This main method reads documents from stdin and writes the tokenized documents to stdout. It
+   * takes the following arguments:
+   * <ul>
+   * <li>{@code --lang <language>}: the language of the documents
+   * <li>{@code --format <format>}: an optional output format, {@code tokens} (default),
+   * {@code conll}, {@code paragraphs} or {@code xml}
+   * <li>{@code --mode <mode>}: an optional document separator mode, {@code line} (default, empty
+   * lines are skipped), {@code nul} or {@code blank}
+   * <li>{@code --threads <threads>}: an optional number of worker threads (default is the number of
+   * available processors)
+   * <li>{@code --encoding <encoding>}: an optional encoding of stdin and stdout (default is UTF-8)
+   * </ul>
+   *
+   * @param args
+   *          the arguments
+   */
+  public static void main(String[] args) {
+
+    String lang = null;
+    OutputFormat format = OutputFormat.TOKENS;
+    Mode mode = Mode.LINE;
+    int threads = Runtime.getRuntime().availableProcessors();
+    Charset encoding = StandardCharsets.UTF_8;
+
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--lang":
+            lang = args[++i];
+            break;
+          case "--format":
+            format = OutputFormat.forName(args[++i]);
+            break;
+          case "--mode":
+            mode = Mode.valueOf(args[++i].toUpperCase(Locale.ROOT));
+            break;
+          case "--threads":
+            threads = Integer.parseInt(args[++i]);
+            break;
+          case "--encoding":
+            encoding = Charset.forName(args[++i]);
+            break;
+          default:
+            lang = null;
+            i = args.length;
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+      lang = null;
+    }
+
+    // check for correct arguments
+    if ((null == lang) || (threads < 1)) {
+      System.err.format(
+          "This method needs the following arguments:%n"
+              + "- --lang <language>: the language of the documents%n"
+              + "- --format <format>: an optional output format, tokens (default), conll,"
+              + " paragraphs or xml%n"
+              + "- --mode <mode>: an optional document separator mode, line (default), nul"
+              + " or blank%n"
+              + "- --threads <threads>: an optional number of worker threads (default is the"
+              + " number of processors)%n"
+              + "- --encoding <encoding>: an optional encoding of stdin and stdout"
+              + " (default is UTF-8)%n");
+      System.exit(1);
+    }
+
+    try {
+      PipeTokenizer pipeTokenizer =
+          new PipeTokenizer(new JTok(), lang, format, mode, threads, threads * 4);
+      int failed = pipeTokenizer.tokenize(
+          new InputStreamReader(System.in, encoding),
+          new OutputStreamWriter(System.out, encoding));
+      if (failed > 0) {
+        System.exit(1);
+      }
+    } catch (IOException e) {
+      logger.error(e.getLocalizedMessage(), e);
+      System.exit(1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      logger.error(e.getLocalizedMessage(), e);
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import de.dfki.lt.tools.tokenizer.exceptions.InitializationException;
+
+/**
+ * Expands references of the form {@code <name>} in regular expression strings. Each reference is
+ * replaced by the expanded regular expression of the referenced name, enclosed in parentheses.
+ * Expansion is done in a single pass over the regular expression string. Expanded regular
+ * expressions are memoized, so each one is expanded only once, and cyclic references are detected.
+ * Instances are not thread-safe.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+class ReferenceExpander {
+
+  // maps names to their regular expression strings with unexpanded references
+  private Map<String, String> rawMap;
+
+  // maps names to their expanded regular expression strings
+  private Map<String, String> expandedMap;
+
+  // the names currently being expanded, in expansion order
+  private Set<String> inProgress;
+
+
+  /**
+   * Creates a new instance of {@link ReferenceExpander}.
+   *
+   * @param rawMap
+   *          a map of names to regular expression strings with unexpanded references
+   * @param expandedMap
+   *          a map of names to expanded regular expression strings; used for names not in the raw
+   *          map and extended with each expanded name
+   */
+  ReferenceExpander(Map<String, String> rawMap, Map<String, String> expandedMap) {
+
+    this.rawMap = rawMap;
+    this.expandedMap = expandedMap;
+    this.inProgress = new LinkedHashSet<>();
+  }
+
+
+  /**
+   * Returns the expanded regular expression string of the given name.
+   *
+   * @param name
+   *          the name
+   * @return the expanded regular expression string or {@code null} if the name is unknown
+   * @exception InitializationException
+   *              if the name references itself, directly or indirectly, or if an unknown reference
+   *              is found
+   */
+  String get(String name) {
+
+    String result = this.expandedMap.get(name);
+    if (null != result) {
+      return result;
+    }
+    String raw = this.rawMap.get(name);
+    if (null == raw) {
+      return null;
+    }
+    if (!this.inProgress.add(name)) {
+      throw new InitializationException(
+          String.format("cyclic reference %s via %s", name, this.inProgress));
+    }
+    result = expand(raw, this::get);
+    this.inProgress.remove(name);
+    this.expandedMap.put(name, result);
+    return result;
+  }
+
+
+  /**
+   * Replaces the references in the given regular expression string using the given lookup.
+   *
+   * @param regExpString
+   *          the regular expression string with possible references
+   * @param lookup
+   *          returns the expanded regular expression string of a reference name or {@code null}
+   *          if the name is unknown
+   * @return the expanded regular expression string
+   * @exception InitializationException
+   *              if an unknown reference is found
+   */
+  static String expand(String regExpString, Function<String, String> lookup) {
+
+    int refStart = regExpString.indexOf('<');
+    if (refStart == -1) {
+      return regExpString;
+    }
+
+    StringBuilder result = new StringBuilder(regExpString.length() * 2);
+    int copied = 0;
+    while (refStart != -1) {
+      int nameEnd = refStart + 1;
+      while (nameEnd < regExpString.length() && isNameChar(regExpString.charAt(nameEnd))) {
+        nameEnd++;
+      }
+      if (nameEnd == refStart + 1
+          || nameEnd == regExpString.length()
+          || regExpString.charAt(nameEnd) != '>') {
+        // no reference
+        refStart = regExpString.indexOf('<', refStart + 1);
+        continue;
+      }
+      String refName = regExpString.substring(refStart + 1, nameEnd);
+      String refRegExpr = lookup.apply(refName);
+      if (null == refRegExpr) {
+        throw new InitializationException(
+            String.format("unknown reference %s in regular expression %s", refName, regExpString));
+      }
+      result.append(regExpString, copied, refStart)
+          .append('(')
+          .append(refRegExpr)
+          .append(')');
+      copied = nameEnd + 1;
+      refStart = regExpString.indexOf('<', copied);
+    }
+    result.append(regExpString, copied, regExpString.length());
+    return result.toString();
+  }
+
+
+  /**
+   * Checks if the given character can be part of a reference name.
+   *
+   * @param c
+   *          the character
+   * @return a flag indicating if the character can be part of a reference name
+   */
+  private static boolean isNameChar(char c) {
+
+    return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_';
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package de.dfki.lt.tools.tokenizer;
+
+/**
+ * Finds the end of a token, i.e. the next whitespace, in a text by checking one character after
+ * the other via the lookup table of {@link CharTable}.<br>
+ * This class is thread-safe.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+final class ScalarCharScanner {
+
+  // would create a new instance of {@link ScalarCharScanner}; not to be used
+  private ScalarCharScanner() {
+
+    // private constructor to enforce noninstantiability
+  }
+
+
+  /**
+   * Returns the index of the first whitespace in the given range of the given text, as defined by
+   * {@link CharTable#isWhitespaceChar(char)}.
+   *
+   * @param text
+   *          the text
+   * @param from
+   *          the start index of the range
+   * @param end
+   *          the end index of the range, exclusive
+   * @return the index of the first whitespace or {@code end} if the range contains no whitespace
+   */
+  static int findWhitespace(CharSequence text, int from, int end) {
+
+    for (int i = from; i < end; i++) {
+      if (CharTable.isWhitespaceChar(text.charAt(i))) {
+        return i;
+      }
+    }
+    return end;
+  }
+}
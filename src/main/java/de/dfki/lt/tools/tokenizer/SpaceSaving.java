@@ -0,0 +1,259 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving summary that keeps the most frequent strings of a stream in fixed memory. At most
+ * {@code capacity} strings are monitored. When a new string arrives and the summary is full, the
+ * string with the lowest count is replaced and the new string inherits its count as overestimation
+ * error. Every string with a true count above {@code N / capacity} is guaranteed to be monitored,
+ * where {@code N} is the total of all counts. Instances are not thread-safe.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+class SpaceSaving {
+
+  // the maximum number of monitored strings
+  private int capacity;
+
+  // maps the monitored strings to their counters
+  private Map<String, Counter> countersMap;
+
+  // the monitored counters ordered by count
+  private TreeSet<Counter> counters;
+
+  // sequence number for ordering counters with the same count
+  private long sequence;
+
+
+  /**
+   * Creates a new instance of {@link SpaceSaving}.
+   *
+   * @param capacity
+   *          the maximum number of monitored strings
+   */
+  SpaceSaving(int capacity) {
+
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    this.capacity = capacity;
+    this.countersMap = new HashMap<>();
+    this.counters = new TreeSet<>();
+    this.sequence = 0;
+  }
+
+
+  /**
+   * Adds the given count to the given string.
+   *
+   * @param string
+   *          the string
+   * @param count
+   *          the count to add
+   */
+  void add(String string, long count) {
+
+    Counter counter = this.countersMap.get(string);
+    if (null != counter) {
+      this.counters.remove(counter);
+      counter.count += count;
+    } else if (this.countersMap.size() < this.capacity) {
+      counter = new Counter(string, count, 0);
+      this.countersMap.put(string, counter);
+    } else {
+      // replace the counter with the lowest count
+      Counter min = this.counters.pollFirst();
+      this.countersMap.remove(min.string);
+      counter = new Counter(string, min.count + count, min.count);
+      this.countersMap.put(string, counter);
+    }
+    counter.order = this.sequence++;
+    this.counters.add(counter);
+  }
+
+
+  /**
+   * Adds all counts of the given summary to this summary. A string not monitored by one of the
+   * summaries may have occurred up to the lowest count of that summary, so this count is added to
+   * its count and error. Of the merged counters, the ones with the highest counts are kept.
+   *
+   * @param other
+   *          the other summary
+   */
+  void merge(SpaceSaving other) {
+
+    long thisMin = this.getMinCount();
+    long otherMin = other.getMinCount();
+    Map<String, Counter> mergedMap = new HashMap<>();
+    for (Counter oneCounter : this.counters) {
+      mergedMap.put(oneCounter.string, new Counter(
+          oneCounter.string, oneCounter.count + otherMin, oneCounter.error + otherMin));
+    }
+    for (Counter oneCounter : other.counters) {
+      Counter merged = mergedMap.get(oneCounter.string);
+      if (null != merged) {
+        merged.count += oneCounter.count - otherMin;
+        merged.error += oneCounter.error - otherMin;
+      } else {
+        mergedMap.put(oneCounter.string, new Counter(
+            oneCounter.string, oneCounter.count + thisMin, oneCounter.error + thisMin));
+      }
+    }
+
+    TreeSet<Counter> merged = new TreeSet<>();
+    for (Counter oneCounter : mergedMap.values()) {
+      oneCounter.order = this.sequence++;
+      merged.add(oneCounter);
+      if (merged.size() > this.capacity) {
+        merged.pollFirst();
+      }
+    }
+    this.counters = merged;
+    this.countersMap.clear();
+    for (Counter oneCounter : merged) {
+      this.countersMap.put(oneCounter.string, oneCounter);
+    }
+  }
+
+
+  /**
+   * Returns the count a string not monitored by this summary may have at most.
+   *
+   * @return the lowest count if this summary is full, 0 otherwise
+   */
+  private long getMinCount() {
+
+    if (this.countersMap.size() < this.capacity) {
+      return 0;
+    }
+    return this.counters.first().count;
+  }
+
+
+  /**
+   * Returns the monitored strings with a guaranteed count of at least the given minimum, ordered
+   * by descending count.
+   *
+   * @param minCount
+   *          the minimum count
+   * @return a list of counters
+   */
+  List<Counter> getTop(long minCount) {
+
+    List<Counter> result = new ArrayList<>();
+    for (Counter oneCounter : this.counters.descendingSet()) {
+      if (oneCounter.count < minCount) {
+        break;
+      }
+      if (oneCounter.count - oneCounter.error >= minCount) {
+        result.add(oneCounter);
+      }
+    }
+    return result;
+  }
+
+
+  /**
+   * Counter of a monitored string.
+   */
+  static final class Counter implements Comparable<Counter> {
+
+    // the string
+    private String string;
+
+    // the estimated count, never lower than the true count
+    private long count;
+
+    // the maximum overestimation of the count
+    private long error;
+
+    // the sequence number of the last update
+    private long order;
+
+
+    /**
+     * Creates a new instance of {@link Counter}.
+     *
+     * @param string
+     *          the string
+     * @param count
+     *          the estimated count
+     * @param error
+     *          the maximum overestimation of the count
+     */
+    Counter(String string, long count, long error) {
+
+      this.string = string;
+      this.count = count;
+      this.error = error;
+    }
+
+
+    /**
+     * @return the string
+     */
+    String getString() {
+
+      return this.string;
+    }
+
+
+    /**
+     * @return the estimated count, never lower than the true count
+     */
+    long getCount() {
+
+      return this.count;
+    }
+
+
+    /**
+     * @return the maximum overestimation of the count
+     */
+    long getError() {
+
+      return this.error;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compareTo(Counter other) {
+
+      int result = Long.compare(this.count, other.count);
+      if (result == 0) {
+        result = Long.compare(this.order, other.order);
+      }
+      return result;
+    }
+  }
+}
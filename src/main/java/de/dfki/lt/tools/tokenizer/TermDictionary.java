@@ -0,0 +1,359 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable dictionary of terms with compact storage. All terms are stored once in a single char
+ * array and found via an open addressing hash table over their upper case form. Instead of storing
+ * case variants of a term, each term has flags that tell which variants are accepted at lookup:
+ * <ul>
+ * <li>{@link #ORIGINAL}: the term as given
+ * <li>{@link #UPPER_CASE}: the term completely in upper case letters
+ * <li>{@link #CAPITALIZED}: the term with its first letter in upper case
+ * </ul>
+ * Lookups work on a range of any {@link CharSequence}, so no substring has to be created. Instances
+ * are created with a {@link Builder} and can be shared between threads.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+final class TermDictionary {
+
+  /** Flag for accepting a term as given. */
+  static final int ORIGINAL = 1;
+
+  /** Flag for accepting a term completely in upper case letters. */
+  static final int UPPER_CASE = 2;
+
+  /** Flag for accepting a term with its first letter in upper case. */
+  static final int CAPITALIZED = 4;
+
+
+  // the characters of all terms
+  private char[] chars;
+
+  // the start of each term in the character array; has one more element for the end of the last
+  // term
+  private int[] offsets;
+
+  // the accepted variants of each term
+  private byte[] variants;
+
+  // hash table with the term index + 1 for each slot, 0 for empty slots; size is a power of 2
+  private int[] table;
+
+
+  /**
+   * Creates a new instance of {@link TermDictionary} for the given terms.
+   *
+   * @param terms
+   *          maps terms to the flags of their accepted variants
+   */
+  private TermDictionary(Map<String, Integer> terms) {
+
+    int totalLength = 0;
+    for (String oneTerm : terms.keySet()) {
+      totalLength += oneTerm.length();
+    }
+    this.chars = new char[totalLength];
+    this.offsets = new int[terms.size() + 1];
+    this.variants = new byte[terms.size()];
+    // load factor of at most 0.5
+    this.table = new int[Integer.highestOneBit(Math.max(terms.size(), 1)) << 2];
+
+    int index = 0;
+    int offset = 0;
+    for (Map.Entry<String, Integer> oneEntry : terms.entrySet()) {
+      String oneTerm = oneEntry.getKey();
+      oneTerm.getChars(0, oneTerm.length(), this.chars, offset);
+      this.offsets[index] = offset;
+      this.variants[index] = oneEntry.getValue().byteValue();
+      int slot = hash(oneTerm, 0, oneTerm.length()) & (this.table.length - 1);
+      while (this.table[slot] != 0) {
+        slot = (slot + 1) & (this.table.length - 1);
+      }
+      this.table[slot] = index + 1;
+      offset += oneTerm.length();
+      index++;
+    }
+    this.offsets[index] = offset;
+  }
+
+
+  /**
+   * @return the number of stored terms; case variants that could not be handled at lookup are
+   *         counted as terms of their own
+   */
+  int size() {
+
+    return this.variants.length;
+  }
+
+
+  /**
+   * Checks if the given text is in this dictionary.
+   *
+   * @param text
+   *          the text
+   * @return a flag indicating if the text is in this dictionary
+   */
+  boolean contains(CharSequence text) {
+
+    return this.contains(text, 0, text.length());
+  }
+
+
+  /**
+   * Checks if the given range of the given text is in this dictionary.
+   *
+   * @param text
+   *          the text
+   * @param start
+   *          the start index of the range
+   * @param end
+   *          the end index of the range, exclusive
+   * @return a flag indicating if the range is in this dictionary
+   */
+  boolean contains(CharSequence text, int start, int end) {
+
+    int length = end - start;
+    int slot = hash(text, start, end) & (this.table.length - 1);
+    int entry;
+    while ((entry = this.table[slot]) != 0) {
+      int termIndex = entry - 1;
+      int termStart = this.offsets[termIndex];
+      if ((this.offsets[termIndex + 1] - termStart == length)
+          && this.matches(termIndex, termStart, text, start, length)) {
+        return true;
+      }
+      slot = (slot + 1) & (this.table.length - 1);
+    }
+    return false;
+  }
+
+
+  /**
+   * Checks if the given range of the given text is one of the accepted variants of the term with
+   * the given index. Both must have the same length.
+   *
+   * @param termIndex
+   *          the term index
+   * @param termStart
+   *          the start of the term in the character array
+   * @param text
+   *          the text
+   * @param start
+   *          the start index of the range
+   * @param length
+   *          the length of the range
+   * @return a flag indicating if the range is an accepted variant of the term
+   */
+  private boolean matches(
+      int termIndex, int termStart, CharSequence text, int start, int length) {
+
+    int termVariants = this.variants[termIndex];
+    boolean original = (termVariants & ORIGINAL) != 0;
+    boolean upperCase = (termVariants & UPPER_CASE) != 0;
+    boolean capitalized = (termVariants & CAPITALIZED) != 0;
+    for (int i = 0; i < length; i++) {
+      char textChar = text.charAt(start + i);
+      char termChar = this.chars[termStart + i];
+      if (textChar != termChar) {
+        original = false;
+        // only the first letter of a capitalized term differs
+        if (i > 0) {
+          capitalized = false;
+        }
+      }
+      if (textChar != Character.toUpperCase(termChar)) {
+        upperCase = false;
+        if (i == 0) {
+          capitalized = false;
+        }
+      }
+      if (!original && !upperCase && !capitalized) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /**
+   * Computes the hash of the given range of the given text in upper case, so all case variants of a
+   * term have the same hash.
+   *
+   * @param text
+   *          the text
+   * @param start
+   *          the start index of the range
+   * @param end
+   *          the end index of the range, exclusive
+   * @return the hash
+   */
+  private static int hash(CharSequence text, int start, int end) {
+
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + Character.toUpperCase(text.charAt(i));
+    }
+    // spread the bits, as only the low bits are used for the slot
+    hash *= 0x9e3779b9;
+    return hash ^ (hash >>> 16);
+  }
+
+
+  /**
+   * Creates a dictionary that contains all terms of the given dictionaries.
+   *
+   * @param dictionaries
+   *          the dictionaries
+   * @return the union dictionary
+   */
+  static TermDictionary union(Collection<TermDictionary> dictionaries) {
+
+    Builder builder = new Builder();
+    for (TermDictionary oneDict : dictionaries) {
+      for (int i = 0; i < oneDict.variants.length; i++) {
+        int start = oneDict.offsets[i];
+        builder.addVariants(
+            new String(oneDict.chars, start, oneDict.offsets[i + 1] - start), oneDict.variants[i]);
+      }
+    }
+    return builder.build();
+  }
+
+
+  /**
+   * Builder for {@link TermDictionary}. Instances are not thread-safe.
+   */
+  static final class Builder {
+
+    // maps terms to the flags of their accepted variants
+    private Map<String, Integer> terms;
+
+
+    /**
+     * Creates a new instance of {@link Builder}.
+     */
+    Builder() {
+
+      this.terms = new LinkedHashMap<>();
+    }
+
+
+    /**
+     * Adds the given term with the given accepted variants.
+     *
+     * @param term
+     *          the term, must not be empty
+     * @param termVariants
+     *          a combination of {@link TermDictionary#ORIGINAL}, {@link TermDictionary#UPPER_CASE}
+     *          and {@link TermDictionary#CAPITALIZED}
+     * @return this builder
+     */
+    Builder add(String term, int termVariants) {
+
+      if (term.isEmpty()) {
+        throw new IllegalArgumentException("term must not be empty");
+      }
+      if ((termVariants & ORIGINAL) != 0) {
+        this.addVariants(term, ORIGINAL);
+      }
+      if ((termVariants & UPPER_CASE) != 0) {
+        this.addVariant(term, term.toUpperCase(), UPPER_CASE);
+      }
+      if ((termVariants & CAPITALIZED) != 0) {
+        this.addVariant(
+            term, Character.toUpperCase(term.charAt(0)) + term.substring(1), CAPITALIZED);
+      }
+      return this;
+    }
+
+
+    /**
+     * Adds the given variant of the given term. The variant is stored as a term of its own if it
+     * cannot be found at lookup via the given flag, e.g. if upper case conversion changes its
+     * length.
+     *
+     * @param term
+     *          the term
+     * @param variant
+     *          the variant
+     * @param flag
+     *          the flag of the variant
+     */
+    private void addVariant(String term, String variant, int flag) {
+
+      if (toUpperCase(variant).equals(toUpperCase(term))
+          && ((flag != UPPER_CASE) || variant.equals(toUpperCase(term)))) {
+        this.addVariants(term, flag);
+      } else {
+        this.addVariants(variant, ORIGINAL);
+      }
+    }
+
+
+    /**
+     * Adds the given flags to the accepted variants of the given term.
+     *
+     * @param term
+     *          the term
+     * @param termVariants
+     *          the flags
+     */
+    private void addVariants(String term, int termVariants) {
+
+      this.terms.merge(term, termVariants, (a, b) -> a | b);
+    }
+
+
+    /**
+     * Converts each character of the given string to upper case, as done at lookup.
+     *
+     * @param string
+     *          the string
+     * @return the upper case string, always of the same length
+     */
+    private static String toUpperCase(String string) {
+
+      char[] result = string.toCharArray();
+      for (int i = 0; i < result.length; i++) {
+        result[i] = Character.toUpperCase(result[i]);
+      }
+      return new String(result);
+    }
+
+
+    /**
+     * @return a new dictionary with all added terms
+     */
+    TermDictionary build() {
+
+      return new TermDictionary(this.terms);
+    }
+  }
+}
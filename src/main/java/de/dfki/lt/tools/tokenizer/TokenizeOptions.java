@@ -0,0 +1,178 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package de.dfki.lt.tools.tokenizer;
+
+/**
+ * Options of a single call of {@link JTok#tokenize(String, String, TokenizeOptions)} or
+ * {@link JTok#tokenizeToDocument(String, String, TokenizeOptions)}. They select the features to
+ * compute; the work for disabled features is skipped. By default, all features are enabled, which
+ * gives the same result as tokenizing without options.<br>
+ * Instances are not thread-safe and must not be modified while a tokenization uses them.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TokenizeOptions {
+
+  // flag indicating if tokens are assigned their exact token class
+  private boolean classifyTokens;
+
+  // flag indicating if abbreviations are identified
+  private boolean abbreviations;
+
+  // flag indicating if text unit and paragraph borders are identified
+  private boolean textUnits;
+
+  // flag indicating if the Penn Treebank forms of the tokens are provided
+  private boolean ptbForms;
+
+  // the token to check for cancellation, null if the tokenization can't be cancelled
+  private CancellationToken cancellation;
+
+
+  /**
+   * Creates a new instance of {@link TokenizeOptions} with all features enabled.
+   */
+  public TokenizeOptions() {
+
+    this.classifyTokens = true;
+    this.abbreviations = true;
+    this.textUnits = true;
+    this.ptbForms = true;
+  }
+
+
+  /**
+   * Sets if tokens are assigned their exact class from the token classes description, e.g.
+   * {@code ALL_LOWER_CASE} or {@code EMAIL}. If not, tokens matched by the token classes rule get
+   * the class {@link JTok#UNCLASSIFIED}. Token borders are the same in both cases, and
+   * punctuation, clitics and abbreviations are always classified, as they determine the token and
+   * text unit borders. If text units are identified and depend on the token classes, tokens are
+   * classified anyway.
+   *
+   * @param classifyTokens
+   *          the flag
+   */
+  public void setClassifyTokens(boolean classifyTokens) {
+
+    this.classifyTokens = classifyTokens;
+  }
+
+
+  /**
+   * @return a flag indicating if tokens are assigned their exact token class
+   */
+  public boolean isClassifyTokens() {
+
+    return this.classifyTokens;
+  }
+
+
+  /**
+   * Sets if abbreviations are identified. If not, the period of an abbreviation is a token of its
+   * own, which is then also taken as the end of a text unit.
+   *
+   * @param abbreviations
+   *          the flag
+   */
+  public void setAbbreviations(boolean abbreviations) {
+
+    this.abbreviations = abbreviations;
+  }
+
+
+  /**
+   * @return a flag indicating if abbreviations are identified
+   */
+  public boolean isAbbreviations() {
+
+    return this.abbreviations;
+  }
+
+
+  /**
+   * Sets if text unit and paragraph borders are identified. If not, the whole text is a single
+   * text unit in a single paragraph.
+   *
+   * @param textUnits
+   *          the flag
+   */
+  public void setTextUnits(boolean textUnits) {
+
+    this.textUnits = textUnits;
+  }
+
+
+  /**
+   * @return a flag indicating if text unit and paragraph borders are identified
+   */
+  public boolean isTextUnits() {
+
+    return this.textUnits;
+  }
+
+
+  /**
+   * Sets if the tokens of a {@link de.dfki.lt.tools.tokenizer.output.TokenizedDocument} provide
+   * their Penn Treebank forms. If not, they have none.
+   *
+   * @param ptbForms
+   *          the flag
+   */
+  public void setPtbForms(boolean ptbForms) {
+
+    this.ptbForms = ptbForms;
+  }
+
+
+  /**
+   * @return a flag indicating if the Penn Treebank forms of the tokens are provided
+   */
+  public boolean isPtbForms() {
+
+    return this.ptbForms;
+  }
+
+
+  /**
+   * Sets the token to check for cancellation. After cancellation has been requested, the
+   * tokenization stops with a {@link java.util.concurrent.CancellationException}.
+   *
+   * @param cancellation
+   *          the cancellation token or {@code null} if the tokenization can't be cancelled
+   */
+  public void setCancellation(CancellationToken cancellation) {
+
+    this.cancellation = cancellation;
+  }
+
+
+  /**
+   * @return the token to check for cancellation or {@code null} if the tokenization can't be
+   *         cancelled
+   */
+  public CancellationToken getCancellation() {
+
+    return this.cancellation;
+  }
+}
@@ -0,0 +1,294 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+
+import de.dfki.lt.tools.tokenizer.exceptions.ProcessingException;
+
+/**
+ * Reference client for {@link TokenizerDaemon}. Requests can be pipelined: use
+ * {@link #send(String, String, String)} several times, then {@link #flush()}, then
+ * {@link #receive()} once per request.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TokenizerClient implements Closeable {
+
+  // size of the connection buffers in bytes
+  private static final int BUFFER_SIZE = 1 << 16;
+
+
+  // the connection
+  private SocketChannel channel;
+
+  // the input stream of the connection
+  private DataInputStream in;
+
+  // the output stream of the connection
+  private DataOutputStream out;
+
+
+  /**
+   * Creates a new instance of {@link TokenizerClient} connected to the given address.
+   *
+   * @param address
+   *          the address of the daemon, a Unix domain socket address or an internet socket
+   *          address
+   * @throws IOException
+   *           if the connection fails
+   */
+  public TokenizerClient(SocketAddress address)
+      throws IOException {
+
+    this.channel = SocketChannel.open(address);
+    this.in = new DataInputStream(
+        new BufferedInputStream(Channels.newInputStream(this.channel), BUFFER_SIZE));
+    this.out = new DataOutputStream(
+        new BufferedOutputStream(Channels.newOutputStream(this.channel), BUFFER_SIZE));
+  }
+
+
+  /**
+   * Tokenizes the given text and waits for the result.
+   *
+   * @param lang
+   *          the language of the text
+   * @param format
+   *          the name of the output format
+   * @param text
+   *          the text to tokenize
+   * @return the tokenized text in the given format
+   * @throws IOException
+   *           if there is an error when communicating with the daemon
+   * @exception ProcessingException
+   *              if the daemon reports an error
+   */
+  public String tokenize(String lang, String format, String text)
+      throws IOException {
+
+    this.send(lang, format, text);
+    this.flush();
+    return this.receive();
+  }
+
+
+  /**
+   * Sends a request to tokenize the given text. The request is buffered until {@link #flush()} is
+   * called.
+   *
+   * @param lang
+   *          the language of the text
+   * @param format
+   *          the name of the output format
+   * @param text
+   *          the text to tokenize
+   * @throws IOException
+   *           if there is an error when sending the request
+   */
+  public void send(String lang, String format, String text)
+      throws IOException {
+
+    byte[] langBytes = lang.getBytes(StandardCharsets.UTF_8);
+    byte[] formatBytes = format.getBytes(StandardCharsets.UTF_8);
+    byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+    if ((langBytes.length > 255) || (formatBytes.length > 255)) {
+      throw new IllegalArgumentException("language or format name too long");
+    }
+    this.out.writeInt(2 + langBytes.length + formatBytes.length + textBytes.length);
+    this.out.writeByte(langBytes.length);
+    this.out.write(langBytes);
+    this.out.writeByte(formatBytes.length);
+    this.out.write(formatBytes);
+    this.out.write(textBytes);
+  }
+
+
+  /**
+   * Sends all buffered requests.
+   *
+   * @throws IOException
+   *           if there is an error when sending the requests
+   */
+  public void flush()
+      throws IOException {
+
+    this.out.flush();
+  }
+
+
+  /**
+   * Waits for the response to the oldest request not yet received.
+   *
+   * @return the tokenized text
+   * @throws IOException
+   *           if there is an error when receiving the response
+   * @exception ProcessingException
+   *              if the daemon reports an error
+   */
+  public String receive()
+      throws IOException {
+
+    int length = this.in.readInt();
+    if ((length < 1) || (length > TokenizerDaemon.MAX_FRAME_LENGTH)) {
+      throw new IOException(String.format("invalid frame length %d", length));
+    }
+    byte status = this.in.readByte();
+    byte[] payload = new byte[length - 1];
+    this.in.readFully(payload);
+    String result = new String(payload, StandardCharsets.UTF_8);
+    if (status != TokenizerDaemon.STATUS_OK) {
+      throw new ProcessingException(result);
+    }
+    return result;
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close()
+      throws IOException {
+
+    this.channel.close();
+  }
+
+
+  /**
+   * This main method measures the round-trip latency of a running daemon. It takes the following
+   * arguments:
+   * <ul>
+   * <li>{@code --socket <path>} or {@code --port <port>}: the Unix domain socket or TCP port of the
+   * daemon
+   * <li>{@code --lang <language>}: the language of the document
+   * <li>{@code --requests <number>}: an optional number of requests (default is 1000)
+   * <li>{@code --pipeline <depth>}: an optional number of requests sent before waiting for the
+   * responses (default is 1)
+   * <li>a file name for the document to tokenize
+   * </ul>
+   *
+   * @param args
+   *          the arguments
+   */
+  public static void main(String[] args) {
+
+    SocketAddress address = null;
+    String lang = null;
+    int requests = 1000;
+    int pipeline = 1;
+    String fileName = null;
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--socket":
+            address = TokenizerDaemon.createUnixSocketAddress(Paths.get(args[++i]));
+            break;
+          case "--port":
+            address = new InetSocketAddress(
+                InetAddress.getLoopbackAddress(), Integer.parseInt(args[++i]));
+            break;
+          case "--lang":
+            lang = args[++i];
+            break;
+          case "--requests":
+            requests = Integer.parseInt(args[++i]);
+            break;
+          case "--pipeline":
+            pipeline = Integer.parseInt(args[++i]);
+            break;
+          default:
+            fileName = args[i];
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+      address = null;
+    }
+
+    // check for correct arguments
+    if ((null == address) || (null == lang) || (null == fileName)
+        || (requests < 1) || (pipeline < 1)) {
+      System.out.format(
+          "This method needs the following arguments:%n"
+              + "- --socket <path> or --port <port>: the Unix domain socket or TCP port"
+              + " of the daemon%n"
+              + "- --lang <language>: the language of the document%n"
+              + "- --requests <number>: an optional number of requests (default is 1000)%n"
+              + "- --pipeline <depth>: an optional pipeline depth (default is 1)%n"
+              + "- a file name for the document to tokenize%n");
+      System.exit(1);
+    }
+
+    try (TokenizerClient client = new TokenizerClient(address)) {
+      String text = FileTools.readFileAsString(new File(fileName), "UTF-8");
+      // warm up
+      for (int i = 0; i < Math.min(requests, 100); i++) {
+        client.tokenize(lang, "tokens", text);
+      }
+
+      long[] latencies = new long[requests];
+      long startTime = System.nanoTime();
+      int done = 0;
+      while (done < requests) {
+        int batch = Math.min(pipeline, requests - done);
+        long batchStart = System.nanoTime();
+        for (int i = 0; i < batch; i++) {
+          client.send(lang, "tokens", text);
+        }
+        client.flush();
+        for (int i = 0; i < batch; i++) {
+          client.receive();
+          latencies[done + i] = System.nanoTime() - batchStart;
+        }
+        done += batch;
+      }
+      double seconds = (System.nanoTime() - startTime) / 1e9;
+
+      Arrays.sort(latencies);
+      System.out.format(Locale.ROOT,
+          "%d requests in %.2f s: %.0f requests/s%n"
+              + "latency in microseconds: p50 %.1f, p90 %.1f, p99 %.1f, max %.1f%n",
+          requests, seconds, requests / seconds,
+          latencies[requests / 2] / 1e3, latencies[requests * 9 / 10] / 1e3,
+          latencies[requests * 99 / 100] / 1e3, latencies[requests - 1] / 1e3);
+    } catch (IOException e) {
+      e.printStackTrace();
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,416 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.dfki.lt.tools.tokenizer.output.OutputFormat;
+
+/**
+ * Long-running tokenization daemon for local clients. It listens on a Unix domain socket if the JVM
+ * supports them (Java 16 and later), otherwise on a TCP port of the loopback interface. JTok is
+ * loaded once and shared by all connections.
+ * <p>
+ * The protocol is a sequence of length-prefixed binary frames. All integers are big-endian, all
+ * strings UTF-8. A request frame consists of
+ * <ul>
+ * <li>a 4-byte length of the rest of the frame
+ * <li>a 1-byte length of the language, followed by the language
+ * <li>a 1-byte length of the {@link OutputFormat} name, followed by the name
+ * <li>the text to tokenize, up to the end of the frame
+ * </ul>
+ * A response frame consists of
+ * <ul>
+ * <li>a 4-byte length of the rest of the frame
+ * <li>a 1-byte status, {@link #STATUS_OK} or {@link #STATUS_ERROR}
+ * <li>the tokenized text in the requested format or an error message, up to the end of the frame
+ * </ul>
+ * Clients may pipeline requests: several requests can be sent over one connection without waiting
+ * for the responses, which are returned in request order. See {@link TokenizerClient} for a
+ * reference client.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TokenizerDaemon {
+
+  /** response status for successful tokenization */
+  public static final byte STATUS_OK = 0;
+
+  /** response status for failed requests */
+  public static final byte STATUS_ERROR = 1;
+
+  /** the maximum length of a frame */
+  public static final int MAX_FRAME_LENGTH = 256 * 1024 * 1024;
+
+  // the logger
+  private static final Logger logger = LoggerFactory.getLogger(TokenizerDaemon.class);
+
+  // size of the connection buffers in bytes
+  private static final int BUFFER_SIZE = 1 << 16;
+
+
+  // the tokenizer
+  private JTok jtok;
+
+  // the server channel
+  private ServerSocketChannel serverChannel;
+
+  // the path of the Unix domain socket, {@code null} for TCP
+  private Path socketPath;
+
+  // the executor handling the connections
+  private ExecutorService executor;
+
+  // the thread accepting connections
+  private Thread acceptThread;
+
+
+  /**
+   * Creates a new instance of {@link TokenizerDaemon} listening on the given server channel. Use
+   * {@link #start()} to start it.
+   *
+   * @param jtok
+   *          the tokenizer to use
+   * @param serverChannel
+   *          the bound server channel
+   * @param socketPath
+   *          the path of the Unix domain socket, deleted when the daemon is stopped; {@code null}
+   *          for TCP
+   */
+  public TokenizerDaemon(JTok jtok, ServerSocketChannel serverChannel, Path socketPath) {
+
+    this.jtok = jtok;
+    this.serverChannel = serverChannel;
+    this.socketPath = socketPath;
+    this.executor = TokenizerServer.createExecutor();
+  }
+
+
+  /**
+   * Opens a server channel bound to a Unix domain socket at the given path. Unix domain sockets
+   * are only available in Java 16 and later, so they are created via reflection.
+   *
+   * @param socketPath
+   *          the path of the socket; an existing file at this path is replaced
+   * @return the bound server channel
+   * @throws IOException
+   *           if the channel can't be opened or bound
+   * @exception UnsupportedOperationException
+   *              if the JVM doesn't support Unix domain sockets
+   */
+  public static ServerSocketChannel openUnixSocket(Path socketPath)
+      throws IOException {
+
+    SocketAddress address = createUnixSocketAddress(socketPath);
+    ServerSocketChannel channel;
+    try {
+      ProtocolFamily unix = StandardProtocolFamily.valueOf("UNIX");
+      channel = (ServerSocketChannel)ServerSocketChannel.class
+          .getMethod("open", ProtocolFamily.class).invoke(null, unix);
+    } catch (ReflectiveOperationException | IllegalArgumentException e) {
+      throw new UnsupportedOperationException("Unix domain sockets not supported", e);
+    }
+    Files.deleteIfExists(socketPath);
+    channel.bind(address);
+    return channel;
+  }
+
+
+  /**
+   * Opens a server channel bound to the given port of the loopback interface.
+   *
+   * @param port
+   *          the port; use 0 for an ephemeral port
+   * @return the bound server channel
+   * @throws IOException
+   *           if the channel can't be opened or bound
+   */
+  public static ServerSocketChannel openTcpSocket(int port)
+      throws IOException {
+
+    ServerSocketChannel channel = ServerSocketChannel.open();
+    channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    return channel;
+  }
+
+
+  /**
+   * Creates the address of the Unix domain socket at the given path.
+   *
+   * @param socketPath
+   *          the path of the socket
+   * @return the socket address
+   * @exception UnsupportedOperationException
+   *              if the JVM doesn't support Unix domain sockets
+   */
+  static SocketAddress createUnixSocketAddress(Path socketPath) {
+
+    try {
+      return (SocketAddress)Class.forName("java.net.UnixDomainSocketAddress")
+          .getMethod("of", Path.class).invoke(null, socketPath);
+    } catch (ReflectiveOperationException e) {
+      throw new UnsupportedOperationException("Unix domain sockets not supported", e);
+    }
+  }
+
+
+  /**
+   * Starts accepting connections in a background thread.
+   */
+  public void start() {
+
+    this.acceptThread = new Thread(this::acceptConnections, "jtok-daemon-accept");
+    this.acceptThread.setDaemon(true);
+    this.acceptThread.start();
+    try {
+      logger.info(String.format(
+          "tokenizer daemon listening on %s", this.serverChannel.getLocalAddress()));
+    } catch (IOException e) {
+      logger.debug(e.getLocalizedMessage(), e);
+    }
+  }
+
+
+  /**
+   * Stops this daemon. Open connections are not closed, but no further connections are accepted.
+   *
+   * @throws IOException
+   *           if there is an error when closing the server channel
+   */
+  public void stop()
+      throws IOException {
+
+    this.serverChannel.close();
+    this.executor.shutdown();
+    if (null != this.socketPath) {
+      Files.deleteIfExists(this.socketPath);
+    }
+  }
+
+
+  /**
+   * @return the address this daemon is bound to
+   * @throws IOException
+   *           if the address can't be determined
+   */
+  public SocketAddress getLocalAddress()
+      throws IOException {
+
+    return this.serverChannel.getLocalAddress();
+  }
+
+
+  /**
+   * Accepts connections until the server channel is closed. Each connection is handled by the
+   * executor.
+   */
+  private void acceptConnections() {
+
+    while (this.serverChannel.isOpen()) {
+      try {
+        SocketChannel channel = this.serverChannel.accept();
+        this.executor.execute(() -> this.handleConnection(channel));
+      } catch (AsynchronousCloseException e) {
+        // daemon stopped
+        break;
+      } catch (IOException e) {
+        logger.error(String.format("could not accept connection: %s", e), e);
+      }
+    }
+  }
+
+
+  /**
+   * Handles all requests of the given connection in order until the client closes it. Responses
+   * are buffered and only flushed when there are no further pipelined requests in the input
+   * buffer.
+   *
+   * @param channel
+   *          the connection
+   */
+  private void handleConnection(SocketChannel channel) {
+
+    try (channel;
+        DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+        DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE))) {
+      while (true) {
+        int length;
+        try {
+          length = in.readInt();
+        } catch (EOFException e) {
+          // client closed connection
+          break;
+        }
+        if ((length < 2) || (length > MAX_FRAME_LENGTH)) {
+          throw new IOException(String.format("invalid frame length %d", length));
+        }
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+        this.handleRequest(frame, out);
+        if (in.available() == 0) {
+          out.flush();
+        }
+      }
+    } catch (IOException e) {
+      logger.error(String.format("connection failed: %s", e), e);
+    }
+  }
+
+
+  /**
+   * Handles a single request frame and writes the response frame.
+   *
+   * @param frame
+   *          the request frame without its length
+   * @param out
+   *          the output stream for the response
+   * @throws IOException
+   *           if there is an error when writing the response
+   */
+  private void handleRequest(byte[] frame, DataOutputStream out)
+      throws IOException {
+
+    byte status;
+    String payload;
+    try {
+      int pos = 0;
+      int langLength = frame[pos++] & 0xff;
+      String lang = new String(frame, pos, langLength, StandardCharsets.UTF_8);
+      pos += langLength;
+      int formatLength = frame[pos++] & 0xff;
+      OutputFormat format =
+          OutputFormat.forName(new String(frame, pos, formatLength, StandardCharsets.UTF_8));
+      pos += formatLength;
+      String text = new String(frame, pos, frame.length - pos, StandardCharsets.UTF_8);
+
+      StringWriter result = new StringWriter(text.length() * 2 + 16);
+      format.write(this.jtok.tokenize(text, lang), result);
+      status = STATUS_OK;
+      payload = result.toString();
+    } catch (RuntimeException e) {
+      status = STATUS_ERROR;
+      payload = e.toString();
+    }
+    byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(payloadBytes.length + 1);
+    out.writeByte(status);
+    out.write(payloadBytes);
+  }
+
+
+  /**
+   * This main method starts a tokenizer daemon. It takes the following arguments:
+   * <ul>
+   * <li>{@code --socket <path>}: an optional path of the Unix domain socket (default is
+   * {@code jtok.sock} in the temporary directory)
+   * <li>{@code --port <port>}: an optional TCP port on the loopback interface; if given, or if
+   * Unix domain sockets are not supported, TCP is used
+   * </ul>
+   *
+   * @param args
+   *          the arguments
+   */
+  public static void main(String[] args) {
+
+    Path socketPath = Paths.get(System.getProperty("java.io.tmpdir"), "jtok.sock");
+    int port = -1;
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--socket":
+            socketPath = Paths.get(args[++i]);
+            break;
+          case "--port":
+            port = Integer.parseInt(args[++i]);
+            break;
+          default:
+            throw new IllegalArgumentException(args[i]);
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+      System.out.format(
+          "This method takes the following arguments:%n"
+              + "- --socket <path>: an optional path of the Unix domain socket%n"
+              + "- --port <port>: an optional TCP port on the loopback interface%n");
+      System.exit(1);
+    }
+
+    try {
+      JTok jtok = new JTok();
+      ServerSocketChannel channel = null;
+      if (port < 0) {
+        try {
+          channel = openUnixSocket(socketPath);
+        } catch (UnsupportedOperationException e) {
+          logger.warn("Unix domain sockets not supported, using TCP port 8081");
+          port = 8081;
+        }
+      }
+      TokenizerDaemon daemon;
+      if (null != channel) {
+        daemon = new TokenizerDaemon(jtok, channel, socketPath);
+      } else {
+        daemon = new TokenizerDaemon(jtok, openTcpSocket(port), null);
+      }
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        try {
+          daemon.stop();
+        } catch (IOException e) {
+          logger.error(e.getLocalizedMessage(), e);
+        }
+      }));
+      daemon.start();
+      daemon.acceptThread.join();
+    } catch (IOException e) {
+      logger.error(e.getLocalizedMessage(), e);
+      System.exit(1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+/**
+ * Listener that is notified by {@link JTok} about each tokenized document. Instrumentation is
+ * disabled as long as no listener is set, see {@link JTok#setListener(TokenizerListener)}.
+ * Implementations must be thread-safe, as {@link JTok} may be used by several threads at once, and
+ * should return quickly, as they are called on the tokenizing thread.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+@FunctionalInterface
+public interface TokenizerListener {
+
+  /**
+   * Called after a document has been tokenized.
+   *
+   * @param stats
+   *          the timings and counters of the document; only valid during this call
+   */
+  void documentTokenized(TokenizerStats stats);
+}
@@ -0,0 +1,339 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+
+import de.dfki.lt.tools.tokenizer.TokenizerStats.Stage;
+
+/**
+ * Listener that aggregates the stats of all tokenized documents and exposes them via JMX. Usage:
+ *
+ * <pre>
+ * TokenizerMetrics metrics = new TokenizerMetrics();
+ * jtok.setListener(metrics);
+ * metrics.register(TokenizerMetrics.DEFAULT_NAME);
+ * </pre>
+ *
+ * This class is thread-safe.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TokenizerMetrics implements TokenizerListener, TokenizerMetricsMBean {
+
+  /** the default JMX object name */
+  public static final String DEFAULT_NAME = "de.dfki.lt.tools.tokenizer:type=JTok";
+
+
+  // the number of documents
+  private LongAdder documents;
+
+  // the number of characters
+  private LongAdder characters;
+
+  // the number of tokens
+  private LongAdder tokens;
+
+  // the number of text units
+  private LongAdder textUnits;
+
+  // the number of paragraphs
+  private LongAdder paragraphs;
+
+  // the number of regular expression invocations
+  private LongAdder regExpCalls;
+
+  // the number of abbreviations
+  private LongAdder abbrevHits;
+
+  // the total time in nanoseconds
+  private LongAdder totalNanos;
+
+  // the time in nanoseconds of each stage
+  private LongAdder[] stageNanos;
+
+
+  /**
+   * Creates a new instance of {@link TokenizerMetrics}.
+   */
+  public TokenizerMetrics() {
+
+    this.documents = new LongAdder();
+    this.characters = new LongAdder();
+    this.tokens = new LongAdder();
+    this.textUnits = new LongAdder();
+    this.paragraphs = new LongAdder();
+    this.regExpCalls = new LongAdder();
+    this.abbrevHits = new LongAdder();
+    this.totalNanos = new LongAdder();
+    this.stageNanos = new LongAdder[Stage.values().length];
+    for (int i = 0; i < this.stageNanos.length; i++) {
+      this.stageNanos[i] = new LongAdder();
+    }
+  }
+
+
+  /**
+   * Registers this instance at the platform MBean server under the given name.
+   *
+   * @param name
+   *          the JMX object name, e.g. {@link #DEFAULT_NAME}
+   * @return the object name
+   * @throws MalformedObjectNameException
+   *           if the name is not a valid JMX object name
+   * @throws InstanceAlreadyExistsException
+   *           if the name is already registered
+   * @throws MBeanRegistrationException
+   *           if registration fails
+   * @throws NotCompliantMBeanException
+   *           if this is not a compliant MBean
+   */
+  public ObjectName register(String name)
+      throws MalformedObjectNameException, InstanceAlreadyExistsException,
+      MBeanRegistrationException, NotCompliantMBeanException {
+
+    ObjectName objectName = new ObjectName(name);
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+    return objectName;
+  }
+
+
+  /**
+   * Unregisters the MBean with the given name from the platform MBean server.
+   *
+   * @param objectName
+   *          the JMX object name as returned by {@link #register(String)}
+   * @throws InstanceNotFoundException
+   *           if the name is not registered
+   * @throws MBeanRegistrationException
+   *           if unregistration fails
+   */
+  public static void unregister(ObjectName objectName)
+      throws InstanceNotFoundException, MBeanRegistrationException {
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    server.unregisterMBean(objectName);
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void documentTokenized(TokenizerStats stats) {
+
+    this.documents.increment();
+    this.characters.add(stats.getCharacters());
+    this.tokens.add(stats.getTokens());
+    this.textUnits.add(stats.getTextUnits());
+    this.paragraphs.add(stats.getParagraphs());
+    this.regExpCalls.add(stats.getRegExpCalls());
+    this.abbrevHits.add(stats.getAbbrevHits());
+    this.totalNanos.add(stats.getTotalNanos());
+    for (Stage oneStage : Stage.values()) {
+      this.stageNanos[oneStage.ordinal()].add(stats.getStageNanos(oneStage));
+    }
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getDocuments() {
+
+    return this.documents.sum();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getCharacters() {
+
+    return this.characters.sum();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getTokens() {
+
+    return this.tokens.sum();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getTextUnits() {
+
+    return this.textUnits.sum();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getParagraphs() {
+
+    return this.paragraphs.sum();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getRegExpCalls() {
+
+    return this.regExpCalls.sum();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getAbbrevHits() {
+
+    return this.abbrevHits.sum();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getTotalNanos() {
+
+    return this.totalNanos.sum();
+  }
+
+
+  /**
+   * Returns the time spent in the given stage.
+   *
+   * @param stage
+   *          the stage
+   * @return the time in nanoseconds
+   */
+  public long getStageNanos(Stage stage) {
+
+    return this.stageNanos[stage.ordinal()].sum();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getTokensNanos() {
+
+    return this.getStageNanos(Stage.TOKENS);
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getPunctNanos() {
+
+    return this.getStageNanos(Stage.PUNCT);
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getCliticsNanos() {
+
+    return this.getStageNanos(Stage.CLITICS);
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getAbbrevNanos() {
+
+    return this.getStageNanos(Stage.ABBREV);
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getTusNanos() {
+
+    return this.getStageNanos(Stage.TUS);
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getOutputNanos() {
+
+    return this.getStageNanos(Stage.OUTPUT);
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void reset() {
+
+    this.documents.reset();
+    this.characters.reset();
+    this.tokens.reset();
+    this.textUnits.reset();
+    this.paragraphs.reset();
+    this.regExpCalls.reset();
+    this.abbrevHits.reset();
+    this.totalNanos.reset();
+    for (LongAdder oneAdder : this.stageNanos) {
+      oneAdder.reset();
+    }
+  }
+}
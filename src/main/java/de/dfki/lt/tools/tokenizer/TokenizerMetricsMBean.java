@@ -0,0 +1,120 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+/**
+ * JMX management interface of {@link TokenizerMetrics}.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public interface TokenizerMetricsMBean {
+
+  /**
+   * @return the number of tokenized documents
+   */
+  long getDocuments();
+
+
+  /**
+   * @return the number of tokenized characters
+   */
+  long getCharacters();
+
+
+  /**
+   * @return the number of tokens
+   */
+  long getTokens();
+
+
+  /**
+   * @return the number of text units
+   */
+  long getTextUnits();
+
+
+  /**
+   * @return the number of paragraphs
+   */
+  long getParagraphs();
+
+
+  /**
+   * @return the number of regular expression invocations
+   */
+  long getRegExpCalls();
+
+
+  /**
+   * @return the number of abbreviations
+   */
+  long getAbbrevHits();
+
+
+  /**
+   * @return the total tokenization time in nanoseconds
+   */
+  long getTotalNanos();
+
+
+  /**
+   * @return the time in nanoseconds spent splitting the texts at whitespaces
+   */
+  long getTokensNanos();
+
+
+  /**
+   * @return the time in nanoseconds spent identifying punctuation
+   */
+  long getPunctNanos();
+
+
+  /**
+   * @return the time in nanoseconds spent identifying clitics
+   */
+  long getCliticsNanos();
+
+
+  /**
+   * @return the time in nanoseconds spent identifying abbreviations
+   */
+  long getAbbrevNanos();
+
+
+  /**
+   * @return the time in nanoseconds spent identifying text units and paragraphs
+   */
+  long getTusNanos();
+
+
+  /**
+   * @return the time in nanoseconds spent creating output documents
+   */
+  long getOutputNanos();
+
+
+  /**
+   * Resets all counters to 0.
+   */
+  void reset();
+}
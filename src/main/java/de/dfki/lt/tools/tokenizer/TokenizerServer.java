@@ -0,0 +1,536 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import de.dfki.lt.tools.tokenizer.annotate.AnnotatedString;
+import de.dfki.lt.tools.tokenizer.output.OutputFormat;
+
+/**
+ * Local HTTP tokenization service based on the JDK's built-in HTTP server. JTok is loaded once and
+ * shared by all requests. Requests are handled on virtual threads if the JVM supports them,
+ * otherwise on a cached thread pool. The following endpoints are provided:
+ * <ul>
+ * <li>{@code POST /tokenize?lang=<language>&format=<format>&split=<mode>}: tokenizes the request
+ * body. The format is one of the {@link OutputFormat}s, default is {@code tokens}. Without
+ * {@code split}, the whole body is one document; if it can't be tokenized, the status is 500.
+ * Otherwise, the body is a batch of documents separated according to the given
+ * {@link PipeTokenizer.Mode}. The documents are tokenized in parallel and the results are streamed
+ * in the same order, separated like in {@link PipeTokenizer}; for each document that can't be
+ * tokenized, an empty result is sent. If the response can't be completed, the connection is closed
+ * without ending the chunked response, so clients notice the incomplete response.
+ * <li>{@code GET /metrics}: returns request, document and character counters as plain text.
+ * </ul>
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TokenizerServer {
+
+  // the logger
+  private static final Logger logger = LoggerFactory.getLogger(TokenizerServer.class);
+
+  // the default port
+  private static final int DEFAULT_PORT = 8080;
+
+  // size of the response buffer in characters; the response is streamed in chunks of this size
+  private static final int RESPONSE_BUFFER_SIZE = 1 << 14;
+
+  // the maximum number of documents of a batch in progress
+  private static final int BATCH_QUEUE_SIZE = 256;
+
+
+  // the tokenizer
+  private JTok jtok;
+
+  // the HTTP server
+  private HttpServer server;
+
+  // the executor handling the requests and tokenizing the documents of batches
+  private ExecutorService executor;
+
+  // the number of handled tokenization requests
+  private LongAdder requests;
+
+  // the number of tokenized documents
+  private LongAdder documents;
+
+  // the number of tokenized characters
+  private LongAdder characters;
+
+  // the number of failed requests and documents of batches
+  private LongAdder errors;
+
+  // the time spent tokenizing in nanoseconds
+  private LongAdder tokenizeNanos;
+
+  // the number of requests currently handled
+  private AtomicInteger activeRequests;
+
+
+  /**
+   * Creates a new instance of {@link TokenizerServer} bound to the given address. Use
+   * {@link #start()} to start it.
+   *
+   * @param jtok
+   *          the tokenizer to use
+   * @param address
+   *          the address to bind to; use port 0 for an ephemeral port
+   * @throws IOException
+   *           if the server can't be bound to the address
+   */
+  public TokenizerServer(JTok jtok, InetSocketAddress address)
+      throws IOException {
+
+    this.jtok = jtok;
+    this.requests = new LongAdder();
+    this.documents = new LongAdder();
+    this.characters = new LongAdder();
+    this.errors = new LongAdder();
+    this.tokenizeNanos = new LongAdder();
+    this.activeRequests = new AtomicInteger();
+
+    this.server = HttpServer.create(address, 0);
+    this.executor = createExecutor();
+    this.server.setExecutor(this.executor);
+    this.server.createContext("/tokenize", this::handleTokenize);
+    this.server.createContext("/metrics", this::handleMetrics);
+  }
+
+
+  /**
+   * Starts this server.
+   */
+  public void start() {
+
+    this.server.start();
+    logger.info(String.format("tokenizer server listening on %s", this.server.getAddress()));
+  }
+
+
+  /**
+   * Stops this server. Requests still in progress are given the given number of seconds to
+   * finish.
+   *
+   * @param delay
+   *          the maximum number of seconds to wait for requests to finish
+   */
+  public void stop(int delay) {
+
+    this.server.stop(delay);
+    this.executor.shutdown();
+  }
+
+
+  /**
+   * @return the port this server is bound to
+   */
+  public int getPort() {
+
+    return this.server.getAddress().getPort();
+  }
+
+
+  /**
+   * Creates an executor that runs each task in a new virtual thread. Virtual threads are only
+   * available in Java 21 and later, so the executor is created via reflection. If not available,
+   * a cached thread pool is used.
+   *
+   * @return the executor
+   */
+  static ExecutorService createExecutor() {
+
+    try {
+      return (ExecutorService)Executors.class
+          .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      logger.debug("virtual threads not available, using cached thread pool");
+      return Executors.newCachedThreadPool();
+    }
+  }
+
+
+  /**
+   * Handles a tokenization request.
+   *
+   * @param exchange
+   *          the HTTP exchange
+   * @throws IOException
+   *           if the streamed response of a batch can't be completed; the server then closes the
+   *           connection
+   */
+  private void handleTokenize(HttpExchange exchange)
+      throws IOException {
+
+    this.activeRequests.incrementAndGet();
+    this.requests.increment();
+    // flag indicating that the response is streamed
+    boolean streaming = false;
+    // flag indicating that the streamed response is aborted
+    boolean aborted = false;
+    try {
+      if (!"POST".equals(exchange.getRequestMethod())) {
+        exchange.getResponseHeaders().set("Allow", "POST");
+        this.sendError(exchange, 405, "only POST is supported");
+        return;
+      }
+      Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+      String lang = params.get("lang");
+      if (null == lang) {
+        this.sendError(exchange, 400, "missing parameter lang");
+        return;
+      }
+      OutputFormat format;
+      PipeTokenizer.Mode mode = null;
+      try {
+        format = OutputFormat.forName(params.getOrDefault("format", "tokens"));
+        if (params.containsKey("split")) {
+          mode = PipeTokenizer.Mode.valueOf(params.get("split").toUpperCase(Locale.ROOT));
+        }
+      } catch (IllegalArgumentException e) {
+        this.sendError(exchange, 400, "unsupported format or split mode");
+        return;
+      }
+      String contentType =
+          (format == OutputFormat.XML ? "application/xml" : "text/plain") + "; charset=utf-8";
+
+      if (null == mode) {
+        // tokenize before sending the headers, so a failure can be reported in the status
+        String result;
+        try {
+          result = this.tokenize(
+              FileTools.readInputStream(exchange.getRequestBody(), "UTF-8"), lang, format);
+        } catch (RuntimeException e) {
+          logger.error(String.format("could not tokenize document: %s", e), e);
+          this.sendError(exchange, 500, "could not tokenize document");
+          return;
+        }
+        this.send(exchange, 200, contentType, result);
+        return;
+      }
+
+      exchange.getResponseHeaders().set("Content-Type", contentType);
+      // response length 0 makes the server use chunked encoding, so the response is streamed
+      exchange.sendResponseHeaders(200, 0);
+      streaming = true;
+      this.tokenizeBatch(exchange, lang, format, mode);
+    } catch (IOException | RuntimeException e) {
+      this.errors.increment();
+      logger.error(String.format("could not handle request: %s", e), e);
+      if (streaming) {
+        // closing the exchange would end the chunked response as if it was complete;
+        // instead, the server closes the connection when the exception reaches it
+        aborted = true;
+        throw e;
+      }
+    } finally {
+      if (!aborted) {
+        exchange.close();
+      }
+      this.activeRequests.decrementAndGet();
+    }
+  }
+
+
+  /**
+   * Tokenizes the batch of documents in the request body of the given exchange and streams the
+   * results in input order. The documents are tokenized in parallel by the executor, with a bounded
+   * number of documents in progress. For each document that can't be tokenized, an empty result is
+   * written.
+   *
+   * @param exchange
+   *          the HTTP exchange
+   * @param lang
+   *          the language of the documents
+   * @param format
+   *          the output format
+   * @param mode
+   *          the document separator mode
+   * @throws IOException
+   *           if there is an error when reading the request or writing the response
+   */
+  private void tokenizeBatch(
+      HttpExchange exchange, String lang, OutputFormat format, PipeTokenizer.Mode mode)
+      throws IOException {
+
+    BufferedReader in = new BufferedReader(
+        new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+    // the response body is not closed here, as this would end the chunked response
+    Writer out = new BufferedWriter(
+        new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8),
+        RESPONSE_BUFFER_SIZE);
+    char separator = PipeTokenizer.getSeparator(mode);
+    Deque<Future<String>> results = new ArrayDeque<>();
+    try {
+      String document;
+      while (null != (document = PipeTokenizer.readDocument(in, mode))) {
+        String oneDocument = document;
+        results.add(this.executor.submit(() -> this.tokenize(oneDocument, lang, format)));
+        if (results.size() >= BATCH_QUEUE_SIZE) {
+          this.writeResult(results.remove(), separator, out);
+        }
+      }
+      while (!results.isEmpty()) {
+        this.writeResult(results.remove(), separator, out);
+      }
+      out.flush();
+    } finally {
+      // only documents of an aborted batch are left
+      for (Future<String> oneResult : results) {
+        oneResult.cancel(true);
+      }
+    }
+  }
+
+
+  /**
+   * Waits for the given result of a document and writes it, followed by the given separator, to
+   * the given writer. If the document could not be tokenized, only the separator is written.
+   *
+   * @param result
+   *          the result
+   * @param separator
+   *          the document separator
+   * @param out
+   *          the writer
+   * @throws IOException
+   *           if there is an error when writing or if interrupted while waiting
+   */
+  private void writeResult(Future<String> result, char separator, Writer out)
+      throws IOException {
+
+    try {
+      out.write(result.get());
+    } catch (ExecutionException e) {
+      this.errors.increment();
+      logger.error(String.format("could not tokenize document: %s", e.getCause()), e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while waiting for a document");
+    }
+    out.write(separator);
+  }
+
+
+  /**
+   * Tokenizes the given document and returns it in the given format.
+   *
+   * @param document
+   *          the document
+   * @param lang
+   *          the language of the document
+   * @param format
+   *          the output format
+   * @return the formatted result
+   * @throws IOException
+   *           if there is an error when formatting the result
+   */
+  private String tokenize(String document, String lang, OutputFormat format)
+      throws IOException {
+
+    long startTime = System.nanoTime();
+    AnnotatedString result = this.jtok.tokenize(document, lang);
+    this.tokenizeNanos.add(System.nanoTime() - startTime);
+    this.documents.increment();
+    this.characters.add(document.length());
+    StringWriter out = new StringWriter(document.length() * 2 + 16);
+    format.write(result, out);
+    return out.toString();
+  }
+
+
+  /**
+   * Handles a metrics request.
+   *
+   * @param exchange
+   *          the HTTP exchange
+   * @throws IOException
+   *           if there is an error when writing the response
+   */
+  private void handleMetrics(HttpExchange exchange)
+      throws IOException {
+
+    try {
+      String metrics = String.format(Locale.ROOT,
+          "jtok_requests_total %d%n"
+              + "jtok_requests_active %d%n"
+              + "jtok_errors_total %d%n"
+              + "jtok_documents_total %d%n"
+              + "jtok_characters_total %d%n"
+              + "jtok_tokenize_seconds_total %.6f%n",
+          this.requests.sum(), this.activeRequests.get(), this.errors.sum(),
+          this.documents.sum(), this.characters.sum(), this.tokenizeNanos.sum() / 1e9);
+      this.send(exchange, 200, "text/plain; charset=utf-8", metrics);
+    } finally {
+      exchange.close();
+    }
+  }
+
+
+  /**
+   * Sends the given error message with the given status code. The request body is consumed first,
+   * so the connection can be kept alive.
+   *
+   * @param exchange
+   *          the HTTP exchange
+   * @param status
+   *          the status code
+   * @param message
+   *          the error message
+   * @throws IOException
+   *           if there is an error when writing the response
+   */
+  private void sendError(HttpExchange exchange, int status, String message)
+      throws IOException {
+
+    this.errors.increment();
+    exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+    this.send(exchange, status, "text/plain; charset=utf-8", message + System.lineSeparator());
+  }
+
+
+  /**
+   * Sends the given text with the given status code and content type.
+   *
+   * @param exchange
+   *          the HTTP exchange
+   * @param status
+   *          the status code
+   * @param contentType
+   *          the content type
+   * @param text
+   *          the text
+   * @throws IOException
+   *           if there is an error when writing the response
+   */
+  private void send(HttpExchange exchange, int status, String contentType, String text)
+      throws IOException {
+
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", contentType);
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+
+  /**
+   * Parses the given raw query string into a map of parameter names to values.
+   *
+   * @param rawQuery
+   *          the raw query string, may be {@code null}
+   * @return a map of parameter names to decoded values
+   */
+  static Map<String, String> parseQuery(String rawQuery) {
+
+    Map<String, String> params = new HashMap<>();
+    if (null == rawQuery) {
+      return params;
+    }
+    for (String oneParam : rawQuery.split("&")) {
+      int eq = oneParam.indexOf('=');
+      if (eq > 0) {
+        params.put(
+            URLDecoder.decode(oneParam.substring(0, eq), StandardCharsets.UTF_8),
+            URLDecoder.decode(oneParam.substring(eq + 1), StandardCharsets.UTF_8));
+      }
+    }
+    return params;
+  }
+
+
+  /**
+   * This main method starts a tokenizer server. It takes the following arguments:
+   * <ul>
+   * <li>{@code --port <port>}: an optional port (default is 8080)
+   * <li>{@code --host <host>}: an optional host name or address to bind to (default is
+   * {@code localhost})
+   * </ul>
+   *
+   * @param args
+   *          the arguments
+   */
+  public static void main(String[] args) {
+
+    int port = DEFAULT_PORT;
+    String host = "localhost";
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--port":
+            port = Integer.parseInt(args[++i]);
+            break;
+          case "--host":
+            host = args[++i];
+            break;
+          default:
+            throw new IllegalArgumentException(args[i]);
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+      System.out.format(
+          "This method takes the following arguments:%n"
+              + "- --port <port>: an optional port (default is 8080)%n"
+              + "- --host <host>: an optional host to bind to (default is localhost)%n");
+      System.exit(1);
+    }
+
+    try {
+      TokenizerServer server = new TokenizerServer(new JTok(), new InetSocketAddress(host, port));
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+      server.start();
+    } catch (IOException e) {
+      logger.error(e.getLocalizedMessage(), e);
+      System.exit(1);
+    }
+  }
+}
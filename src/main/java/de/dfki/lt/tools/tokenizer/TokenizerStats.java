@@ -0,0 +1,364 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+
+import de.dfki.lt.tools.tokenizer.exceptions.BudgetExceededException;
+
+/**
+ * Timings and counters of tokenizing a single document. Only created by {@link JTok} if a
+ * {@link TokenizerListener}, a processing budget or a {@link CancellationToken} is set. Instances
+ * are not thread-safe.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TokenizerStats {
+
+  /**
+   * The stages of the tokenization.
+   */
+  public enum Stage {
+
+    /** splitting the text at whitespaces into tokens */
+    TOKENS,
+
+    /** identifying punctuation, without clitics */
+    PUNCT,
+
+    /** identifying clitics */
+    CLITICS,
+
+    /** identifying abbreviations */
+    ABBREV,
+
+    /** identifying text units and paragraphs */
+    TUS,
+
+    /** creating the output document */
+    OUTPUT
+  }
+
+
+  // the language of the document
+  private String language;
+
+  // the number of characters of the document
+  private int characters;
+
+  // the start time in nanoseconds
+  private long startNanos;
+
+  // the total time in nanoseconds
+  private long totalNanos;
+
+  // the time in nanoseconds of each stage
+  private long[] stageNanos;
+
+  // the number of tokens
+  private int tokens;
+
+  // the number of text units
+  private int textUnits;
+
+  // the number of paragraphs
+  private int paragraphs;
+
+  // the number of regular expression invocations
+  private long regExpCalls;
+
+  // the number of tokens found in abbreviation lists or matched by the abbreviation rule
+  private int abbrevHits;
+
+  // the maximum number of regular expression invocations, 0 if unlimited
+  private long maxRegExpCalls;
+
+  // the maximum time in nanoseconds, 0 if unlimited
+  private long maxNanos;
+
+  // the token to check for cancellation, null if the tokenization can't be cancelled
+  private CancellationToken cancellation;
+
+
+  /**
+   * Creates a new instance of {@link TokenizerStats} and starts the timer.
+   *
+   * @param language
+   *          the language of the document
+   * @param characters
+   *          the number of characters of the document
+   */
+  TokenizerStats(String language, int characters) {
+
+    this.language = language;
+    this.characters = characters;
+    this.stageNanos = new long[Stage.values().length];
+    this.startNanos = System.nanoTime();
+  }
+
+
+  /**
+   * Adds the time since the given start time to the given stage.
+   *
+   * @param stage
+   *          the stage
+   * @param stageStart
+   *          the start time of the stage in nanoseconds
+   * @return the current time in nanoseconds, the start of the next stage
+   */
+  long stageFinished(Stage stage, long stageStart) {
+
+    long now = System.nanoTime();
+    this.stageNanos[stage.ordinal()] += now - stageStart;
+    return now;
+  }
+
+
+  /**
+   * Moves the given time from the punctuation stage to the clitics stage, as clitics are
+   * identified during the punctuation stage.
+   *
+   * @param nanos
+   *          the time in nanoseconds
+   */
+  void addCliticsNanos(long nanos) {
+
+    this.stageNanos[Stage.CLITICS.ordinal()] += nanos;
+    this.stageNanos[Stage.PUNCT.ordinal()] -= nanos;
+  }
+
+
+  /**
+   * Stops the timer.
+   */
+  void finish() {
+
+    this.totalNanos = System.nanoTime() - this.startNanos;
+  }
+
+
+  /**
+   * Sets the processing budget of the document. It is checked on each regular expression
+   * invocation.
+   *
+   * @param maxRegExpCalls
+   *          the maximum number of regular expression invocations, 0 if unlimited
+   * @param maxNanos
+   *          the maximum time in nanoseconds since the creation of the stats, 0 if unlimited
+   */
+  void setBudget(long maxRegExpCalls, long maxNanos) {
+
+    this.maxRegExpCalls = maxRegExpCalls;
+    this.maxNanos = maxNanos;
+  }
+
+
+  /**
+   * Sets the token to check for cancellation on each regular expression invocation and on each
+   * call of {@link #checkCancelled()}.
+   *
+   * @param cancellation
+   *          the cancellation token or {@code null} if the tokenization can't be cancelled
+   */
+  void setCancellation(CancellationToken cancellation) {
+
+    this.cancellation = cancellation;
+  }
+
+
+  /**
+   * Checks if cancellation of the tokenization has been requested.
+   *
+   * @exception CancellationException
+   *              if cancellation has been requested
+   */
+  void checkCancelled() {
+
+    if (null != this.cancellation && this.cancellation.isCancelled()) {
+      throw new CancellationException(String.format(
+          "tokenizing %s document with %d chars cancelled after %d regexp calls",
+          this.language, this.characters, this.regExpCalls));
+    }
+  }
+
+
+  /**
+   * Counts one regular expression invocation.
+   *
+   * @exception BudgetExceededException
+   *              if this exceeds the processing budget
+   * @exception CancellationException
+   *              if cancellation has been requested
+   */
+  void countRegExpCall() {
+
+    this.regExpCalls++;
+    this.checkCancelled();
+    if (this.maxRegExpCalls > 0 && this.regExpCalls > this.maxRegExpCalls) {
+      throw new BudgetExceededException(String.format(
+          "%s document with %d chars exceeds budget of %d regexp calls",
+          this.language, this.characters, this.maxRegExpCalls));
+    }
+    if (this.maxNanos > 0) {
+      long elapsed = System.nanoTime() - this.startNanos;
+      if (elapsed > this.maxNanos) {
+        throw new BudgetExceededException(String.format(
+            "%s document with %d chars exceeds time budget of %d ns after %d regexp calls",
+            this.language, this.characters, this.maxNanos, this.regExpCalls));
+      }
+    }
+  }
+
+
+  /**
+   * Counts one abbreviation.
+   */
+  void countAbbrevHit() {
+
+    this.abbrevHits++;
+  }
+
+
+  /**
+   * Sets the numbers of tokens, text units and paragraphs.
+   *
+   * @param tokenCount
+   *          the number of tokens
+   * @param textUnitCount
+   *          the number of text units
+   * @param paragraphCount
+   *          the number of paragraphs
+   */
+  void setUnitCounts(int tokenCount, int textUnitCount, int paragraphCount) {
+
+    this.tokens = tokenCount;
+    this.textUnits = textUnitCount;
+    this.paragraphs = paragraphCount;
+  }
+
+
+  /**
+   * @return the language of the document
+   */
+  public String getLanguage() {
+
+    return this.language;
+  }
+
+
+  /**
+   * @return the number of characters of the document
+   */
+  public int getCharacters() {
+
+    return this.characters;
+  }
+
+
+  /**
+   * @return the total time in nanoseconds, including instrumentation overhead
+   */
+  public long getTotalNanos() {
+
+    return this.totalNanos;
+  }
+
+
+  /**
+   * Returns the time spent in the given stage.
+   *
+   * @param stage
+   *          the stage
+   * @return the time in nanoseconds
+   */
+  public long getStageNanos(Stage stage) {
+
+    return this.stageNanos[stage.ordinal()];
+  }
+
+
+  /**
+   * @return the number of tokens
+   */
+  public int getTokens() {
+
+    return this.tokens;
+  }
+
+
+  /**
+   * @return the number of text units
+   */
+  public int getTextUnits() {
+
+    return this.textUnits;
+  }
+
+
+  /**
+   * @return the number of paragraphs
+   */
+  public int getParagraphs() {
+
+    return this.paragraphs;
+  }
+
+
+  /**
+   * @return the number of regular expression invocations
+   */
+  public long getRegExpCalls() {
+
+    return this.regExpCalls;
+  }
+
+
+  /**
+   * @return the number of tokens found in abbreviation lists or matched by the abbreviation rule
+   */
+  public int getAbbrevHits() {
+
+    return this.abbrevHits;
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+
+    StringBuilder result = new StringBuilder();
+    result.append(String.format(Locale.ROOT,
+        "%s: %d chars, %d tokens, %d text units, %d paragraphs, %d regexp calls, %d abbrevs,"
+            + " %d ns",
+        this.language, this.characters, this.tokens, this.textUnits, this.paragraphs,
+        this.regExpCalls, this.abbrevHits, this.totalNanos));
+    for (Stage oneStage : Stage.values()) {
+      result.append(String.format(Locale.ROOT, ", %s %d ns",
+          oneStage.name().toLowerCase(Locale.ROOT), this.stageNanos[oneStage.ordinal()]));
+    }
+    return result.toString();
+  }
+}
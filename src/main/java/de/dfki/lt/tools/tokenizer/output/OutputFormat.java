@@ -0,0 +1,178 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer.output;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+import de.dfki.lt.tools.tokenizer.annotate.AnnotatedString;
+
+/**
+ * Output formats for writing an {@link AnnotatedString} as created by the tokenizer.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public enum OutputFormat {
+
+  /** pretty-printed {@link Paragraph}s, {@link TextUnit}s and {@link Token}s */
+  PARAGRAPHS("txt") {
+
+    @Override
+    public void write(AnnotatedString input, Writer out)
+        throws IOException {
+
+      String newline = System.lineSeparator();
+      for (Paragraph onePara : Outputter.createParagraphs(input)) {
+        out.write(onePara.toString());
+        out.write(newline);
+      }
+    }
+  },
+
+  /** XML as created by {@link XmlOutputter} */
+  XML("xml") {
+
+    @Override
+    public void write(AnnotatedString input, Writer out)
+        throws IOException {
+
+      out.write(XmlOutputter.createXmlString(input));
+    }
+  },
+
+  /**
+   * one token per line with its index in the text unit, image, class, start and end index,
+   * separated by tabs; each text unit is followed by an empty line
+   */
+  CONLL("conll") {
+
+    @Override
+    public void write(AnnotatedString input, Writer out)
+        throws IOException {
+
+      for (Paragraph onePara : Outputter.createParagraphs(input)) {
+        for (TextUnit oneTu : onePara.getTextUnits()) {
+          if (oneTu.getTokens().isEmpty()) {
+            continue;
+          }
+          int index = 1;
+          for (Token oneToken : oneTu.getTokens()) {
+            out.write(Integer.toString(index));
+            out.write('\t');
+            out.write(oneToken.getImage());
+            out.write('\t');
+            out.write(oneToken.getType());
+            out.write('\t');
+            out.write(Integer.toString(oneToken.getStartIndex()));
+            out.write('\t');
+            out.write(Integer.toString(oneToken.getEndIndex()));
+            out.write('\n');
+            index++;
+          }
+          out.write('\n');
+        }
+      }
+    }
+  },
+
+  /** one text unit per line with the token images separated by spaces */
+  TOKENS("tok") {
+
+    @Override
+    public void write(AnnotatedString input, Writer out)
+        throws IOException {
+
+      for (Paragraph onePara : Outputter.createParagraphs(input)) {
+        for (TextUnit oneTu : onePara.getTextUnits()) {
+          if (oneTu.getTokens().isEmpty()) {
+            continue;
+          }
+          boolean first = true;
+          for (Token oneToken : oneTu.getTokens()) {
+            if (!first) {
+              out.write(' ');
+            }
+            out.write(oneToken.getImage());
+            first = false;
+          }
+          out.write('\n');
+        }
+      }
+    }
+  };
+
+
+  // the file name suffix of files in this format
+  private String fileSuffix;
+
+
+  /**
+   * Creates a new output format using the given file name suffix.
+   *
+   * @param fileSuffix
+   *          the file name suffix, without leading period
+   */
+  OutputFormat(String fileSuffix) {
+
+    this.fileSuffix = fileSuffix;
+  }
+
+
+  /**
+   * @return the file name suffix of files in this format, without leading period
+   */
+  public String getFileSuffix() {
+
+    return this.fileSuffix;
+  }
+
+
+  /**
+   * Writes the given annotated string in this format to the given writer.
+   *
+   * @param input
+   *          the annotated string
+   * @param out
+   *          the writer
+   * @throws IOException
+   *           if there is an error when writing
+   */
+  public abstract void write(AnnotatedString input, Writer out)
+      throws IOException;
+
+
+  /**
+   * Returns the output format with the given name, ignoring case.
+   *
+   * @param name
+   *          the format name
+   * @return the output format
+   * @exception IllegalArgumentException
+   *              if there is no output format with the given name
+   */
+  public static OutputFormat forName(String name) {
+
+    return valueOf(name.toUpperCase(Locale.ROOT));
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer.output;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import de.dfki.lt.tools.tokenizer.PunctDescription;
+
+/**
+ * Applies the Penn Treebank token replacements. The replacement of a token only depends on its
+ * class and, for brackets, on its single character image. So the kind of replacement is resolved
+ * once per class id when the instance is created. Only tokens of classes without a fixed
+ * replacement are scanned for characters that have to be escaped.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public final class PtbFormat {
+
+  // the Penn Treebank replacements for brackets:
+  private static final String LRB = "-LRB-";
+  private static final String RRB = "-RRB-";
+  private static final String LSB = "-LSB-";
+  private static final String RSB = "-RSB-";
+  private static final String LCB = "-LCB-";
+  private static final String RCB = "-RCB-";
+
+  // the Penn Treebank replacements for opening and closing punctuation
+  private static final String OPEN_QUOTES = "``";
+  private static final String CLOSE_QUOTES = "''";
+
+  // kinds of replacements
+  private static final byte ESCAPE = 0;
+  private static final byte OPEN_BRACKET = 1;
+  private static final byte CLOSE_BRACKET = 2;
+  private static final byte OPEN_PUNCT = 3;
+  private static final byte CLOSE_PUNCT = 4;
+
+  // maps the class names with a special replacement to their kind of replacement
+  private static final Map<String, Byte> KINDS_MAP = new HashMap<>();
+
+  static {
+    KINDS_MAP.put(PunctDescription.OPEN_BRACKET, OPEN_BRACKET);
+    KINDS_MAP.put(PunctDescription.CLOSE_BRACKET, CLOSE_BRACKET);
+    KINDS_MAP.put(PunctDescription.OPEN_PUNCT, OPEN_PUNCT);
+    KINDS_MAP.put(PunctDescription.CLOSE_PUNCT, CLOSE_PUNCT);
+  }
+
+
+  // the kind of replacement indexed by class id
+  private byte[] kinds;
+
+
+  /**
+   * Creates a new instance of {@link PtbFormat} for the given class names.
+   *
+   * @param classNames
+   *          the class names indexed by class id
+   */
+  public PtbFormat(String[] classNames) {
+
+    this.kinds = new byte[classNames.length];
+    for (int i = 0; i < classNames.length; i++) {
+      this.kinds[i] = getKind(classNames[i]);
+    }
+  }
+
+
+  /**
+   * Returns the Penn Treebank image of the token in the given range of the given text if a
+   * replacement takes place, {@code null} otherwise. No string is created if the token image
+   * requires no replacement.
+   *
+   * @param text
+   *          the text
+   * @param start
+   *          the start index of the token
+   * @param end
+   *          the end index of the token
+   * @param classId
+   *          the class id of the token
+   * @return the Penn Treebank image or {@code null}
+   */
+  public String apply(CharSequence text, int start, int end, short classId) {
+
+    return apply(text, start, end, this.kinds[classId]);
+  }
+
+
+  /**
+   * This applies some replacements used in the Penn Treebank format to the given token image of the
+   * given type.
+   *
+   * @param image
+   *          the token image
+   * @param type
+   *          the type
+   * @return a modified string or {@code null} if no replacement took place
+   */
+  static String apply(String image, String type) {
+
+    return apply(image, 0, image.length(), getKind(type));
+  }
+
+
+  /**
+   * Returns the kind of replacement for the given class name.
+   *
+   * @param className
+   *          the class name
+   * @return the kind of replacement
+   */
+  private static byte getKind(String className) {
+
+    Byte kind = KINDS_MAP.get(className);
+    if (null == kind) {
+      return ESCAPE;
+    }
+    return kind;
+  }
+
+
+  /**
+   * Applies the given kind of replacement to the token in the given range of the given text.
+   *
+   * @param text
+   *          the text
+   * @param start
+   *          the start index of the token
+   * @param end
+   *          the end index of the token
+   * @param kind
+   *          the kind of replacement
+   * @return the Penn Treebank image or {@code null} if no replacement took place
+   */
+  private static String apply(CharSequence text, int start, int end, byte kind) {
+
+    switch (kind) {
+      case OPEN_BRACKET:
+        if (end - start == 1) {
+          switch (text.charAt(start)) {
+            case '(':
+              return LRB;
+            case '[':
+              return LSB;
+            case '{':
+              return LCB;
+            default:
+              return null;
+          }
+        }
+        return null;
+      case CLOSE_BRACKET:
+        if (end - start == 1) {
+          switch (text.charAt(start)) {
+            case ')':
+              return RRB;
+            case ']':
+              return RSB;
+            case '}':
+              return RCB;
+            default:
+              return null;
+          }
+        }
+        return null;
+      case OPEN_PUNCT:
+        return OPEN_QUOTES;
+      case CLOSE_PUNCT:
+        return CLOSE_QUOTES;
+      default:
+        return escape(text, start, end);
+    }
+  }
+
+
+  /**
+   * Escapes slashes in the token in the given range of the given text. If there are no slashes,
+   * stars are escaped.
+   *
+   * @param text
+   *          the text
+   * @param start
+   *          the start index of the token
+   * @param end
+   *          the end index of the token
+   * @return the escaped image or {@code null} if there is nothing to escape
+   */
+  private static String escape(CharSequence text, int start, int end) {
+
+    boolean hasStar = false;
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (c == '/') {
+        return text.subSequence(start, end).toString().replace("/", "\\/");
+      }
+      if (c == '*') {
+        hasStar = true;
+      }
+    }
+    if (hasStar) {
+      return text.subSequence(start, end).toString().replace("*", "\\*");
+    }
+    return null;
+  }
+}
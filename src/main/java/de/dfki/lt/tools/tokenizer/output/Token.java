@@ -22,8 +22,6 @@
 
 package de.dfki.lt.tools.tokenizer.output;
 
-import de.dfki.lt.tools.tokenizer.PunctDescription;
-
 /**
  * Represents a token with its type and surface image.
  *
@@ -31,14 +29,6 @@ import de.dfki.lt.tools.tokenizer.PunctDescription;
  */
 public class Token {
 
-  // the Penn Treebank replacements for brackets:
-  private static final String LRB = "-LRB-";
-  private static final String RRB = "-RRB-";
-  private static final String LSB = "-LSB-";
-  private static final String RSB = "-RSB-";
-  private static final String LCB = "-LCB-";
-  private static final String RCB = "-RCB-";
-
   // start index of the token
   private int startIndex;
 
@@ -51,6 +41,12 @@ public class Token {
   // surface image of the token
   private String image;
 
+  // Penn Treebank surface image of the token, {@code null} if there is no replacement
+  private String ptbImage;
+
+  // flag indicating if the Penn Treebank surface image has already been computed
+  private boolean ptbResolved;
+
 
   /**
    * Creates a new instance of {@link Token}.
@@ -86,6 +82,29 @@ public class Token {
   }
 
 
+  /**
+   * Creates a new instance of {@link Token} for the given start index, end index, type, surface
+   * image and Penn Treebank surface image.
+   *
+   * @param startIndex
+   *          the start index
+   * @param endIndex
+   *          the end index
+   * @param type
+   *          the type
+   * @param image
+   *          the surface image
+   * @param ptbImage
+   *          the Penn Treebank surface image or {@code null} if there is no replacement
+   */
+  public Token(int startIndex, int endIndex, String type, String image, String ptbImage) {
+
+    this(startIndex, endIndex, type, image);
+    this.ptbImage = ptbImage;
+    this.ptbResolved = true;
+  }
+
+
   /**
    * @return the start index
    */
@@ -140,6 +159,7 @@ public class Token {
   public void setType(String type) {
 
     this.type = type;
+    this.ptbResolved = false;
   }
 
 
@@ -159,6 +179,7 @@ public class Token {
   public void setImage(String image) {
 
     this.image = image;
+    this.ptbResolved = false;
   }
 
 
@@ -170,7 +191,11 @@ public class Token {
    */
   public String getPtbImage() {
 
-    return applyPtbFormat(this.image, this.type);
+    if (!this.ptbResolved) {
+      this.ptbImage = applyPtbFormat(this.image, this.type);
+      this.ptbResolved = true;
+    }
+    return this.ptbImage;
   }
 
 
@@ -187,7 +212,7 @@ public class Token {
             this.getStartIndex(),
             this.getEndIndex()));
 
-    String ptbImage = applyPtbFormat(this.image, this.type);
+    String ptbImage = this.getPtbImage();
     if (null != ptbImage) {
       result.append(String.format("\tPTB: \"%s\"", ptbImage));
     }
@@ -209,36 +234,6 @@ public class Token {
    */
   public static String applyPtbFormat(String image, String type) {
 
-    String result = null;
-
-    if (type.equals(PunctDescription.OPEN_BRACKET)) {
-
-      if (image.equals("(")) {
-        result = LRB;
-      } else if (image.equals("[")) {
-        result = LSB;
-      } else if (image.equals("{")) {
-        result = LCB;
-      }
-    } else if (type.equals(PunctDescription.CLOSE_BRACKET)) {
-
-      if (image.equals(")")) {
-        result = RRB;
-      } else if (image.equals("]")) {
-        result = RSB;
-      } else if (image.equals("}")) {
-        result = RCB;
-      }
-    } else if (type.equals(PunctDescription.OPEN_PUNCT)) {
-      result = "``";
-    } else if (type.equals(PunctDescription.CLOSE_PUNCT)) {
-      result = "''";
-    } else if (image.contains("/")) {
-      result = image.replace("/", "\\/");
-    } else if (image.contains("*")) {
-      result = image.replace("*", "\\*");
-    }
-
-    return result;
+    return PtbFormat.apply(image, type);
   }
 }
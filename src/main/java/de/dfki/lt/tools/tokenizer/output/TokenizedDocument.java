@@ -0,0 +1,463 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer.output;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Represents a tokenized document as plain arrays: for each token, there is its start index, its
+ * end index and its class id. Text unit and paragraph borders are stored as bit sets over the token
+ * indices. Class ids can be resolved to class names with {@link #getClassName(int)}.
+ * <p>
+ * Arrays and bit sets returned by the getters are not copied and must not be modified.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TokenizedDocument {
+
+  // the tokenized text
+  private String text;
+
+  // the offset of the text in the whole input, if the text is a chunk of a larger input
+  private long textOffset;
+
+  // the language of the text
+  private String language;
+
+  // the start index of each token
+  private int[] starts;
+
+  // the end index of each token
+  private int[] ends;
+
+  // the class id of each token
+  private short[] classIds;
+
+  // the class names indexed by class id
+  private String[] classNames;
+
+  // the Penn Treebank format for the classes, {@code null} if not available
+  private PtbFormat ptbFormat;
+
+  // token indices of tokens starting a text unit
+  private BitSet textUnitStarts;
+
+  // token indices of tokens starting a paragraph
+  private BitSet paragraphStarts;
+
+  // the token index of the first token of each text unit
+  private int[] textUnitTokenStarts;
+
+
+  /**
+   * Creates a new instance of {@link TokenizedDocument}. The first token always starts a text unit,
+   * and the start of each paragraph is also the start of a text unit. The first token only starts a
+   * paragraph if set in the paragraph starts, so a document may start within a paragraph. The bit
+   * sets are copied.
+   *
+   * @param text
+   *          the tokenized text
+   * @param language
+   *          the language of the text
+   * @param starts
+   *          the start index of each token
+   * @param ends
+   *          the end index of each token
+   * @param classIds
+   *          the class id of each token
+   * @param classNames
+   *          the class names indexed by class id
+   * @param ptbFormat
+   *          the Penn Treebank format for the classes, {@code null} if not available
+   * @param textUnitStarts
+   *          token indices of tokens starting a text unit
+   * @param paragraphStarts
+   *          token indices of tokens starting a paragraph
+   */
+  public TokenizedDocument(
+      String text, String language, int[] starts, int[] ends, short[] classIds,
+      String[] classNames, PtbFormat ptbFormat, BitSet textUnitStarts, BitSet paragraphStarts) {
+
+    this(text, 0, language, starts, ends, classIds, classNames, ptbFormat, textUnitStarts,
+        paragraphStarts);
+  }
+
+
+  /**
+   * Creates a new instance of {@link TokenizedDocument} for a chunk of a larger input. The first
+   * token always starts a text unit, and the start of each paragraph is also the start of a text
+   * unit. The first token only starts a paragraph if set in the paragraph starts, so a document may
+   * start within a paragraph. The bit sets are copied.
+   *
+   * @param text
+   *          the tokenized text
+   * @param textOffset
+   *          the offset of the text in the whole input
+   * @param language
+   *          the language of the text
+   * @param starts
+   *          the start index of each token
+   * @param ends
+   *          the end index of each token
+   * @param classIds
+   *          the class id of each token
+   * @param classNames
+   *          the class names indexed by class id
+   * @param ptbFormat
+   *          the Penn Treebank format for the classes, {@code null} if not available
+   * @param textUnitStarts
+   *          token indices of tokens starting a text unit
+   * @param paragraphStarts
+   *          token indices of tokens starting a paragraph
+   */
+  public TokenizedDocument(
+      String text, long textOffset, String language, int[] starts, int[] ends, short[] classIds,
+      String[] classNames, PtbFormat ptbFormat, BitSet textUnitStarts, BitSet paragraphStarts) {
+
+    if ((starts.length != ends.length) || (starts.length != classIds.length)) {
+      throw new IllegalArgumentException("token arrays must have the same length");
+    }
+    this.text = text;
+    this.textOffset = textOffset;
+    this.language = language;
+    this.starts = starts;
+    this.ends = ends;
+    this.classIds = classIds;
+    this.classNames = classNames;
+    this.ptbFormat = ptbFormat;
+    this.textUnitStarts = (BitSet)textUnitStarts.clone();
+    this.paragraphStarts = (BitSet)paragraphStarts.clone();
+    if (starts.length > 0) {
+      this.textUnitStarts.set(0);
+      this.textUnitStarts.or(this.paragraphStarts);
+    }
+
+    // collect the first token index of each text unit
+    this.textUnitTokenStarts = new int[this.textUnitStarts.cardinality()];
+    int tuIndex = 0;
+    for (int i = this.textUnitStarts.nextSetBit(0); i >= 0;
+        i = this.textUnitStarts.nextSetBit(i + 1)) {
+      this.textUnitTokenStarts[tuIndex] = i;
+      tuIndex++;
+    }
+  }
+
+
+  /**
+   * @return the tokenized text
+   */
+  public String getText() {
+
+    return this.text;
+  }
+
+
+  /**
+   * Returns the offset of the text in the whole input. It is 0 unless the text is a chunk of a
+   * larger input. Token start and end indices always refer to {@link #getText()}.
+   *
+   * @return the offset of the text in the whole input
+   */
+  public long getTextOffset() {
+
+    return this.textOffset;
+  }
+
+
+  /**
+   * @return the language of the text
+   */
+  public String getLanguage() {
+
+    return this.language;
+  }
+
+
+  /**
+   * @return the number of tokens
+   */
+  public int getTokenCount() {
+
+    return this.starts.length;
+  }
+
+
+  /**
+   * @return the start index of each token
+   */
+  public int[] getStarts() {
+
+    return this.starts;
+  }
+
+
+  /**
+   * @return the end index of each token
+   */
+  public int[] getEnds() {
+
+    return this.ends;
+  }
+
+
+  /**
+   * @return the class id of each token
+   */
+  public short[] getClassIds() {
+
+    return this.classIds;
+  }
+
+
+  /**
+   * @return the class names indexed by class id
+   */
+  public String[] getClassNames() {
+
+    return this.classNames;
+  }
+
+
+  /**
+   * @return the token indices of tokens starting a text unit
+   */
+  public BitSet getTextUnitStarts() {
+
+    return this.textUnitStarts;
+  }
+
+
+  /**
+   * @return the token indices of tokens starting a paragraph
+   */
+  public BitSet getParagraphStarts() {
+
+    return this.paragraphStarts;
+  }
+
+
+  /**
+   * @param tokenIndex
+   *          the token index
+   * @return the start index of the token
+   */
+  public int getStart(int tokenIndex) {
+
+    return this.starts[tokenIndex];
+  }
+
+
+  /**
+   * @param tokenIndex
+   *          the token index
+   * @return the end index of the token
+   */
+  public int getEnd(int tokenIndex) {
+
+    return this.ends[tokenIndex];
+  }
+
+
+  /**
+   * @param tokenIndex
+   *          the token index
+   * @return the class id of the token
+   */
+  public short getClassId(int tokenIndex) {
+
+    return this.classIds[tokenIndex];
+  }
+
+
+  /**
+   * @param tokenIndex
+   *          the token index
+   * @return the class name of the token
+   */
+  public String getClassName(int tokenIndex) {
+
+    return this.classNames[this.classIds[tokenIndex]];
+  }
+
+
+  /**
+   * @param tokenIndex
+   *          the token index
+   * @return the surface image of the token
+   */
+  public String getImage(int tokenIndex) {
+
+    return this.text.substring(this.starts[tokenIndex], this.ends[tokenIndex]);
+  }
+
+
+  /**
+   * Returns the Penn Treebank surface image of the token if a Penn Treebank replacement takes
+   * place, {@code null} otherwise. No string is created if there is no replacement.
+   *
+   * @param tokenIndex
+   *          the token index
+   * @return the surface image as the result of the Penn Treebank token replacement or {@code null}
+   */
+  public String getPtbImage(int tokenIndex) {
+
+    if (null == this.ptbFormat) {
+      return null;
+    }
+    return this.ptbFormat.apply(
+        this.text, this.starts[tokenIndex], this.ends[tokenIndex], this.classIds[tokenIndex]);
+  }
+
+
+  /**
+   * @param tokenIndex
+   *          the token index
+   * @return a flag indicating if the token starts a text unit
+   */
+  public boolean isTextUnitStart(int tokenIndex) {
+
+    return this.textUnitStarts.get(tokenIndex);
+  }
+
+
+  /**
+   * @param tokenIndex
+   *          the token index
+   * @return a flag indicating if the token starts a paragraph
+   */
+  public boolean isParagraphStart(int tokenIndex) {
+
+    return this.paragraphStarts.get(tokenIndex);
+  }
+
+
+  /**
+   * @return the number of text units
+   */
+  public int getTextUnitCount() {
+
+    return this.textUnitTokenStarts.length;
+  }
+
+
+  /**
+   * @param tuIndex
+   *          the text unit index
+   * @return the token index of the first token of the text unit
+   */
+  public int getTextUnitTokenStart(int tuIndex) {
+
+    return this.textUnitTokenStarts[tuIndex];
+  }
+
+
+  /**
+   * @param tuIndex
+   *          the text unit index
+   * @return the token index following the last token of the text unit
+   */
+  public int getTextUnitTokenEnd(int tuIndex) {
+
+    if (tuIndex + 1 < this.textUnitTokenStarts.length) {
+      return this.textUnitTokenStarts[tuIndex + 1];
+    }
+    return this.starts.length;
+  }
+
+
+  /**
+   * Creates a new document that only contains the text units in the given range. Token start and
+   * end indices still refer to the text of this document.
+   *
+   * @param fromTu
+   *          the index of the first text unit, inclusive
+   * @param toTu
+   *          the index of the last text unit, exclusive
+   * @return a document with the text units in the range
+   * @exception IndexOutOfBoundsException
+   *              if the range is not valid
+   */
+  public TokenizedDocument sliceTextUnits(int fromTu, int toTu) {
+
+    if ((fromTu < 0) || (toTu > this.getTextUnitCount()) || (fromTu > toTu)) {
+      throw new IndexOutOfBoundsException(
+          String.format("Invalid text unit range %d - %d", fromTu, toTu));
+    }
+    int fromToken = this.starts.length;
+    int toToken = this.starts.length;
+    if (fromTu < toTu) {
+      fromToken = this.getTextUnitTokenStart(fromTu);
+      toToken = this.getTextUnitTokenEnd(toTu - 1);
+    }
+    return new TokenizedDocument(
+        this.text, this.textOffset, this.language,
+        Arrays.copyOfRange(this.starts, fromToken, toToken),
+        Arrays.copyOfRange(this.ends, fromToken, toToken),
+        Arrays.copyOfRange(this.classIds, fromToken, toToken),
+        this.classNames,
+        this.ptbFormat,
+        this.textUnitStarts.get(fromToken, toToken),
+        this.paragraphStarts.get(fromToken, toToken));
+  }
+
+
+  /**
+   * Creates a list of {@link Paragraph}s with {@link TextUnit}s and {@link Token}s from this
+   * document.
+   *
+   * @return a list of paragraphs
+   */
+  public List<Paragraph> toParagraphs() {
+
+    // init lists for paragraphs, text units and tokens
+    List<Paragraph> paraList = new ArrayList<>();
+    List<TextUnit> tuList = new ArrayList<>();
+    List<Token> tokenList = new ArrayList<>();
+
+    for (int i = 0; i < this.starts.length; i++) {
+      if ((i > 0) && this.textUnitStarts.get(i)) {
+        // add current text unit to paragraph and create new one
+        tuList.add(new TextUnit(tokenList));
+        tokenList = new ArrayList<>();
+        if (this.paragraphStarts.get(i)) {
+          // add current paragraph to result list and create new one
+          paraList.add(new Paragraph(tuList));
+          tuList = new ArrayList<>();
+        }
+      }
+      tokenList.add(
+          new Token(this.starts[i], this.ends[i], this.getClassName(i), this.getImage(i),
+              this.getPtbImage(i)));
+    }
+    // add last text unit
+    tuList.add(new TextUnit(tokenList));
+
+    // add last paragraph
+    paraList.add(new Paragraph(tuList));
+
+    return paraList;
+  }
+}
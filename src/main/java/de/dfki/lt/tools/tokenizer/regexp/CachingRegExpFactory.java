@@ -0,0 +1,125 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer.regexp;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import de.dfki.lt.tools.tokenizer.exceptions.InitializationException;
+
+/**
+ * Extends {@link RegExpFactory} with a cache of the created regular expressions, keyed by the
+ * regular expression string. Identical regular expression strings are compiled only once by the
+ * wrapped factory and the resulting object is shared. This requires that the regular expressions
+ * of the wrapped factory are immutable. Concurrent requests for the same regular expression string
+ * wait for a single compilation, while requests for other strings are not blocked.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class CachingRegExpFactory extends RegExpFactory {
+
+  // the factory that creates the cached regular expressions
+  private RegExpFactory factory;
+
+  // maps regular expression strings to the futures of their regular expressions
+  private ConcurrentMap<String, CompletableFuture<RegExp>> cache;
+
+
+  /**
+   * Creates a new instance of {@link CachingRegExpFactory} that caches the regular expressions of
+   * the given factory.
+   *
+   * @param factory
+   *          the factory that creates immutable regular expressions
+   */
+  public CachingRegExpFactory(RegExpFactory factory) {
+
+    this.factory = factory;
+    this.cache = new ConcurrentHashMap<>();
+  }
+
+
+  /**
+   * @return the wrapped factory, which creates regular expressions without caching
+   */
+  public RegExpFactory getFactory() {
+
+    return this.factory;
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public RegExp createRegExp(String regExpString) {
+
+    CompletableFuture<RegExp> future = this.cache.get(regExpString);
+    if (null == future) {
+      CompletableFuture<RegExp> newFuture = new CompletableFuture<>();
+      future = this.cache.putIfAbsent(regExpString, newFuture);
+      if (null == future) {
+        // this thread compiles the regular expression
+        try {
+          RegExp regExp = this.factory.createRegExp(regExpString);
+          newFuture.complete(regExp);
+          return regExp;
+        } catch (RuntimeException e) {
+          // don't cache failures
+          this.cache.remove(regExpString, newFuture);
+          newFuture.completeExceptionally(e);
+          throw e;
+        }
+      }
+    }
+
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException)e.getCause();
+      }
+      throw new InitializationException(e.getLocalizedMessage(), e.getCause());
+    }
+  }
+
+
+  /**
+   * @return the number of cached regular expressions
+   */
+  public int size() {
+
+    return this.cache.size();
+  }
+
+
+  /**
+   * Removes all regular expressions from the cache. Regular expressions already in use stay valid.
+   */
+  public void clear() {
+
+    this.cache.clear();
+  }
+}
@@ -55,6 +55,15 @@ public class DkBricsRegExp implements RegExp {
   }
 
 
+  /**
+   * @return the number of states of the minimized automaton
+   */
+  public int getStateCount() {
+
+    return this.re.getSize();
+  }
+
+
   /**
    * {@inheritDoc}
    */
@@ -139,4 +148,17 @@ public class DkBricsRegExp implements RegExp {
     }
     return null;
   }
+
+
+  /**
+   * {@inheritDoc}<br>
+   * The character must have a transition from the initial state of the automaton, unless the
+   * regular expression matches the empty string.
+   */
+  @Override
+  public boolean canStartWith(char c) {
+
+    int initialState = this.re.getInitialState();
+    return this.re.isAccept(initialState) || this.re.step(initialState, c) != -1;
+  }
 }
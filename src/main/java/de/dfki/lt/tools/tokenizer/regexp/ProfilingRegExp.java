@@ -0,0 +1,247 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer.regexp;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorates a {@link RegExp} with counters for its invocations, its hits and the time spent in it.
+ * A hit is a full match for {@link #matches(String)}, at least one match for
+ * {@link #getAllMatches(String)} and a found match for the other methods. Used for profiling which
+ * definitions and rules of a language configuration fire and which are expensive. This class is
+ * thread-safe if the decorated regular expression is.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class ProfilingRegExp implements RegExp {
+
+  // the decorated regular expression
+  private RegExp regExp;
+
+  // the name of the decorated regular expression, e.g. its definition or rule name
+  private String name;
+
+  // the number of automaton states or -1 if unknown
+  private int stateCount;
+
+  // the number of invocations
+  private LongAdder calls;
+
+  // the number of hits
+  private LongAdder hits;
+
+  // the time in nanoseconds spent in the decorated regular expression
+  private LongAdder nanos;
+
+
+  /**
+   * Creates a new instance of {@link ProfilingRegExp} for the given regular expression.
+   *
+   * @param name
+   *          the name of the regular expression, e.g. its definition or rule name
+   * @param regExp
+   *          the regular expression to decorate
+   */
+  public ProfilingRegExp(String name, RegExp regExp) {
+
+    this.name = name;
+    this.regExp = regExp;
+    this.stateCount =
+        regExp instanceof DkBricsRegExp ? ((DkBricsRegExp)regExp).getStateCount() : -1;
+    this.calls = new LongAdder();
+    this.hits = new LongAdder();
+    this.nanos = new LongAdder();
+  }
+
+
+  /**
+   * @return the decorated regular expression
+   */
+  public RegExp getRegExp() {
+
+    return this.regExp;
+  }
+
+
+  /**
+   * @return the name of the regular expression
+   */
+  public String getName() {
+
+    return this.name;
+  }
+
+
+  /**
+   * @return the number of states of the automaton, recorded at creation, or -1 if the decorated
+   *         regular expression is not automaton based
+   */
+  public int getStateCount() {
+
+    return this.stateCount;
+  }
+
+
+  /**
+   * @return the number of invocations
+   */
+  public long getCalls() {
+
+    return this.calls.sum();
+  }
+
+
+  /**
+   * @return the number of hits
+   */
+  public long getHits() {
+
+    return this.hits.sum();
+  }
+
+
+  /**
+   * @return the time in nanoseconds spent in the decorated regular expression
+   */
+  public long getNanos() {
+
+    return this.nanos.sum();
+  }
+
+
+  /**
+   * Resets all counters to 0.
+   */
+  public void reset() {
+
+    this.calls.reset();
+    this.hits.reset();
+    this.nanos.reset();
+  }
+
+
+  /**
+   * Counts an invocation.
+   *
+   * @param start
+   *          the start time of the invocation in nanoseconds
+   * @param hit
+   *          a flag indicating if the invocation was a hit
+   */
+  private void count(long start, boolean hit) {
+
+    this.nanos.add(System.nanoTime() - start);
+    this.calls.increment();
+    if (hit) {
+      this.hits.increment();
+    }
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<Match> getAllMatches(String input) {
+
+    long start = System.nanoTime();
+    List<Match> result = this.regExp.getAllMatches(input);
+    this.count(start, !result.isEmpty());
+    return result;
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean matches(String input) {
+
+    long start = System.nanoTime();
+    boolean result = this.regExp.matches(input);
+    this.count(start, result);
+    return result;
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Match contains(String input) {
+
+    long start = System.nanoTime();
+    Match result = this.regExp.contains(input);
+    this.count(start, null != result);
+    return result;
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Match starts(String input) {
+
+    long start = System.nanoTime();
+    Match result = this.regExp.starts(input);
+    this.count(start, null != result);
+    return result;
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Match ends(String input) {
+
+    long start = System.nanoTime();
+    Match result = this.regExp.ends(input);
+    this.count(start, null != result);
+    return result;
+  }
+
+
+  /**
+   * {@inheritDoc}<br>
+   * Not profiled, as it is only used when creating lookup tables.
+   */
+  @Override
+  public boolean canStartWith(char c) {
+
+    return this.regExp.canStartWith(c);
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+
+    return String.format("%s: %d states, %d calls, %d hits, %d ns",
+        this.name, this.stateCount, this.getCalls(), this.getHits(), this.getNanos());
+  }
+}
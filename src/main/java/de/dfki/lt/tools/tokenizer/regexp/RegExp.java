@@ -82,4 +82,19 @@ public interface RegExp {
    * @return a match or {@code null}
    */
   Match ends(String input);
+
+
+  /**
+   * Checks if a match for the regular expression can start with the given character. Used to skip
+   * inputs that can't contain a match. The default implementation conservatively returns
+   * {@code true}.
+   *
+   * @param c
+   *          the character
+   * @return {@code false} if no match starts with the character
+   */
+  default boolean canStartWith(char c) {
+
+    return true;
+  }
 }
@@ -0,0 +1,8 @@
+@echo off
+
+if NOT "%3"=="" (
+mvn exec:java -Dexec.mainClass=de.dfki.lt.tools.tokenizer.CorpusTokenizer -Dexec.args="%*"
+exit 0
+)
+
+echo "usage: tokenize-corpus -l <language> -o <output directory> [-f paragraphs|xml] [-t <threads>] [-s <suffix>] [-e <encoding>] <input>..."
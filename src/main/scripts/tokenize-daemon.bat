@@ -0,0 +1,3 @@
+@echo off
+
+mvn exec:java -Dexec.mainClass=de.dfki.lt.tools.tokenizer.TokenizerDaemon -Dexec.args="%*"
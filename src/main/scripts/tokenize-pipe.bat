@@ -0,0 +1,8 @@
+@echo off
+
+if NOT "%2"=="" (
+mvn -q exec:java -Dexec.mainClass=de.dfki.lt.tools.tokenizer.PipeTokenizer -Dexec.args="%*"
+exit 0
+)
+
+echo "usage: tokenize-pipe --lang <language> [--format tokens|conll|paragraphs|xml] [--mode line|nul|blank] [--threads <threads>] [--encoding <encoding>]"
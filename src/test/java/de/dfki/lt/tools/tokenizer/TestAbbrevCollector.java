@@ -0,0 +1,73 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package de.dfki.lt.tools.tokenizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link AbbrevCollector}.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TestAbbrevCollector {
+
+  /**
+   * Tests that collecting abbreviations in parallel gives the same file as collecting them
+   * sequentially.
+   *
+   * @throws IOException
+   *           if there is an error when reading or writing files
+   * @throws URISyntaxException
+   *           if the test resources can't be located
+   */
+  @Test
+  public void testCollect()
+      throws IOException, URISyntaxException {
+
+    String dir = Paths.get(
+        getClass().getClassLoader().getResource("german").toURI()).getParent().toString();
+    Path sequentialFile = Files.createTempFile("jtok", ".txt");
+    Path parallelFile = Files.createTempFile("jtok", ".txt");
+    try {
+      AbbrevCollector.collect(dir, ".txt", "utf-8", sequentialFile.toString(), "de", 1);
+      AbbrevCollector.collect(dir, ".txt", "utf-8", parallelFile.toString(), "de", 4);
+      byte[] sequential = Files.readAllBytes(sequentialFile);
+      assertThat(sequential.length > 0, is(true));
+      assertThat(Arrays.equals(Files.readAllBytes(parallelFile), sequential), is(true));
+    } finally {
+      Files.delete(sequentialFile);
+      Files.delete(parallelFile);
+    }
+  }
+}
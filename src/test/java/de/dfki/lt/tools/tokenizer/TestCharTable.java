@@ -0,0 +1,69 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package de.dfki.lt.tools.tokenizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import de.dfki.lt.tools.tokenizer.regexp.DkBricsRegExp;
+import de.dfki.lt.tools.tokenizer.regexp.JavaRegExp;
+
+/**
+ * Test class for {@link CharTable}.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TestCharTable {
+
+  /**
+   * Tests that the flags agree with {@link Character} and the punctuation matcher.
+   */
+  @Test
+  public void testCharTable() {
+
+    DkBricsRegExp punctMatcher = new DkBricsRegExp("[.,]|\\.\\.\\.|--");
+    CharTable chars = new CharTable(punctMatcher);
+    for (int i = 0; i <= Character.MAX_VALUE; i++) {
+      char c = (char)i;
+      assertThat(chars.isWhitespace(c), is(Character.isWhitespace(c) || c == ' '));
+      assertThat(CharTable.isWhitespaceChar(c), is(chars.isWhitespace(c)));
+      assertThat(chars.isLetter(c), is(Character.isLetter(c)));
+      assertThat(chars.isLowerCase(c), is(Character.isLowerCase(c)));
+      assertThat(chars.isLetterOrDigit(c), is(Character.isLetterOrDigit(c)));
+    }
+    // supplementary code points
+    assertThat(chars.isLetterOrDigit(0x1D400), is(true));
+    assertThat(chars.isLetterOrDigit(0x1F600), is(false));
+
+    assertThat(chars.containsPunctStart("abc"), is(false));
+    assertThat(chars.containsPunctStart("ab,c"), is(true));
+    // a match can start with a character that is no match on its own
+    assertThat(chars.containsPunctStart("a-b"), is(true));
+
+    // without an automaton, every character may start a punctuation
+    assertThat(new CharTable(new JavaRegExp("[.,]")).containsPunctStart("abc"), is(true));
+  }
+}
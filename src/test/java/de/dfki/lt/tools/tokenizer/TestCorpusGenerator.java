@@ -0,0 +1,170 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.dfki.lt.tools.tokenizer.output.TokenizedDocument;
+
+/**
+ * Test class for {@link CorpusGenerator}, including a stress test of {@link JTok} with generated
+ * texts.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TestCorpusGenerator {
+
+  // the tokenizer to test
+  private static JTok tokenizer;
+
+
+  /**
+   * Initializes the tokenizer.
+   *
+   * @throws IOException
+   *           if there is an error during initialization
+   */
+  @BeforeClass
+  public static void oneTimeSetUp()
+      throws IOException {
+
+    tokenizer = new JTok();
+  }
+
+
+  /**
+   * Tests that generated texts are reproducible and follow the rates.
+   *
+   * @throws IOException
+   *           if there is an error when reading the abbreviations list
+   */
+  @Test
+  public void testGenerate()
+      throws IOException {
+
+    String text = new CorpusGenerator("en", 42).generate(10000);
+    assertThat(text.length() >= 10000, is(true));
+    assertThat(new CorpusGenerator("en", 42).generate(10000), is(text));
+    assertThat(new CorpusGenerator("en", 43).generate(10000), is(not(text)));
+    assertThat(text.contains("\n\n"), is(true));
+    assertThat(text.contains("n't"), is(true));
+
+    // only words and sentence punctuation
+    CorpusGenerator generator = new CorpusGenerator("de", 42);
+    generator.setAbbrevRate(0);
+    generator.setCliticRate(0);
+    generator.setNumberRate(0);
+    generator.setUrlRate(0);
+    generator.setPunctRate(0);
+    generator.setParagraphRate(0);
+    text = generator.generate(10000);
+    assertThat(text.matches("[\\p{L} .!?\"\n]+"), is(true));
+    assertThat(text.contains("\n\n"), is(false));
+  }
+
+
+  /**
+   * Tokenizes large generated texts in several ways and on several threads, which must all give
+   * the same tokens.
+   *
+   * @throws Exception
+   *           if there is an error
+   */
+  @Test
+  public void testStress()
+      throws Exception {
+
+    int length = 1 << 20;
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (String oneLang : new String[] { "en", "de" }) {
+        List<String> texts = new ArrayList<>();
+        List<TokenizedDocument> expected = new ArrayList<>();
+        for (int seed = 0; seed < 4; seed++) {
+          String text = new CorpusGenerator(oneLang, seed).generate(length / 4);
+          texts.add(text);
+          expected.add(tokenizer.tokenizeToDocument(text, oneLang));
+        }
+
+        // concurrently
+        List<Future<TokenizedDocument>> futures = new ArrayList<>();
+        for (String oneText : texts) {
+          futures.add(executor.submit(() -> tokenizer.tokenizeToDocument(oneText, oneLang)));
+        }
+        for (int i = 0; i < texts.size(); i++) {
+          assertSameTokens(futures.get(i).get(), expected.get(i));
+        }
+
+        // in chunks that end at paragraph changes
+        for (int i = 0; i < texts.size(); i++) {
+          List<TokenizedDocument> chunks = new ArrayList<>();
+          tokenizer.tokenizeChunks(new StringReader(texts.get(i)), oneLang, 1 << 14, chunks::add);
+          int tokenIndex = 0;
+          for (TokenizedDocument oneChunk : chunks) {
+            for (int j = 0; j < oneChunk.getTokenCount(); j++, tokenIndex++) {
+              assertThat(oneChunk.getTextOffset() + oneChunk.getStart(j),
+                  is((long)expected.get(i).getStart(tokenIndex)));
+              assertThat(oneChunk.getClassName(j), is(expected.get(i).getClassName(tokenIndex)));
+            }
+          }
+          assertThat(tokenIndex, is(expected.get(i).getTokenCount()));
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+
+  /**
+   * Checks that the given documents have the same tokens with the same classes.
+   *
+   * @param doc
+   *          the document to check
+   * @param expected
+   *          the expected document
+   */
+  private static void assertSameTokens(TokenizedDocument doc, TokenizedDocument expected) {
+
+    assertThat(doc.getTokenCount(), is(expected.getTokenCount()));
+    for (int i = 0; i < doc.getTokenCount(); i++) {
+      assertThat(doc.getStart(i), is(expected.getStart(i)));
+      assertThat(doc.getEnd(i), is(expected.getEnd(i)));
+      assertThat(doc.getClassName(i), is(expected.getClassName(i)));
+    }
+    assertThat(doc.getTextUnitStarts(), is(expected.getTextUnitStarts()));
+  }
+}
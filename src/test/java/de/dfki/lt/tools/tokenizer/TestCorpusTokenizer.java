@@ -0,0 +1,266 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package de.dfki.lt.tools.tokenizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.dfki.lt.tools.tokenizer.CorpusTokenizer.InputFile;
+import de.dfki.lt.tools.tokenizer.output.OutputFormat;
+
+/**
+ * Test class for {@link CorpusTokenizer}.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TestCorpusTokenizer {
+
+  // the tokenizer
+  private static JTok tokenizer;
+
+  // the temporary directory with the input and output directories
+  private Path tempDir;
+
+  // the input directory
+  private Path inputDir;
+
+
+  /**
+   * Creates the tokenizer.
+   *
+   * @throws IOException
+   *           if there is an error during initialization
+   */
+  @BeforeClass
+  public static void oneTimeSetUp()
+      throws IOException {
+
+    tokenizer = new JTok();
+  }
+
+
+  /**
+   * Creates an input directory with a nested directory and files with different suffixes.
+   *
+   * @throws IOException
+   *           if there is an error when writing the files
+   */
+  @Before
+  public void setUp()
+      throws IOException {
+
+    this.tempDir = Files.createTempDirectory("jtok");
+    this.inputDir = this.tempDir.resolve("input");
+    Files.createDirectories(this.inputDir.resolve("sub"));
+    this.write(this.inputDir.resolve("a.txt"), "This is a test. It works.");
+    this.write(this.inputDir.resolve("sub/b.txt"), "Another test, Dr. Smith.");
+    this.write(this.inputDir.resolve("sub/c.md"), "Not a text file.");
+  }
+
+
+  /**
+   * Deletes the temporary directory.
+   *
+   * @throws IOException
+   *           if there is an error when deleting files
+   */
+  @After
+  public void tearDown()
+      throws IOException {
+
+    try (Stream<Path> paths = Files.walk(this.tempDir)) {
+      for (Path onePath : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(onePath);
+      }
+    }
+  }
+
+
+  /**
+   * Tests {@link CorpusTokenizer#collectInputFiles(String, String)} for directory, file and glob
+   * inputs.
+   *
+   * @throws IOException
+   *           if there is an error when scanning directories
+   */
+  @Test
+  public void testCollectInputFiles()
+      throws IOException {
+
+    // directories are scanned recursively for the suffix
+    assertThat(relativePaths(CorpusTokenizer.collectInputFiles(this.inputDir.toString(), ".txt")),
+        is(List.of("a.txt", Paths.get("sub", "b.txt").toString())));
+
+    // a single file is taken regardless of its suffix
+    List<InputFile> inputFiles =
+        CorpusTokenizer.collectInputFiles(this.inputDir.resolve("sub/c.md").toString(), ".txt");
+    assertThat(relativePaths(inputFiles), is(List.of("c.md")));
+
+    // glob patterns are relative to their longest prefix without wildcards
+    String pattern = this.inputDir.resolve("sub").toString() + "/*.*";
+    assertThat(relativePaths(CorpusTokenizer.collectInputFiles(pattern, ".txt")),
+        is(List.of("b.txt", "c.md")));
+    pattern = this.inputDir.toString() + "/**.txt";
+    assertThat(relativePaths(CorpusTokenizer.collectInputFiles(pattern, ".txt")),
+        is(List.of("a.txt", Paths.get("sub", "b.txt").toString())));
+
+    // unknown inputs give no files
+    assertThat(CorpusTokenizer.collectInputFiles(
+        this.inputDir.resolve("unknown").toString(), ".txt").isEmpty(), is(true));
+  }
+
+
+  /**
+   * Tests that the file name suffix is replaced with the one of the output format.
+   */
+  @Test
+  public void testOutputPath() {
+
+    Path outputDir = this.tempDir.resolve("output");
+    CorpusTokenizer corpusTokenizer =
+        new CorpusTokenizer(tokenizer, "en", "UTF-8", OutputFormat.CONLL, 1, outputDir);
+    assertThat(corpusTokenizer.getOutputPath(new InputFile(Paths.get("x"), "a.txt")),
+        is(outputDir.resolve("a.conll")));
+    assertThat(corpusTokenizer.getOutputPath(new InputFile(Paths.get("x"), "a.tar.txt")),
+        is(outputDir.resolve("a.tar.conll")));
+    // dots in directory names are kept
+    assertThat(corpusTokenizer.getOutputPath(new InputFile(Paths.get("x"), "v1.0/readme")),
+        is(outputDir.resolve("v1.0/readme.conll")));
+  }
+
+
+  /**
+   * Tests that the output directory mirrors the input directory.
+   *
+   * @throws IOException
+   *           if there is an error when reading or writing files
+   * @throws InterruptedException
+   *           if interrupted while waiting for the tokenization to finish
+   */
+  @Test
+  public void testTokenize()
+      throws IOException, InterruptedException {
+
+    Path outputDir = this.tempDir.resolve("output");
+    CorpusTokenizer corpusTokenizer =
+        new CorpusTokenizer(tokenizer, "en", "UTF-8", OutputFormat.CONLL, 2, outputDir);
+    List<InputFile> inputFiles =
+        CorpusTokenizer.collectInputFiles(this.inputDir.toString(), ".txt");
+    assertThat(corpusTokenizer.tokenize(inputFiles), is(0));
+
+    for (String oneName : new String[] { "a", "sub/b" }) {
+      String input = new String(
+          Files.readAllBytes(this.inputDir.resolve(oneName + ".txt")), StandardCharsets.UTF_8);
+      StringWriter expected = new StringWriter();
+      OutputFormat.CONLL.write(tokenizer.tokenize(input, "en"), expected);
+      String output = new String(
+          Files.readAllBytes(outputDir.resolve(oneName + ".conll")), StandardCharsets.UTF_8);
+      assertThat(output, is(expected.toString()));
+    }
+    assertThat(Files.exists(outputDir.resolve("sub/c.conll")), is(false));
+  }
+
+
+  /**
+   * Tests that input files with the same output path are rejected.
+   *
+   * @throws IOException
+   *           if there is an error when writing files
+   * @throws InterruptedException
+   *           if interrupted while waiting for the tokenization to finish
+   */
+  @Test
+  public void testOutputPathCollision()
+      throws IOException, InterruptedException {
+
+    Path otherDir = this.tempDir.resolve("other");
+    Files.createDirectories(otherDir);
+    this.write(otherDir.resolve("a.txt"), "Same name, other directory.");
+    List<InputFile> inputFiles = new ArrayList<>();
+    inputFiles.addAll(CorpusTokenizer.collectInputFiles(this.inputDir.toString(), ".txt"));
+    inputFiles.addAll(CorpusTokenizer.collectInputFiles(otherDir.toString(), ".txt"));
+
+    Path outputDir = this.tempDir.resolve("output");
+    CorpusTokenizer corpusTokenizer =
+        new CorpusTokenizer(tokenizer, "en", "UTF-8", OutputFormat.CONLL, 2, outputDir);
+    boolean failed = false;
+    try {
+      corpusTokenizer.tokenize(inputFiles);
+    } catch (IllegalArgumentException e) {
+      failed = true;
+    }
+    assertThat(failed, is(true));
+    assertThat(Files.exists(outputDir), is(false));
+  }
+
+
+  /**
+   * Returns the sorted output paths of the given input files.
+   *
+   * @param inputFiles
+   *          the input files
+   * @return the sorted output paths relative to the output directory
+   */
+  private static List<String> relativePaths(List<InputFile> inputFiles) {
+
+    return inputFiles.stream()
+        .map(InputFile::getRelativePath)
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+
+  /**
+   * Writes the given text to the given file in UTF-8.
+   *
+   * @param path
+   *          the file
+   * @param text
+   *          the text
+   * @throws IOException
+   *           if there is an error when writing the file
+   */
+  private void write(Path path, String text)
+      throws IOException {
+
+    Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+  }
+}
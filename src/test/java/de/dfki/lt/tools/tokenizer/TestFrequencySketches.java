@@ -0,0 +1,75 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link CountMinSketch} and {@link SpaceSaving}.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TestFrequencySketches {
+
+  /**
+   * Tests that merged sketches never underestimate and find the heavy hitters of a skewed stream.
+   */
+  @Test
+  public void testSketches() {
+
+    Random random = new Random(42);
+    int[] trueCounts = new int[1000];
+    CountMinSketch[] sketches = { new CountMinSketch(4, 1024), new CountMinSketch(4, 1024) };
+    SpaceSaving[] summaries = { new SpaceSaving(50), new SpaceSaving(50) };
+    for (int i = 0; i < 100000; i++) {
+      // skewed distribution: small values are much more frequent
+      int value = (int)(trueCounts.length * Math.pow(random.nextDouble(), 4));
+      trueCounts[value]++;
+      sketches[i % 2].add("w" + value, 1);
+      summaries[i % 2].add("w" + value, 1);
+    }
+    sketches[0].merge(sketches[1]);
+    summaries[0].merge(summaries[1]);
+
+    for (int i = 0; i < trueCounts.length; i++) {
+      long estimate = sketches[0].estimate("w" + i);
+      assertThat(estimate >= trueCounts[i], is(true));
+      // error bound is 2 * N / width with high probability
+      assertThat(estimate <= trueCounts[i] + 2L * 100000 / 1024, is(true));
+    }
+
+    List<SpaceSaving.Counter> top = summaries[0].getTop(1);
+    assertThat(top.get(0).getString(), is("w0"));
+    for (SpaceSaving.Counter oneCounter : top) {
+      int trueCount = trueCounts[Integer.parseInt(oneCounter.getString().substring(1))];
+      assertThat(oneCounter.getCount() >= trueCount, is(true));
+      assertThat(oneCounter.getCount() - oneCounter.getError() <= trueCount, is(true));
+    }
+  }
+}
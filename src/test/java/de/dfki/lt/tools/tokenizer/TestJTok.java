@@ -22,6 +22,7 @@
 
 package de.dfki.lt.tools.tokenizer;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -31,15 +32,37 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import de.dfki.lt.tools.tokenizer.exceptions.BudgetExceededException;
+import de.dfki.lt.tools.tokenizer.exceptions.InitializationException;
 import de.dfki.lt.tools.tokenizer.output.Outputter;
 import de.dfki.lt.tools.tokenizer.output.Paragraph;
+import de.dfki.lt.tools.tokenizer.output.TokenizedDocument;
 
 /**
  * Test class for {@link JTok}.
@@ -227,6 +250,693 @@ public class TestJTok {
   }
 
 
+  /**
+   * Tests the method {@link JTok#tokenizeToDocument(String, String)}.
+   *
+   * @throws IOException
+   *           if there is an error when reading files
+   */
+  @Test
+  public void testTokenizedDocument()
+      throws IOException {
+
+    String[][] inputs = {
+        { "german/german.txt", "de" },
+        { "english/english.txt", "en" },
+        { "test/paragraphTest.txt", "en" },
+        { "test/tuTest.txt", "de" } };
+    for (String[] oneInput : inputs) {
+      String input = this.readInput(oneInput[0]);
+      TokenizedDocument doc = tokenizer.tokenizeToDocument(input, oneInput[1]);
+      // the document must give the same paragraphs as the annotated string
+      assertThat(oneInput[0],
+          doc.toParagraphs().toString(),
+          is(Outputter.createParagraphs(tokenizer.tokenize(input, oneInput[1])).toString()));
+      assertThat(doc.getTokenCount(),
+          is(Outputter.createTokens(tokenizer.tokenize(input, oneInput[1])).size()));
+
+      // slicing all text units one by one must give all tokens and keep the paragraph starts
+      int tokenCount = 0;
+      for (int i = 0; i < doc.getTextUnitCount(); i++) {
+        TokenizedDocument slice = doc.sliceTextUnits(i, i + 1);
+        assertThat(slice.getTextUnitCount(), is(1));
+        assertThat(slice.getStart(0), is(doc.getStart(doc.getTextUnitTokenStart(i))));
+        assertThat(slice.isParagraphStart(0),
+            is(doc.isParagraphStart(doc.getTextUnitTokenStart(i))));
+        tokenCount += slice.getTokenCount();
+      }
+      assertThat(tokenCount, is(doc.getTokenCount()));
+    }
+
+    // the bit sets of the caller are not modified
+    BitSet tuStarts = new BitSet();
+    BitSet pStarts = new BitSet();
+    pStarts.set(1);
+    TokenizedDocument doc = new TokenizedDocument(
+        "a b", "en", new int[] { 0, 2 }, new int[] { 1, 3 }, new short[] { 0, 0 },
+        new String[] { "TOKEN" }, null, tuStarts, pStarts);
+    assertThat(doc.getTextUnitCount(), is(2));
+    assertThat(doc.isParagraphStart(0), is(false));
+    assertThat(tuStarts.isEmpty(), is(true));
+    assertThat(pStarts.cardinality(), is(1));
+  }
+
+
+  /**
+   * Tests the method {@link JTok#tokenizeChunks(java.io.Reader, String, int,
+   * java.util.function.Consumer)} with a memory-mapped file.
+   *
+   * @throws IOException
+   *           if there is an error when reading files
+   */
+  @Test
+  public void testTokenizeChunks()
+      throws IOException {
+
+    String input = this.readInput("german/german.txt");
+    Path file = Files.createTempFile("jtok", ".txt");
+    try {
+      Files.write(file, input.getBytes(StandardCharsets.UTF_8));
+      TokenizedDocument doc = tokenizer.tokenizeToDocument(input, "de");
+      StringBuilder expected = new StringBuilder();
+      for (int i = 0; i < doc.getTokenCount(); i++) {
+        expected.append(doc.getStart(i)).append(doc.getImage(i)).append(doc.getClassName(i));
+      }
+
+      // a small window makes sure that multi-byte characters are split between windows
+      for (int chunkSize : new int[] { 3, 500, 100000 }) {
+        StringBuilder text = new StringBuilder();
+        StringBuilder result = new StringBuilder();
+        try (Reader in = FileTools.openMappedReader(file.toFile(), "utf-8", 17)) {
+          tokenizer.tokenizeChunks(in, "de", chunkSize, chunk -> {
+            assertThat(chunk.getTextOffset(), is((long)text.length()));
+            text.append(chunk.getText());
+            for (int i = 0; i < chunk.getTokenCount(); i++) {
+              result.append(chunk.getTextOffset() + chunk.getStart(i))
+                  .append(chunk.getImage(i)).append(chunk.getClassName(i));
+            }
+          });
+        }
+        assertThat(text.toString(), is(input));
+        if (chunkSize > 3) {
+          // tokens are only split when a chunk contains no whitespace
+          assertThat(result.toString(), is(expected.toString()));
+        }
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+
+  /**
+   * Tests that {@link JTok#tokenizeChunks(java.io.Reader, String, int,
+   * java.util.function.Consumer)} starts a new text unit when a chunk is cut after a whitespace
+   * instead of a paragraph change, even after an abbreviation.
+   *
+   * @throws IOException
+   *           if there is an error when reading
+   */
+  @Test
+  public void testTokenizeChunksWhitespaceCut()
+      throws IOException {
+
+    String input = "He met Dr. Smith yesterday.";
+    TokenizedDocument doc = tokenizer.tokenizeToDocument(input, "en");
+    assertThat(doc.getImage(2), is("Dr."));
+    assertThat(doc.getTextUnitCount(), is(1));
+
+    // the buffer ends after "Smith ", which may continue, so the first chunk ends after "Dr. "
+    List<TokenizedDocument> chunks = new ArrayList<>();
+    tokenizer.tokenizeChunks(new StringReader(input), "en", 17, chunks::add);
+    assertThat(chunks.size(), is(2));
+    assertThat(chunks.get(0).getText(), is("He met Dr. "));
+    assertThat(chunks.get(0).getImage(2), is("Dr."));
+    assertThat(chunks.get(0).getClassName(2), is(doc.getClassName(2)));
+    TokenizedDocument second = chunks.get(1);
+    assertThat(second.getImage(0), is("Smith"));
+    assertThat(second.getClassName(0), is(doc.getClassName(3)));
+
+    // unlike the whole input, the chunk after the cut starts a text unit and a paragraph
+    assertThat(doc.isTextUnitStart(3), is(false));
+    assertThat(second.isTextUnitStart(0), is(true));
+    assertThat(second.isParagraphStart(0), is(true));
+  }
+
+
+  /**
+   * Tests loading the language resources on a single thread executor, which must not dead-lock, and
+   * that loading errors are reported as {@link InitializationException}.
+   *
+   * @throws IOException
+   *           if there is an error when reading files
+   */
+  @Test
+  public void testParallelInit()
+      throws IOException {
+
+    Properties tokProps = new Properties();
+    InputStream in = FileTools.openResourceFileAsStream(Paths.get("jtok/jtok.cfg"));
+    tokProps.load(in);
+    in.close();
+    String input = this.readInput("german/german.txt");
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      JTok otherTokenizer = new JTok(tokProps, executor);
+      assertThat(
+          otherTokenizer.tokenize(input, "de").toString(JTok.CLASS_ANNO),
+          is(tokenizer.tokenize(input, "de").toString(JTok.CLASS_ANNO)));
+
+      tokProps.setProperty("xx", "jtok/missing");
+      boolean failed = false;
+      try {
+        new JTok(tokProps, executor);
+      } catch (InitializationException e) {
+        failed = true;
+      }
+      assertThat(failed, is(true));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+
+  /**
+   * Tests that a {@link TokenizerListener} receives the counters of each tokenized document and
+   * that {@link TokenizerMetrics} aggregates them, without changing the tokenization result.
+   *
+   * @throws IOException
+   *           if there is an error when reading files
+   */
+  @Test
+  public void testListener()
+      throws IOException {
+
+    String input = this.readInput("english/amazon-coleman.txt");
+    String expected = tokenizer.tokenize(input, "en").toString(JTok.CLASS_ANNO);
+
+    TokenizerMetrics metrics = new TokenizerMetrics();
+    tokenizer.setListener(metrics);
+    try {
+      assertThat(tokenizer.tokenize(input, "en").toString(JTok.CLASS_ANNO), is(expected));
+      TokenizedDocument doc = tokenizer.tokenizeToDocument(input, "en");
+
+      assertThat(metrics.getDocuments(), is(2L));
+      assertThat(metrics.getCharacters(), is(2L * input.length()));
+      assertThat(metrics.getTokens(), is(2L * doc.getTokenCount()));
+      assertThat(metrics.getTextUnits(), is(2L * doc.getTextUnitCount()));
+      assertThat(metrics.getParagraphs(), is(2L * doc.toParagraphs().size()));
+      assertThat(metrics.getRegExpCalls() > metrics.getTokens(), is(true));
+      assertThat(metrics.getAbbrevHits() > 0, is(true));
+      assertThat(metrics.getOutputNanos() > 0, is(true));
+      assertThat(metrics.getTotalNanos() >= metrics.getTokensNanos() + metrics.getPunctNanos()
+          + metrics.getCliticsNanos() + metrics.getAbbrevNanos() + metrics.getTusNanos(),
+          is(true));
+
+      metrics.reset();
+      assertThat(metrics.getDocuments(), is(0L));
+    } finally {
+      tokenizer.setListener(null);
+    }
+  }
+
+
+  /**
+   * Tests the method {@link JTok#writeProfile(Appendable)}.
+   *
+   * @throws IOException
+   *           if there is an error when reading files
+   */
+  @Test
+  public void testProfile()
+      throws IOException {
+
+    Properties tokProps = new Properties();
+    tokProps.setProperty("en", "jtok/en");
+    JTok profilingTokenizer;
+    System.setProperty(JTok.PROFILE_PROPERTY, "true");
+    try {
+      profilingTokenizer = new JTok(tokProps);
+    } finally {
+      System.clearProperty(JTok.PROFILE_PROPERTY);
+    }
+
+    // profiling must not change the result
+    String input = this.readInput("english/amazon-coleman.txt");
+    assertThat(
+        profilingTokenizer.tokenize(input, "en").toString(JTok.CLASS_ANNO),
+        is(tokenizer.tokenize(input, "en").toString(JTok.CLASS_ANNO)));
+
+    StringBuilder report = new StringBuilder();
+    profilingTokenizer.writeProfile(report);
+    assertThat(report.toString(), containsString("classes class "));
+    assertThat(report.toString(), containsString("abbrev rule "));
+    boolean found = false;
+    for (String oneLine : report.toString().split("\\R")) {
+      if (oneLine.endsWith(" punct rule " + PunctDescription.ALL_RULE)) {
+        // ns, calls, hits, states, name
+        String[] fields = oneLine.trim().split("\\s+");
+        assertThat(Long.parseLong(fields[1]) > 0, is(true));
+        assertThat(Long.parseLong(fields[2]) > 0, is(true));
+        assertThat(Integer.parseInt(fields[3]) > 0, is(true));
+        found = true;
+      }
+    }
+    assertThat(found, is(true));
+
+    // without profiling, the report has no entries
+    report.setLength(0);
+    tokenizer.writeProfile(report);
+    assertThat(report.toString(), not(containsString(" rule ")));
+  }
+
+
+  /**
+   * Tests that the flight recorder events are emitted when enabled.
+   *
+   * @throws IOException
+   *           if there is an error when reading files or writing the recording
+   */
+  @Test
+  public void testFlightRecorderEvents()
+      throws IOException {
+
+    String input = this.readInput("english/english.txt");
+    Path recordingFile = Files.createTempFile("jtok", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(DocumentTokenizedEvent.NAME);
+      recording.enable(LanguageResourceLoadedEvent.NAME);
+      // record all tokens
+      recording.enable(SlowTokenEvent.NAME).withThreshold(Duration.ZERO);
+      recording.start();
+      LanguageResource.load("en", "jtok/en", Runnable::run).join();
+      TokenizedDocument doc = tokenizer.tokenizeToDocument(input, "en");
+      recording.stop();
+      recording.dump(recordingFile);
+
+      int documentEvents = 0;
+      int loadedEvents = 0;
+      int tokenEvents = 0;
+      for (RecordedEvent oneEvent : RecordingFile.readAllEvents(recordingFile)) {
+        String name = oneEvent.getEventType().getName();
+        if (name.equals(DocumentTokenizedEvent.NAME)) {
+          documentEvents++;
+          assertThat(oneEvent.getString("language"), is("en"));
+          assertThat(oneEvent.getInt("length"), is(input.length()));
+          assertThat(oneEvent.getInt("tokenCount"), is(doc.getTokenCount()));
+        } else if (name.equals(LanguageResourceLoadedEvent.NAME)) {
+          loadedEvents++;
+          assertThat(oneEvent.getString("language"), is("en"));
+        } else if (name.equals(SlowTokenEvent.NAME)) {
+          tokenEvents++;
+          assertThat(input.contains(oneEvent.getString("token")), is(true));
+        }
+      }
+      assertThat(documentEvents, is(1));
+      assertThat(loadedEvents, is(1));
+      assertThat(tokenEvents > 0, is(true));
+    } finally {
+      Files.delete(recordingFile);
+    }
+  }
+
+
+  /**
+   * Tests that tokens longer than the maximum token length are segmented by the linear fallback
+   * and that the fallback is disabled by default.
+   */
+  @Test
+  public void testLongToken() {
+
+    // by default, a token of more than 1000 characters is split by the rules only
+    assertThat(tokenizer.getMaxTokenLength(), is(Integer.MAX_VALUE));
+    StringBuilder longToken = new StringBuilder();
+    for (int i = 0; i < 400; i++) {
+      longToken.append("ab,");
+    }
+    TokenizedDocument doc = tokenizer.tokenizeToDocument("Hello " + longToken + " world", "en");
+    assertThat(doc.getTokenCount(), is(4));
+    assertThat(doc.getImage(1), is(longToken.substring(0, longToken.length() - 1)));
+    assertThat(doc.getImage(2), is(","));
+
+    longToken.setLength(0);
+    for (int i = 0; i < 50000; i++) {
+      longToken.append("ab,");
+    }
+    String input = "Hello " + longToken + " world.";
+    tokenizer.setMaxTokenLength(1000);
+    try {
+      doc = tokenizer.tokenizeToDocument(input, "en");
+    } finally {
+      tokenizer.setMaxTokenLength(JTok.DEFAULT_MAX_TOKEN_LENGTH);
+    }
+    assertThat(doc.getTokenCount(), is(100003));
+    assertThat(doc.getImage(0), is("Hello"));
+    assertThat(doc.getImage(1), is("ab"));
+    assertThat(doc.getImage(2), is(","));
+    assertThat(doc.getClassName(2), is(doc.getClassName(4)));
+    assertThat(doc.getClassName(2), not(doc.getClassName(1)));
+    assertThat(doc.getImage(100001), is("world"));
+
+    // tokens up to the maximum token length are split by the rules as before
+    String shortInput = "Hello ab,ab,ab world.";
+    String expected = tokenizer.tokenize(shortInput, "en").toString(JTok.CLASS_ANNO);
+    tokenizer.setMaxTokenLength(5);
+    try {
+      assertThat(tokenizer.getMaxTokenLength(), is(5));
+      assertThat(tokenizer.tokenize(shortInput, "en").toString(JTok.CLASS_ANNO),
+          not(expected));
+    } finally {
+      tokenizer.setMaxTokenLength(JTok.DEFAULT_MAX_TOKEN_LENGTH);
+    }
+    assertThat(tokenizer.tokenize(shortInput, "en").toString(JTok.CLASS_ANNO), is(expected));
+  }
+
+
+  /**
+   * Tests that tokenizing is aborted if a document exceeds its step or time budget.
+   *
+   * @throws IOException
+   *           if there is an error when reading files
+   */
+  @Test
+  public void testBudget()
+      throws IOException {
+
+    String input = this.readInput("english/english.txt");
+    String expected = tokenizer.tokenize(input, "en").toString(JTok.CLASS_ANNO);
+
+    boolean failed = false;
+    tokenizer.setStepBudget(100);
+    try {
+      tokenizer.tokenize(input, "en");
+    } catch (BudgetExceededException e) {
+      failed = true;
+    } finally {
+      tokenizer.setStepBudget(0);
+    }
+    assertThat(failed, is(true));
+
+    failed = false;
+    tokenizer.setTimeBudget(Duration.ofNanos(1));
+    try {
+      tokenizer.tokenizeToDocument(input, "en");
+    } catch (BudgetExceededException e) {
+      failed = true;
+    } finally {
+      tokenizer.setTimeBudget(null);
+    }
+    assertThat(failed, is(true));
+
+    // a sufficient budget doesn't change the result
+    tokenizer.setStepBudget(Long.MAX_VALUE);
+    tokenizer.setTimeBudget(Duration.ofMinutes(1));
+    try {
+      assertThat(tokenizer.tokenize(input, "en").toString(JTok.CLASS_ANNO), is(expected));
+    } finally {
+      tokenizer.setStepBudget(0);
+      tokenizer.setTimeBudget(null);
+    }
+  }
+
+
+  /**
+   * Tests that a tokenization stops when cancellation is requested via a {@link CancellationToken}.
+   *
+   * @throws Exception
+   *           if there is an error when generating the text or waiting for the tokenization
+   */
+  @Test
+  public void testCancellation()
+      throws Exception {
+
+    String input = new CorpusGenerator("en", 42).generate(1000000);
+
+    // an unused token doesn't change the result
+    String shortInput = this.readInput("english/english.txt");
+    assertThat(
+        tokenizer.tokenize(shortInput, "en", new CancellationToken()).toString(JTok.CLASS_ANNO),
+        is(tokenizer.tokenize(shortInput, "en").toString(JTok.CLASS_ANNO)));
+
+    CancellationToken cancelled = new CancellationToken();
+    cancelled.cancel();
+    boolean failed = false;
+    try {
+      tokenizer.tokenizeToDocument(input, "en", cancelled);
+    } catch (CancellationException e) {
+      failed = true;
+    }
+    assertThat(failed, is(true));
+
+    // cancel from another thread while tokenizing
+    CancellationToken cancellation = new CancellationToken();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<TokenizedDocument> future =
+          executor.submit(() -> tokenizer.tokenizeToDocument(input, "en", cancellation));
+      Thread.sleep(20);
+      cancellation.cancel();
+      failed = false;
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        failed = e.getCause() instanceof CancellationException;
+      }
+      assertThat(failed, is(true));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+
+  /**
+   * Tests the method {@link JTok#tokenizeToDocument(String, String, TokenizeOptions)} with
+   * disabled features.
+   *
+   * @throws IOException
+   *           if there is an error when reading files
+   */
+  @Test
+  public void testTokenizeOptions()
+      throws IOException {
+
+    String input = this.readInput("english/amazon-coleman.txt");
+    TokenizedDocument expected = tokenizer.tokenizeToDocument(input, "en");
+    TokenizeOptions options = new TokenizeOptions();
+    TokenizedDocument doc = tokenizer.tokenizeToDocument(input, "en", options);
+    assertThat(doc.toParagraphs().toString(), is(expected.toParagraphs().toString()));
+
+    // without token classes, the tokens and text units stay the same
+    options.setClassifyTokens(false);
+    doc = tokenizer.tokenizeToDocument(input, "en", options);
+    assertThat(doc.getTokenCount(), is(expected.getTokenCount()));
+    assertThat(doc.getTextUnitCount(), is(expected.getTextUnitCount()));
+    int unclassified = 0;
+    for (int i = 0; i < doc.getTokenCount(); i++) {
+      assertThat(doc.getStart(i), is(expected.getStart(i)));
+      assertThat(doc.getEnd(i), is(expected.getEnd(i)));
+      if (doc.getClassName(i).equals(JTok.UNCLASSIFIED)) {
+        unclassified++;
+      } else {
+        assertThat(doc.getClassName(i), is(expected.getClassName(i)));
+      }
+    }
+    assertThat(unclassified > 0, is(true));
+
+    // without abbreviations, their periods are tokens of their own
+    options = new TokenizeOptions();
+    options.setAbbreviations(false);
+    doc = tokenizer.tokenizeToDocument(input, "en", options);
+    assertThat(doc.getTokenCount() > expected.getTokenCount(), is(true));
+
+    // without text units, there is a single text unit in a single paragraph
+    options = new TokenizeOptions();
+    options.setTextUnits(false);
+    doc = tokenizer.tokenizeToDocument(input, "en", options);
+    assertThat(doc.getTokenCount(), is(expected.getTokenCount()));
+    assertThat(doc.getTextUnitCount(), is(1));
+    assertThat(doc.toParagraphs().size(), is(1));
+
+    // without Penn Treebank forms
+    options = new TokenizeOptions();
+    options.setPtbForms(false);
+    doc = tokenizer.tokenizeToDocument(input, "en", options);
+    int replaced = 0;
+    for (int i = 0; i < doc.getTokenCount(); i++) {
+      if (null != expected.getPtbImage(i)) {
+        replaced++;
+      }
+      assertThat(doc.getPtbImage(i), is(nullValue()));
+    }
+    assertThat(replaced > 0, is(true));
+  }
+
+
+  /**
+   * Tests that {@link JTok#splitSentences(String, String)} gives the same text units as
+   * {@link JTok#tokenizeToDocument(String, String)}.
+   *
+   * @throws IOException
+   *           if there is an error when reading files
+   */
+  @Test
+  public void testSplitSentences()
+      throws IOException {
+
+    String[][] inputs = {
+        { "english/amazon-coleman.txt", "en" },
+        { "english/english.txt", "en" },
+        { "english/randomhouse-hertsgaard.txt", "en" },
+        { "german/amazon.txt", "de" },
+        { "german/german.txt", "de" },
+        { "test/misc.txt", "en" },
+        { "test/paragraphTest.txt", "en" },
+        { "test/punctuationTest.txt", "en" },
+        { "test/tuTest.txt", "de" },
+        { "test/specialCharactersTest.txt", "de" } };
+    for (String[] oneInput : inputs) {
+      this.compareTextUnits(this.readInput(oneInput[0]), oneInput[1]);
+    }
+    for (String oneLang : new String[] { "en", "de", "it", "fr" }) {
+      this.compareTextUnits(new CorpusGenerator(oneLang, 42).generate(200000), oneLang);
+    }
+    assertThat(tokenizer.splitSentences("", "en").length, is(0));
+  }
+
+
+  /**
+   * Tests that {@link JTok#retokenize(TokenizedDocument, int, int, String)} gives the same result
+   * as tokenizing the whole edited text, for a sequence of random edits.
+   *
+   * @throws IOException
+   *           if there is an error when reading files
+   */
+  @Test
+  public void testRetokenize()
+      throws IOException {
+
+    String[] insertions = {
+        "", "a", "word", " ", "\n", "\n\n", " \n \n", ".", ". The", "Dr.", "etc. ", "(", "\"",
+        "don't", "3.5", "e.g.", "\n\nNew paragraph. ", "www.dfki.de", "?!" };
+    String[][] inputs = {
+        { this.readInput("english/amazon-coleman.txt"), "en" },
+        { this.readInput("test/paragraphTest.txt"), "en" },
+        { new CorpusGenerator("de", 42).generate(20000), "de" } };
+    Random random = new Random(42);
+    for (String[] oneInput : inputs) {
+      String lang = oneInput[1];
+      TokenizedDocument doc = tokenizer.tokenizeToDocument(oneInput[0], lang);
+      for (int i = 0; i < 300; i++) {
+        String text = doc.getText();
+        int offset = random.nextInt(text.length() + 1);
+        int deletedLength = random.nextInt(Math.min(text.length() - offset, 10) + 1);
+        String insertedText = insertions[random.nextInt(insertions.length)];
+        doc = tokenizer.retokenize(doc, offset, deletedLength, insertedText);
+
+        TokenizedDocument expected = tokenizer.tokenizeToDocument(doc.getText(), lang);
+        assertThat(doc.getText(),
+            is(text.substring(0, offset) + insertedText + text.substring(offset + deletedLength)));
+        assertThat(Arrays.equals(doc.getStarts(), expected.getStarts()), is(true));
+        assertThat(Arrays.equals(doc.getEnds(), expected.getEnds()), is(true));
+        assertThat(Arrays.equals(doc.getClassIds(), expected.getClassIds()), is(true));
+        assertThat(doc.getTextUnitStarts(), is(expected.getTextUnitStarts()));
+        assertThat(doc.getParagraphStarts(), is(expected.getParagraphStarts()));
+      }
+    }
+
+    boolean failed = false;
+    try {
+      tokenizer.retokenize(tokenizer.tokenizeToDocument("abc", "en"), 2, 2, "");
+    } catch (IndexOutOfBoundsException e) {
+      failed = true;
+    }
+    assertThat(failed, is(true));
+  }
+
+
+  /**
+   * Tests the method {@link JTok#retokenize(TokenizedDocument, int, int, String)} with edits next
+   * to abbreviations at the border of the re-tokenized paragraphs.
+   */
+  @Test
+  public void testRetokenizeAtAbbreviation() {
+
+    String input = "Er traf Dr.\n\nM\u00fcller kam z. B. heute. Sie ging.\n\nDas ist gut.";
+    TokenizedDocument doc = tokenizer.tokenizeToDocument(input, "de");
+    String[][] edits = {
+        // offset, deleted length, inserted text
+        { "13", "0", "Herr " }, { "11", "2", " " }, { "11", "0", " Prof." }, { "26", "0", "\n\n" },
+        { "29", "0", "\n\n" }, { "30", "1", "" }, { "46", "2", " " } };
+    for (String[] oneEdit : edits) {
+      this.compareRetokenized(
+          doc, Integer.parseInt(oneEdit[0]), Integer.parseInt(oneEdit[1]), oneEdit[2]);
+    }
+
+    // a paragraph start without a paragraph change right after an abbreviation, like at the start
+    // of a chunk
+    String spaced = input.replace("Dr.\n\n", "Dr. ");
+    doc = tokenizer.tokenizeToDocument(spaced, "de");
+    assertThat(doc.getImage(3), is("M\u00fcller"));
+    assertThat(doc.isTextUnitStart(3), is(false));
+    BitSet tuStarts = (BitSet)doc.getTextUnitStarts().clone();
+    tuStarts.set(3);
+    BitSet pStarts = (BitSet)doc.getParagraphStarts().clone();
+    pStarts.set(3);
+    TokenizedDocument previous = new TokenizedDocument(
+        spaced, "de", doc.getStarts(), doc.getEnds(), doc.getClassIds(),
+        tokenizer.getLanguageResource("de").getClassNames(), null, tuStarts, pStarts);
+    this.compareRetokenized(previous, spaced.indexOf("kam"), 3, "ging");
+  }
+
+
+  /**
+   * Re-tokenizes the given document after the given edit and compares the result with tokenizing
+   * the whole edited text.
+   *
+   * @param doc
+   *          the document
+   * @param offset
+   *          the index in the text of the document where the edit starts
+   * @param deletedLength
+   *          the number of characters removed at the offset
+   * @param insertedText
+   *          the text inserted at the offset
+   */
+  private void compareRetokenized(
+      TokenizedDocument doc, int offset, int deletedLength, String insertedText) {
+
+    TokenizedDocument result = tokenizer.retokenize(doc, offset, deletedLength, insertedText);
+    TokenizedDocument expected = tokenizer.tokenizeToDocument(result.getText(), "de");
+    String reason = result.getText();
+    assertThat(reason, Arrays.equals(result.getStarts(), expected.getStarts()), is(true));
+    assertThat(reason, Arrays.equals(result.getClassIds(), expected.getClassIds()), is(true));
+    assertThat(reason, result.getTextUnitStarts(), is(expected.getTextUnitStarts()));
+    assertThat(reason, result.getParagraphStarts(), is(expected.getParagraphStarts()));
+  }
+
+
+  /**
+   * Compares the text units found by {@link JTok#splitSentences(String, String)} with the text
+   * units of the tokenized document.
+   *
+   * @param input
+   *          the text
+   * @param lang
+   *          the language of the text
+   */
+  private void compareTextUnits(String input, String lang) {
+
+    TokenizedDocument doc = tokenizer.tokenizeToDocument(input, lang);
+    int[] spans = tokenizer.splitSentences(input, lang);
+    assertThat(spans.length, is(2 * doc.getTextUnitCount()));
+    for (int i = 0; i < doc.getTextUnitCount(); i++) {
+      assertThat(spans[2 * i], is(doc.getStart(doc.getTextUnitTokenStart(i))));
+      assertThat(spans[2 * i + 1], is(doc.getEnd(doc.getTextUnitTokenEnd(i) - 1)));
+    }
+  }
+
+
   /**
    * Compares the tokenization result of the given input with the result as read from the given file
    * name.
@@ -246,8 +956,7 @@ public class TestJTok {
 
     System.out.println(inputFileName);
     // tokenize input file
-    InputStream in = getClass().getClassLoader().getResourceAsStream(inputFileName);
-    String input = new String(FileTools.readInputStreamToByteArray(in), "utf-8");
+    String input = this.readInput(inputFileName);
     StringBuilder result = new StringBuilder();
     String newline = System.getProperty("line.separator");
     // print result as paragraphs with text units and tokens
@@ -272,4 +981,23 @@ public class TestJTok {
       lineCount++;
     }
   }
+
+
+  /**
+   * Reads the given input file from the classpath.
+   *
+   * @param inputFileName
+   *          the input file name
+   * @return the content of the input file
+   * @throws IOException
+   *           if there is an error when reading the input file
+   */
+  private String readInput(String inputFileName)
+      throws IOException {
+
+    InputStream in = getClass().getClassLoader().getResourceAsStream(inputFileName);
+    String input = new String(FileTools.readInputStreamToByteArray(in), "utf-8");
+    in.close();
+    return input;
+  }
 }
@@ -0,0 +1,198 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package de.dfki.lt.tools.tokenizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.dfki.lt.tools.tokenizer.output.OutputFormat;
+
+/**
+ * Test class for {@link PipeTokenizer}.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TestPipeTokenizer {
+
+  // the tokenizer
+  private static JTok tokenizer;
+
+
+  /**
+   * Initializes the tokenizer.
+   *
+   * @throws IOException
+   *           if there is an error during initialization
+   */
+  @BeforeClass
+  public static void oneTimeSetUp()
+      throws IOException {
+
+    tokenizer = new JTok();
+  }
+
+
+  /**
+   * Tests that {@link PipeTokenizer} writes the tokenized documents in input order.
+   *
+   * @throws IOException
+   *           if there is an error when reading files
+   * @throws InterruptedException
+   *           if interrupted while waiting for results
+   */
+  @Test
+  public void testTokenize()
+      throws IOException, InterruptedException {
+
+    String input = this.readInput("german/german.txt");
+    StringBuilder expected = new StringBuilder();
+    BufferedReader lineReader = new BufferedReader(new StringReader(input));
+    String line;
+    while ((line = lineReader.readLine()) != null) {
+      if (line.trim().isEmpty()) {
+        continue;
+      }
+      StringWriter oneResult = new StringWriter();
+      OutputFormat.CONLL.write(tokenizer.tokenize(line, "de"), oneResult);
+      expected.append(oneResult).append('\n');
+    }
+
+    // use a small queue to make sure the reader is blocked by the writer
+    PipeTokenizer pipeTokenizer =
+        new PipeTokenizer(tokenizer, "de", OutputFormat.CONLL, PipeTokenizer.Mode.LINE, 4, 2);
+    StringWriter result = new StringWriter();
+    assertThat(pipeTokenizer.tokenize(new StringReader(input), result), is(0));
+    assertThat(result.toString(), is(expected.toString()));
+  }
+
+
+  /**
+   * Tests that empty lines are skipped in line mode, so each empty line in the output separates
+   * two documents.
+   *
+   * @throws IOException
+   *           if there is an error when reading or writing
+   * @throws InterruptedException
+   *           if interrupted while waiting for results
+   */
+  @Test
+  public void testEmptyLine()
+      throws IOException, InterruptedException {
+
+    PipeTokenizer pipeTokenizer =
+        new PipeTokenizer(tokenizer, "de", OutputFormat.TOKENS, PipeTokenizer.Mode.LINE, 2, 2);
+    StringWriter result = new StringWriter();
+    assertThat(
+        pipeTokenizer.tokenize(new StringReader("Hallo Welt.\n\n \nTschüss.\n"), result),
+        is(0));
+    assertThat(result.toString(), is("Hallo Welt .\n\nTschüss .\n\n"));
+  }
+
+
+  /**
+   * Tests that {@link PipeTokenizer} stops all its threads if reading the input fails.
+   *
+   * @throws InterruptedException
+   *           if interrupted while waiting for the threads
+   */
+  @Test
+  public void testReadError()
+      throws InterruptedException {
+
+    // fails after the first line
+    Reader in = new Reader() {
+
+      private boolean firstLine = true;
+
+      @Override
+      public int read(char[] cbuf, int off, int len)
+          throws IOException {
+
+        if (this.firstLine) {
+          this.firstLine = false;
+          String line = "Das ist ein Test.\n";
+          line.getChars(0, line.length(), cbuf, off);
+          return line.length();
+        }
+        throw new IOException("read error");
+      }
+
+      @Override
+      public void close() {
+
+        // nothing to close
+      }
+    };
+
+    Set<Thread> threadsBefore = Thread.getAllStackTraces().keySet();
+    PipeTokenizer pipeTokenizer =
+        new PipeTokenizer(tokenizer, "de", OutputFormat.CONLL, PipeTokenizer.Mode.LINE, 2, 2);
+    boolean failed = false;
+    try {
+      pipeTokenizer.tokenize(in, new StringWriter());
+    } catch (IOException e) {
+      failed = true;
+    }
+    assertThat(failed, is(true));
+
+    // the worker and writer threads terminate
+    Set<Thread> newThreads = new HashSet<>(Thread.getAllStackTraces().keySet());
+    newThreads.removeAll(threadsBefore);
+    for (Thread oneThread : newThreads) {
+      oneThread.join(5000);
+      assertThat(oneThread.getName(), oneThread.isAlive(), is(false));
+    }
+  }
+
+
+  /**
+   * Reads the given resource.
+   *
+   * @param inputFileName
+   *          the resource name
+   * @return the content of the resource
+   * @throws IOException
+   *           if there is an error when reading the resource
+   */
+  private String readInput(String inputFileName)
+      throws IOException {
+
+    InputStream in = getClass().getClassLoader().getResourceAsStream(inputFileName);
+    String input = new String(FileTools.readInputStreamToByteArray(in), "utf-8");
+    in.close();
+    return input;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import de.dfki.lt.tools.tokenizer.exceptions.InitializationException;
+
+/**
+ * Test class for {@link ReferenceExpander}.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TestReferenceExpander {
+
+  /**
+   * Tests expansion of nested and forward references, unknown references and cycles.
+   */
+  @Test
+  public void testExpansion() {
+
+    Map<String, String> rawMap = new HashMap<>();
+    rawMap.put("WORD", "<LETTER>+");
+    rawMap.put("LETTER", "[a-z]|<UMLAUT>");
+    rawMap.put("UMLAUT", "[äöü]");
+    rawMap.put("CYCLE_A", "x<CYCLE_B>");
+    rawMap.put("CYCLE_B", "<CYCLE_A>y");
+    rawMap.put("BROKEN", "<LETTER>|<MISSING>");
+    Map<String, String> expandedMap = new HashMap<>();
+    expandedMap.put("DIGIT", "[0-9]");
+    ReferenceExpander expander = new ReferenceExpander(rawMap, expandedMap);
+
+    assertThat(expander.get("WORD"), is("([a-z]|([äöü]))+"));
+    assertThat(expandedMap.get("LETTER"), is("[a-z]|([äöü])"));
+    assertThat(expander.get("DIGIT"), is("[0-9]"));
+    assertThat(expander.get("UNKNOWN"), is(nullValue()));
+    // no references
+    assertThat(ReferenceExpander.expand("\\<<>a<b", expander::get), is("\\<<>a<b"));
+    assertThat(ReferenceExpander.expand("<<DIGIT>><WORD>", expander::get),
+        is("<([0-9])>(([a-z]|([äöü]))+)"));
+
+    boolean failed = false;
+    try {
+      ReferenceExpander.expand("<DIGIT><UNKNOWN>", expander::get);
+    } catch (InitializationException e) {
+      failed = true;
+    }
+    assertThat(failed, is(true));
+
+    // an unknown reference found while expanding a name
+    failed = false;
+    try {
+      expander.get("BROKEN");
+    } catch (InitializationException e) {
+      failed = true;
+    }
+    assertThat(failed, is(true));
+
+    failed = false;
+    try {
+      expander.get("CYCLE_A");
+    } catch (InitializationException e) {
+      failed = true;
+    }
+    assertThat(failed, is(true));
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package de.dfki.lt.tools.tokenizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link ScalarCharScanner}.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TestScalarCharScanner {
+
+  /**
+   * Tests that the scanner finds the first whitespace of a range in strings and other char
+   * sequences.
+   */
+  @Test
+  public void testFindWhitespace() {
+
+    assertThat(ScalarCharScanner.findWhitespace("abc def", 0, 7), is(3));
+    assertThat(ScalarCharScanner.findWhitespace("abc def", 4, 7), is(7));
+    assertThat(ScalarCharScanner.findWhitespace("abc def", 0, 2), is(2));
+    assertThat(ScalarCharScanner.findWhitespace("abc def", 3, 3), is(3));
+
+    // random texts with rare whitespaces of all kinds
+    char[] alphabet =
+        "abcXYZ09.,-/\u00e4\u00df\u03bb\u4e2d \t\n\r\u001f\u0085\u00a0\u2000\u2007\u3000"
+            .toCharArray();
+    Random random = new Random(42);
+    for (int run = 0; run < 1000; run++) {
+      char[] text = new char[random.nextInt(200)];
+      for (int i = 0; i < text.length; i++) {
+        text[i] = random.nextInt(20) == 0
+            ? alphabet[random.nextInt(alphabet.length)]
+            : (char)('a' + random.nextInt(26));
+      }
+      CharSequence sequence = run % 2 == 0 ? new String(text) : new StringBuilder().append(text);
+      int from = 0;
+      while (from < text.length) {
+        int end = from + random.nextInt(text.length - from + 1);
+        int expected = from;
+        while (expected < end && !Character.isWhitespace(text[expected])
+            && text[expected] != '\u00a0') {
+          expected++;
+        }
+        int index = ScalarCharScanner.findWhitespace(sequence, from, end);
+        assertThat(index, is(expected));
+        from = index + 1;
+      }
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link TermDictionary}.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TestTermDictionary {
+
+  /**
+   * Tests that case variants are accepted as configured.
+   */
+  @Test
+  public void testVariants() {
+
+    TermDictionary abbrevs = new TermDictionary.Builder()
+        .add("bzw.", TermDictionary.ORIGINAL | TermDictionary.UPPER_CASE
+            | TermDictionary.CAPITALIZED)
+        .add("Dr.", TermDictionary.ORIGINAL | TermDictionary.UPPER_CASE)
+        .add("str.", TermDictionary.ORIGINAL | TermDictionary.UPPER_CASE)
+        .add("straße", TermDictionary.UPPER_CASE)
+        .build();
+
+    String text = "z. B. bzw. Bzw. BZW. bZw. Dr. DR. dr. STRASSE STRAßE";
+    assertThat(abbrevs.contains(text, 6, 10), is(true));
+    assertThat(abbrevs.contains(text, 11, 15), is(true));
+    assertThat(abbrevs.contains(text, 16, 20), is(true));
+    assertThat(abbrevs.contains(text, 21, 25), is(false));
+    assertThat(abbrevs.contains(text, 26, 29), is(true));
+    assertThat(abbrevs.contains(text, 30, 33), is(true));
+    assertThat(abbrevs.contains(text, 34, 37), is(false));
+    // upper case conversion changes the length
+    assertThat(abbrevs.contains(text, 38, 45), is(true));
+    assertThat(abbrevs.contains(text, 46, 52), is(false));
+    assertThat(abbrevs.contains("straße"), is(false));
+    assertThat(abbrevs.contains("STR."), is(true));
+    assertThat(abbrevs.contains("Str."), is(false));
+    assertThat(abbrevs.contains(""), is(false));
+
+    TermDictionary nonCapTerms = new TermDictionary.Builder()
+        .add("the", TermDictionary.CAPITALIZED | TermDictionary.UPPER_CASE)
+        .build();
+    assertThat(nonCapTerms.contains("The"), is(true));
+    assertThat(nonCapTerms.contains("THE"), is(true));
+    assertThat(nonCapTerms.contains("the"), is(false));
+
+    TermDictionary union = TermDictionary.union(Arrays.asList(abbrevs, nonCapTerms));
+    for (String oneTerm : new String[] { "Bzw.", "DR.", "STRASSE", "The" }) {
+      assertThat(union.contains(oneTerm), is(true));
+    }
+    assertThat(union.contains("the"), is(false));
+  }
+}
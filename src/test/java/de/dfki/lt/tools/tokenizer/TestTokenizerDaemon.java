@@ -0,0 +1,133 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.dfki.lt.tools.tokenizer.exceptions.ProcessingException;
+import de.dfki.lt.tools.tokenizer.output.OutputFormat;
+
+/**
+ * Test class for {@link TokenizerDaemon} and {@link TokenizerClient}.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TestTokenizerDaemon {
+
+  // the tokenizer
+  private static JTok tokenizer;
+
+  // the daemon to test
+  private static TokenizerDaemon daemon;
+
+  // the temporary directory of the socket
+  private static Path socketDir;
+
+
+  /**
+   * Starts the daemon on a Unix domain socket if supported, otherwise on an ephemeral TCP port.
+   *
+   * @throws IOException
+   *           if there is an error during initialization
+   */
+  @BeforeClass
+  public static void oneTimeSetUp()
+      throws IOException {
+
+    tokenizer = new JTok();
+    socketDir = Files.createTempDirectory("jtok");
+    Path socketPath = socketDir.resolve("jtok.sock");
+    try {
+      daemon = new TokenizerDaemon(
+          tokenizer, TokenizerDaemon.openUnixSocket(socketPath), socketPath);
+    } catch (UnsupportedOperationException e) {
+      daemon = new TokenizerDaemon(tokenizer, TokenizerDaemon.openTcpSocket(0), null);
+    }
+    daemon.start();
+  }
+
+
+  /**
+   * Stops the daemon.
+   *
+   * @throws IOException
+   *           if there is an error when stopping the daemon
+   */
+  @AfterClass
+  public static void oneTimeTearDown()
+      throws IOException {
+
+    daemon.stop();
+    Files.delete(socketDir);
+  }
+
+
+  /**
+   * Tests pipelined requests over one connection.
+   *
+   * @throws IOException
+   *           if there is an error when communicating with the daemon
+   */
+  @Test
+  public void testPipelining()
+      throws IOException {
+
+    String[] documents = {
+        "Der Herr Dr. Müller kam gestern. Er war müde.",
+        "",
+        "Heute regnet es." };
+    try (TokenizerClient client = new TokenizerClient(daemon.getLocalAddress())) {
+      for (String oneDocument : documents) {
+        client.send("de", "conll", oneDocument);
+      }
+      client.send("de", "unknown", "text");
+      client.send("de", "tokens", documents[0]);
+      client.flush();
+
+      for (String oneDocument : documents) {
+        StringWriter expected = new StringWriter();
+        OutputFormat.CONLL.write(tokenizer.tokenize(oneDocument, "de"), expected);
+        assertThat(client.receive(), is(expected.toString()));
+      }
+      // an error must not break the connection
+      boolean failed = false;
+      try {
+        client.receive();
+      } catch (ProcessingException e) {
+        failed = true;
+      }
+      assertThat(failed, is(true));
+      assertThat(client.receive(), is("Der Herr Dr. Müller kam gestern .\nEr war müde .\n"));
+    }
+  }
+}
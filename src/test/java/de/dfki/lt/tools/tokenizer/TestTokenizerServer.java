@@ -0,0 +1,236 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.dfki.lt.tools.tokenizer.output.OutputFormat;
+
+/**
+ * Test class for {@link TokenizerServer}.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TestTokenizerServer {
+
+  // the tokenizer
+  private static JTok tokenizer;
+
+  // the server to test
+  private static TokenizerServer server;
+
+
+  /**
+   * Starts the server on an ephemeral port of the loopback interface.
+   *
+   * @throws IOException
+   *           if there is an error during initialization
+   */
+  @BeforeClass
+  public static void oneTimeSetUp()
+      throws IOException {
+
+    tokenizer = new JTok();
+    server = new TokenizerServer(tokenizer, new InetSocketAddress("localhost", 0));
+    server.start();
+  }
+
+
+  /**
+   * Stops the server.
+   */
+  @AfterClass
+  public static void oneTimeTearDown() {
+
+    server.stop(0);
+  }
+
+
+  /**
+   * Tests tokenization of a batch of documents.
+   *
+   * @throws IOException
+   *           if there is an error when sending the request
+   */
+  @Test
+  public void testTokenize()
+      throws IOException {
+
+    String[] documents = {
+        "Der Herr Dr. Müller kam gestern. Er war müde.",
+        "Heute regnet es.",
+        "" };
+    StringBuilder body = new StringBuilder();
+    StringBuilder expected = new StringBuilder();
+    for (String oneDocument : documents) {
+      body.append(oneDocument).append('\n');
+      if (oneDocument.isEmpty()) {
+        // empty lines are skipped
+        continue;
+      }
+      StringWriter oneResult = new StringWriter();
+      OutputFormat.CONLL.write(tokenizer.tokenize(oneDocument, "de"), oneResult);
+      expected.append(oneResult).append('\n');
+    }
+
+    HttpURLConnection conn = this.post("/tokenize?lang=de&format=conll&split=line", body);
+    assertThat(conn.getResponseCode(), is(200));
+    assertThat(this.read(conn.getInputStream()), is(expected.toString()));
+
+    // without split mode, the whole body is one document
+    conn = this.post("/tokenize?lang=de", body);
+    assertThat(conn.getResponseCode(), is(200));
+    assertThat(this.read(conn.getInputStream()),
+        is("Der Herr Dr. Müller kam gestern .\nEr war müde .\nHeute regnet es .\n"));
+
+    String metrics = this.read(
+        new URL("http://localhost:" + server.getPort() + "/metrics").openStream());
+    assertThat(metrics, containsString("jtok_documents_total"));
+  }
+
+
+  /**
+   * Tests that invalid requests are rejected.
+   *
+   * @throws IOException
+   *           if there is an error when sending the request
+   */
+  @Test
+  public void testInvalidRequests()
+      throws IOException {
+
+    assertThat(this.post("/tokenize?lang=de&format=unknown", "text").getResponseCode(), is(400));
+    assertThat(this.post("/tokenize?format=conll", "text").getResponseCode(), is(400));
+  }
+
+
+  /**
+   * Tests that documents that can't be tokenized are reported.
+   *
+   * @throws IOException
+   *           if there is an error when sending the request
+   */
+  @Test
+  public void testTokenizeFailure()
+      throws IOException {
+
+    JTok budgetTokenizer = new JTok();
+    budgetTokenizer.setStepBudget(50);
+    TokenizerServer budgetServer =
+        new TokenizerServer(budgetTokenizer, new InetSocketAddress("localhost", 0));
+    budgetServer.start();
+    try {
+      String longDocument = "Das ist ein langer Satz. ".repeat(20);
+
+      // a single document gives an error status
+      HttpURLConnection conn = this.post(budgetServer, "/tokenize?lang=de", longDocument);
+      assertThat(conn.getResponseCode(), is(500));
+
+      // in a batch, it gives an empty result and the other documents are still tokenized
+      conn = this.post(budgetServer, "/tokenize?lang=de&split=line",
+          "Hallo.\n" + longDocument + "\nHallo.\n");
+      assertThat(conn.getResponseCode(), is(200));
+      assertThat(this.read(conn.getInputStream()), is("Hallo .\n\n\nHallo .\n\n"));
+    } finally {
+      budgetServer.stop(0);
+    }
+  }
+
+
+  /**
+   * Posts the given body to the given path of the server.
+   *
+   * @param path
+   *          the path with query
+   * @param body
+   *          the request body
+   * @return the connection
+   * @throws IOException
+   *           if there is an error when sending the request
+   */
+  private HttpURLConnection post(String path, CharSequence body)
+      throws IOException {
+
+    return this.post(server, path, body);
+  }
+
+
+  /**
+   * Posts the given body to the given path of the given server.
+   *
+   * @param oneServer
+   *          the server
+   * @param path
+   *          the path with query
+   * @param body
+   *          the request body
+   * @return the connection
+   * @throws IOException
+   *           if there is an error when sending the request
+   */
+  private HttpURLConnection post(TokenizerServer oneServer, String path, CharSequence body)
+      throws IOException {
+
+    HttpURLConnection conn = (HttpURLConnection)new URL(
+        "http://localhost:" + oneServer.getPort() + path).openConnection();
+    conn.setRequestMethod("POST");
+    conn.setDoOutput(true);
+    try (OutputStream out = conn.getOutputStream()) {
+      out.write(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    return conn;
+  }
+
+
+  /**
+   * Reads the given stream as UTF-8 and closes it.
+   *
+   * @param in
+   *          the input stream
+   * @return the content
+   * @throws IOException
+   *           if there is an error when reading
+   */
+  private String read(InputStream in)
+      throws IOException {
+
+    try (InputStream toClose = in) {
+      return FileTools.readInputStream(toClose, "UTF-8");
+    }
+  }
+}
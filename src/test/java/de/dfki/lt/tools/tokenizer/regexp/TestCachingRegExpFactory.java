@@ -0,0 +1,65 @@
+/*
+ * JTok
+ * A configurable tokenizer implemented in Java
+ *
+ * (C) 2003 - 2014  DFKI Language Technology Lab http://www.dfki.de/lt
+ *   Author: Joerg Steffen, steffen@dfki.de
+ *
+ *   This program is free software; you can redistribute it and/or
+ *   modify it under the terms of the GNU Lesser General Public
+ *   License as published by the Free Software Foundation; either
+ *   version 2.1 of the License, or (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *   Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ *   License along with this library; if not, write to the Free Software
+ *   Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package de.dfki.lt.tools.tokenizer.regexp;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link CachingRegExpFactory}.
+ *
+ * @author Joerg Steffen, DFKI
+ */
+public class TestCachingRegExpFactory {
+
+  /**
+   * Tests that identical regular expression strings share one regular expression and that failures
+   * are not cached.
+   */
+  @Test
+  public void testCache() {
+
+    CachingRegExpFactory factory = new CachingRegExpFactory(new DkBricsRegExpFactory());
+    RegExp regExp = factory.createRegExp("[a-z]+");
+    assertThat(factory.createRegExp("[a-z]+"), is(sameInstance(regExp)));
+    assertThat(factory.createRegExp("[a-z]*"), is(not(sameInstance(regExp))));
+    assertThat(factory.size(), is(2));
+    assertThat(regExp.matches("abc"), is(true));
+
+    boolean failed = false;
+    try {
+      factory.createRegExp("(");
+    } catch (RuntimeException e) {
+      failed = true;
+    }
+    assertThat(failed, is(true));
+    assertThat(factory.size(), is(2));
+
+    factory.clear();
+    assertThat(factory.createRegExp("[a-z]+"), is(not(sameInstance(regExp))));
+  }
+}